@@ -0,0 +1,132 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.domain.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openlogisticsfoundation.ecmr.api.model.EcmrModel;
+import org.openlogisticsfoundation.ecmr.api.model.SealedDocument;
+import org.openlogisticsfoundation.ecmr.domain.beans.ItemBean;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.PdfCreationException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.RateLimitException;
+import org.openlogisticsfoundation.ecmr.domain.models.ConsigneeSignature;
+import org.openlogisticsfoundation.ecmr.domain.services.pdf.EcmrReportRegistry;
+import org.openlogisticsfoundation.ecmr.domain.services.pdf.FilledReportCache;
+import org.openlogisticsfoundation.ecmr.domain.services.pdf.PdfRenderExecutor;
+import org.openlogisticsfoundation.ecmr.domain.services.pdf.ReportAssetRegistry;
+import org.openlogisticsfoundation.ecmr.domain.services.pdf.ReportImageOptimizer;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
+
+/**
+ * Benchmarks the eCMR PDF pipeline end to end and stage by stage. Run with {@code mvn -Pjmh test-compile exec:exec}, see the {@code jmh}
+ * profile in the {@code pom.xml}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Djava.awt.headless=true", "-Xmx2g" })
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class EcmrPdfBenchmark {
+
+    @Param({ "1", "50", "500", "5000" })
+    private int items;
+
+    @Param({ "UNSEALED", "SEALED", "SIGNED" })
+    private EcmrPdfFixtures.Variant variant;
+
+    private EcmrReportRegistry ecmrReportRegistry;
+    private EcmrPdfService ecmrPdfService;
+    private EcmrModel ecmrModel;
+    private SealedDocument sealedDocument;
+    private ConsigneeSignature consigneeSignature;
+    private List<ItemBean> itemBeans;
+    private HashMap<String, Object> parameters;
+    private JasperPrint jasperPrint;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ecmrReportRegistry = new EcmrReportRegistry(false, true, meterRegistry);
+        ecmrReportRegistry.getReport();
+        PdfRenderExecutor pdfRenderExecutor = new PdfRenderExecutor(1, 0, Duration.ofSeconds(1), meterRegistry);
+        // only the rendering stages are benchmarked, they do not touch the persistence layer or the cache
+        ReportImageOptimizer reportImageOptimizer = new ReportImageOptimizer(150);
+        ReportAssetRegistry reportAssetRegistry = new ReportAssetRegistry(new DefaultResourceLoader(), reportImageOptimizer, null);
+        reportAssetRegistry.init();
+        ecmrPdfService = new EcmrPdfService(reportAssetRegistry, null, null, null, null, ecmrReportRegistry, null,
+                new FilledReportCache(0, meterRegistry), pdfRenderExecutor, reportImageOptimizer, null, null);
+
+        sealedDocument = EcmrPdfFixtures.sealedDocument(items, variant);
+        ecmrModel = sealedDocument != null ? sealedDocument.getEcmr() : EcmrPdfFixtures.ecmrModel(items, variant);
+        consigneeSignature = EcmrPdfFixtures.consigneeSignature(variant);
+        itemBeans = ecmrPdfService.convertToItemBeans(ecmrModel.getEcmrConsignment().getItemList());
+        parameters = ecmrPdfService.setEcmrParameters(ecmrModel, sealedDocument, consigneeSignature);
+        jasperPrint = ecmrReportRegistry.fill(this.fillParameters());
+    }
+
+    @Benchmark
+    public void endToEnd() throws PdfCreationException, RateLimitException, IOException {
+        ecmrPdfService.createJasperReportForEcmr(ecmrModel, sealedDocument, consigneeSignature, null, true, true).writeTo(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public List<ItemBean> convertToItemBeans() {
+        return ecmrPdfService.convertToItemBeans(ecmrModel.getEcmrConsignment().getItemList());
+    }
+
+    @Benchmark
+    public Map<String, Object> setEcmrParameters() throws IOException {
+        return ecmrPdfService.setEcmrParameters(ecmrModel, sealedDocument, consigneeSignature);
+    }
+
+    @Benchmark
+    public JasperPrint fill() throws JRException {
+        return ecmrReportRegistry.fill(this.fillParameters());
+    }
+
+    @Benchmark
+    public void exportCopy() throws JRException {
+        ecmrReportRegistry.exportToPdf(jasperPrint, true, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void exportOriginal() throws JRException {
+        ecmrReportRegistry.exportToPdf(jasperPrint, false, OutputStream.nullOutputStream());
+    }
+
+    private Map<String, Object> fillParameters() {
+        // a data source can only be iterated once
+        HashMap<String, Object> fillParameters = new HashMap<>(parameters);
+        fillParameters.put("items", new JRBeanCollectionDataSource(itemBeans));
+        return fillParameters;
+    }
+}
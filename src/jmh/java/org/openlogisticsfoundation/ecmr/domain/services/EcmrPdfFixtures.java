@@ -0,0 +1,135 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.domain.services;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+
+import javax.imageio.ImageIO;
+
+import org.openlogisticsfoundation.ecmr.api.model.EcmrModel;
+import org.openlogisticsfoundation.ecmr.api.model.SealedDocument;
+import org.openlogisticsfoundation.ecmr.domain.models.ConsigneeSignature;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Synthetic documents for the PDF benchmarks, derived from the JSON fixtures of the e2e tests.
+ */
+public final class EcmrPdfFixtures {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    public enum Variant {
+        /** eCMR without any seal */
+        UNSEALED,
+        /** sealed by sender, carrier and consignee */
+        SEALED,
+        /** sealed by sender and carrier, signed on glass by the consignee */
+        SIGNED
+    }
+
+    private EcmrPdfFixtures() {
+    }
+
+    static EcmrModel ecmrModel(int items, Variant variant) {
+        return read(ecmrNode(items, variant), EcmrModel.class);
+    }
+
+    static SealedDocument sealedDocument(int items, Variant variant) {
+        if (variant == Variant.UNSEALED) {
+            return null;
+        }
+        ObjectNode sealedDocument = (ObjectNode) load("/json-objects/sealed-document.json");
+        ObjectNode senderSeal = (ObjectNode) sealedDocument.get("senderSeal");
+        sealedDocument.set("carrierSeal", seal(senderSeal, "CARRIER"));
+        if (variant == Variant.SEALED) {
+            sealedDocument.set("consigneeSeal", seal(senderSeal, "CONSIGNEE"));
+        }
+        sealedDocument.set("ecmr", ecmrNode(items, variant));
+        return read(sealedDocument, SealedDocument.class);
+    }
+
+    /**
+     * @return The stored signature of the consignee for {@link Variant#SIGNED}, {@code null} otherwise
+     */
+    static ConsigneeSignature consigneeSignature(Variant variant) {
+        if (variant != Variant.SIGNED) {
+            return null;
+        }
+        return new ConsigneeSignature("Benchmark Consignee", Instant.parse("2024-10-18T10:00:00Z"), "image/png", signatureImage());
+    }
+
+    private static ObjectNode ecmrNode(int items, Variant variant) {
+        ObjectNode ecmr = (ObjectNode) load("/json-objects/ecmr/full-ecmr.json");
+        ObjectNode consignment = (ObjectNode) ecmr.get("ecmrConsignment");
+        ArrayNode itemList = (ArrayNode) consignment.get("itemList");
+        ObjectNode template = (ObjectNode) itemList.get(0);
+        itemList.removeAll();
+        for (int i = 0; i < items; i++) {
+            ObjectNode item = template.deepCopy();
+            ((ObjectNode) item.get("marksAndNos")).put("logisticsShippingMarksMarking", "Pallet " + i);
+            ((ObjectNode) item.get("natureOfTheGoods")).put("transportCargoIdentification", "Goods of item " + i);
+            itemList.add(item);
+        }
+        return ecmr;
+    }
+
+    private static ObjectNode seal(ObjectNode senderSeal, String role) {
+        ObjectNode seal = senderSeal.deepCopy();
+        ((ObjectNode) seal.get("sealMetadata")).put("role", role);
+        return seal;
+    }
+
+    private static byte[] signatureImage() {
+        BufferedImage image = new BufferedImage(600, 200, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.BLACK);
+        graphics.setStroke(new BasicStroke(4));
+        for (int x = 20; x < 580; x += 10) {
+            graphics.drawLine(x, 100 + (int) (60 * Math.sin(x / 25.0)), x + 10, 100 + (int) (60 * Math.sin((x + 10) / 25.0)));
+        }
+        graphics.dispose();
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", outputStream);
+            return outputStream.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static JsonNode load(String path) {
+        try (InputStream inputStream = EcmrPdfFixtures.class.getResourceAsStream(path)) {
+            return objectMapper.readTree(inputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load resource: " + path, e);
+        }
+    }
+
+    private static <T> T read(ObjectNode node, Class<T> type) {
+        try {
+            return objectMapper.treeToValue(node, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.domain.services.pdf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+
+/**
+ * Benchmarks preparing the eCMR report template, which happens once per application start.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class EcmrReportCompileBenchmark {
+
+    @Benchmark
+    public JasperReport compileTemplate() throws JRException, IOException {
+        try (InputStream inputStream = new ClassPathResource("reports/ecmr.jrxml").getInputStream()) {
+            return JasperCompileManager.compileReport(inputStream);
+        }
+    }
+
+    @Benchmark
+    public JasperReport loadReport() throws JRException {
+        // uses the precompiled reports/ecmr.jasper when it is packaged, otherwise compiles the template
+        return new EcmrReportRegistry(false, true, new SimpleMeterRegistry()).getReport();
+    }
+}
@@ -0,0 +1,17 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.domain.exceptions;
+
+import java.util.UUID;
+
+public class PdfJobNotCompletedException extends Exception {
+    public PdfJobNotCompletedException(UUID jobId) {
+        super("PDF job with id " + jobId + " has not completed");
+    }
+}
@@ -0,0 +1,17 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.domain.exceptions;
+
+import java.util.UUID;
+
+public class PdfJobNotFoundException extends Exception {
+    public PdfJobNotFoundException(UUID jobId) {
+        super("No PDF job with id " + jobId + " found");
+    }
+}
@@ -8,8 +8,20 @@
 
 package org.openlogisticsfoundation.ecmr.domain.exceptions;
 
+import java.time.Duration;
+
+import lombok.Getter;
+
+@Getter
 public class RateLimitException extends Exception {
+    private final Duration retryAfter;
+
     public RateLimitException(String message) {
+        this(message, null);
+    }
+
+    public RateLimitException(String message, Duration retryAfter) {
         super(message);
+        this.retryAfter = retryAfter;
     }
 }
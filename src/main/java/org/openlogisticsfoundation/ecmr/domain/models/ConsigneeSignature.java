@@ -7,12 +7,16 @@
  */
 package org.openlogisticsfoundation.ecmr.domain.models;
 
+import java.time.Instant;
+
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
 @AllArgsConstructor
 @Getter
-public class PdfFile {
-    private String filename;
+public class ConsigneeSignature {
+    private String userName;
+    private Instant timestamp;
+    private String contentType;
     private byte[] data;
 }
@@ -0,0 +1,23 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.domain.models;
+
+/**
+ * How the total number of eCMRs of a page is determined.
+ */
+public enum CountMode {
+    /** Counts the matching eCMRs on every request */
+    EXACT,
+    /** Reuses the exact count of the same user and filter for a short time */
+    CACHED,
+    /** Uses the row estimate of the PostgreSQL planner, falls back to an exact count on other databases */
+    APPROXIMATE,
+    /** Does not count, the page only tells whether there is a next page */
+    NONE
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.domain.models;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import org.openlogisticsfoundation.ecmr.domain.exceptions.ValidationException;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Position after the last eCMR of a page when paginating by keyset: the value of the sort field and the id of that eCMR. The token handed to
+ * clients is opaque, it also contains the sorting so that it can not be reused with a different order.
+ */
+@AllArgsConstructor
+@Getter
+public class EcmrCursor {
+    private static final String SEPARATOR = "|";
+
+    private SortingField sortBy;
+    private SortingOrder sortingOrder;
+    private Object sortValue;
+    private long id;
+
+    public String toToken() {
+        StringBuilder token = new StringBuilder()
+                .append(sortBy.name()).append(SEPARATOR)
+                .append(sortingOrder.name()).append(SEPARATOR)
+                .append(id);
+        if (sortValue != null) {
+            token.append(SEPARATOR).append(sortValue instanceof Enum<?> enumValue ? enumValue.name() : sortValue.toString());
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static EcmrCursor fromToken(String token, SortingField sortBy, SortingOrder sortingOrder) throws ValidationException {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\" + SEPARATOR, 4);
+            if (parts.length < 3 || SortingField.valueOf(parts[0]) != sortBy || SortingOrder.valueOf(parts[1]) != sortingOrder) {
+                throw new ValidationException("Cursor does not belong to the requested sorting");
+            }
+            Object sortValue = parts.length == 4 ? parseSortValue(sortBy.getEntryFieldType(), parts[3]) : null;
+            return new EcmrCursor(sortBy, sortingOrder, sortValue, Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Object parseSortValue(Class<?> type, String value) {
+        if (type == Instant.class) {
+            return Instant.parse(value);
+        }
+        if (type.isEnum()) {
+            return Enum.valueOf((Class<? extends Enum>) type, value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.domain.models;
+
+import org.openlogisticsfoundation.ecmr.api.model.EcmrStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Number of eCMRs with the same type, status and transport type. The transport type is null if the country code of the sender or the
+ * consignee is missing.
+ */
+@AllArgsConstructor
+@Getter
+public class EcmrFacetCount {
+    private EcmrType type;
+    private EcmrStatus ecmrStatus;
+    private EcmrTransportType transportType;
+    private long count;
+}
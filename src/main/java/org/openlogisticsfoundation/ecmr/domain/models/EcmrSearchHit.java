@@ -0,0 +1,31 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.domain.models;
+
+import java.util.UUID;
+
+import org.openlogisticsfoundation.ecmr.api.model.EcmrStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * An eCMR found by the full-text search, with the columns stored in the search index.
+ */
+@AllArgsConstructor
+@Getter
+public class EcmrSearchHit {
+    private UUID ecmrId;
+    private float score;
+    private EcmrType type;
+    private EcmrStatus ecmrStatus;
+    private String referenceIdentificationNumber;
+    private String senderCompanyName;
+    private String consigneeCompanyName;
+    private String carrierLicensePlate;
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.domain.models;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.openlogisticsfoundation.ecmr.api.model.EcmrStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The columns of an eCMR shown in the list view, selected directly from the eCMR and its member information without loading the entity.
+ */
+@AllArgsConstructor
+@Getter
+public class EcmrSummary {
+    private UUID ecmrId;
+    private EcmrType type;
+    private EcmrStatus ecmrStatus;
+    private String referenceIdentificationNumber;
+    private String senderCompanyName;
+    private String senderCountryCode;
+    private String consigneeCompanyName;
+    private String consigneePostcode;
+    private String consigneeCountryCode;
+    private String carrierCompanyName;
+    private String carrierPostcode;
+    private String carrierLicensePlate;
+    private Instant createdAt;
+    private String createdBy;
+    private Instant editedAt;
+    private String editedBy;
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.domain.models;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class PdfJob {
+    private UUID jobId;
+    private UUID ecmrId;
+    private PdfJobStatus status;
+    private String errorMessage;
+    private Instant createdAt;
+    private Instant completedAt;
+}
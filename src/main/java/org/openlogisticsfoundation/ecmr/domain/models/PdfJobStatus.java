@@ -0,0 +1,16 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.domain.models;
+
+public enum PdfJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
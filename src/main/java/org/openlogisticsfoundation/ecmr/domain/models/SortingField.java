@@ -8,22 +8,27 @@
 
 package org.openlogisticsfoundation.ecmr.domain.models;
 
+import java.time.Instant;
+
+import org.openlogisticsfoundation.ecmr.api.model.EcmrStatus;
+
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
 @AllArgsConstructor
 @Getter
 public enum SortingField {
-    referenceId("referenceIdentificationNumber"),
-    from("senderInformation.nameCompany"),
-    to("consigneeInformation.nameCompany"),
-    status("ecmrStatus"),
-    licensePlate("carrierInformation.carrierLicensePlate"),
-    carrierName("carrierInformation.nameCompany"),
-    carrierPostCode("carrierInformation.postcode"),
-    consigneePostCode("consigneeInformation.postcode"),
-    lastEditor("editedBy"),
-    lastEditDate("editedAt"),
-    creationDate("createdAt");
+    referenceId("referenceIdentificationNumber", String.class),
+    from("senderInformation.companyName", String.class),
+    to("consigneeInformation.companyName", String.class),
+    status("ecmrStatus", EcmrStatus.class),
+    licensePlate("carrierInformation.carrierLicensePlate", String.class),
+    carrierName("carrierInformation.companyName", String.class),
+    carrierPostCode("carrierInformation.postcode", String.class),
+    consigneePostCode("consigneeInformation.postcode", String.class),
+    lastEditor("editedBy", String.class),
+    lastEditDate("editedAt", Instant.class),
+    creationDate("createdAt", Instant.class);
     private final String entryFieldName;
+    private final Class<?> entryFieldType;
 }
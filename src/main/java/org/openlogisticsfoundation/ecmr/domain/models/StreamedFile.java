@@ -0,0 +1,120 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.domain.models;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.With;
+
+/**
+ * A file, e.g. a rendered PDF, a preview image or a stored signature, that is written to the client on demand. The content is not necessarily
+ * held in memory, so the length is only known for files that have been written before and is {@code null} otherwise. A file with a known
+ * length is written identically every time. The optional ETag identifies the version of the file, weak ({@code W/"..."}) if the content is
+ * rendered anew for every request.
+ */
+@AllArgsConstructor
+@Getter
+public class StreamedFile {
+    public static final String APPLICATION_PDF = "application/pdf";
+    public static final String IMAGE_PNG = "image/png";
+
+    private String filename;
+    private String contentType;
+    private Long contentLength;
+    private Content content;
+    @With
+    private String etag;
+
+    public StreamedFile(String filename, String contentType, Long contentLength, Content content) {
+        this(filename, contentType, contentLength, content, null);
+    }
+
+    public StreamedFile(String filename, String contentType, byte[] data) {
+        this(filename, contentType, (long) data.length, outputStream -> outputStream.write(data));
+    }
+
+    /**
+     * A file the client already has in the version of the ETag, so its content has not been produced and must not be written. It is answered
+     * with 304.
+     */
+    public static StreamedFile notModified(String filename, String contentType, String etag) {
+        return new StreamedFile(filename, contentType, null, outputStream -> {
+            throw new IllegalStateException("The content of " + filename + " has not been produced");
+        }, etag);
+    }
+
+    public void writeTo(OutputStream outputStream) throws IOException {
+        content.writeTo(outputStream);
+    }
+
+    /**
+     * Writes {@code length} bytes from position {@code start} on, for a file with a known length.
+     */
+    public void writeTo(OutputStream outputStream, long start, long length) throws IOException {
+        content.writeTo(outputStream, start, length);
+    }
+
+    /**
+     * Releases what the content holds, e.g. an open file, if it is not going to be written.
+     */
+    public void discard() {
+        content.discard();
+    }
+
+    @FunctionalInterface
+    public interface Content {
+        void writeTo(OutputStream outputStream) throws IOException;
+
+        /**
+         * Writes the whole content and passes on only the requested bytes. Content that can seek, like a cached file, reads only those.
+         */
+        default void writeTo(OutputStream outputStream, long start, long length) throws IOException {
+            this.writeTo(new RangeOutputStream(outputStream, start, start + length - 1));
+        }
+
+        default void discard() {
+        }
+    }
+
+    /**
+     * Passes on only the bytes from {@code start} to {@code end}, both inclusive.
+     */
+    private static final class RangeOutputStream extends FilterOutputStream {
+        private final long start;
+        private final long end;
+        private long position;
+
+        RangeOutputStream(OutputStream outputStream, long start, long end) {
+            super(outputStream);
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (position >= start && position <= end) {
+                out.write(b);
+            }
+            position++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            long from = Math.max(position, start);
+            long to = Math.min(position + len - 1, end);
+            if (from <= to) {
+                out.write(b, off + (int) (from - position), (int) (to - from + 1));
+            }
+            position += len;
+        }
+    }
+}
@@ -9,6 +9,8 @@
 
 import java.time.Instant;
 
+import org.openlogisticsfoundation.ecmr.api.model.signature.Signature;
+
 import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.experimental.SuperBuilder;
@@ -21,6 +23,7 @@ public class GoodsReceivedCommand {
     @Size(min = 2, max = 512)
     private String consigneeReservationsObservations;
     private Instant consigneeSignatureDate;
+    private Signature consigneeSignature;
     private Instant consigneeTimeOfArrival;
     private Instant consigneeTimeOfDeparture;
 }
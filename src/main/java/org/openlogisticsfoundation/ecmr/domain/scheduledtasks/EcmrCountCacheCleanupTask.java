@@ -0,0 +1,27 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.domain.scheduledtasks;
+
+import lombok.AllArgsConstructor;
+import org.openlogisticsfoundation.ecmr.domain.services.EcmrCountCache;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+
+@Component
+@AllArgsConstructor
+public class EcmrCountCacheCleanupTask {
+
+    private final EcmrCountCache ecmrCountCache;
+
+    @Scheduled(fixedDelayString = "${ecmr.list.count-cache.cleanup-interval:PT5M}")
+    public void removeExpiredCounts() {
+        ecmrCountCache.removeExpiredCounts();
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.domain.scheduledtasks;
+
+import lombok.AllArgsConstructor;
+import org.openlogisticsfoundation.ecmr.domain.services.PdfJobService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+
+@Component
+@AllArgsConstructor
+public class PdfJobCleanupTask {
+
+    private final PdfJobService pdfJobService;
+
+    @Scheduled(fixedDelayString = "${ecmr.pdf.jobs.cleanup-interval:PT5M}")
+    public void removeExpiredPdfJobs() {
+        pdfJobService.removeExpiredJobs();
+    }
+}
@@ -14,7 +14,6 @@
 import org.apache.commons.lang3.StringUtils;
 import org.openlogisticsfoundation.ecmr.api.model.EcmrStatus;
 import org.openlogisticsfoundation.ecmr.domain.models.EcmrRole;
-import org.openlogisticsfoundation.ecmr.domain.models.Group;
 import org.openlogisticsfoundation.ecmr.domain.models.InternalOrExternalUser;
 import org.openlogisticsfoundation.ecmr.domain.models.commands.CustomChargeCommand;
 import org.openlogisticsfoundation.ecmr.domain.models.commands.DeliveryOfTheGoodsCommand;
@@ -36,6 +35,7 @@
 import org.openlogisticsfoundation.ecmr.persistence.entities.TakingOverTheGoodsEntity;
 import org.openlogisticsfoundation.ecmr.persistence.entities.ToBePaidByEntity;
 import org.openlogisticsfoundation.ecmr.persistence.repositories.EcmrAssignmentRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.EcmrVisibilityRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -46,7 +46,7 @@
 public class AuthorisationService {
 
     private final EcmrAssignmentRepository assignmentRepository;
-    private final GroupService groupService;
+    private final EcmrVisibilityRepository visibilityRepository;
 
     public boolean tanValid(UUID ecmrId, String userToken, String tan) {
         return !assignmentRepository.findByExternalUser(ecmrId, userToken, tan).isEmpty();
@@ -86,10 +86,7 @@ public List<EcmrRole> getRolesOfUser(InternalOrExternalUser internalOrExternalUs
     }
 
     private List<EcmrRole> getRolesOfInternalUser(long userId, UUID ecmrId) {
-        List<Group> usersGroups = groupService.getGroupsForUser(userId);
-        List<Long> groupIds = groupService.flatMapGroupTrees(usersGroups).stream().map(Group::getId).toList();
-        return this.assignmentRepository.findByEcmr_EcmrIdAndGroup_IdIn(ecmrId, groupIds).stream()
-                .map(EcmrAssignmentEntity::getRole).toList();
+        return this.visibilityRepository.findRolesByEcmrIdAndUserId(ecmrId, userId);
     }
 
     private List<EcmrRole> getRolesOfExternalUser(String userToken, String tan, UUID ecmrId) {
@@ -0,0 +1,115 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.domain.services;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.openlogisticsfoundation.ecmr.api.model.signature.Signature;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.EcmrNotFoundException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.NoPermissionException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.ValidationException;
+import org.openlogisticsfoundation.ecmr.domain.models.ConsigneeSignature;
+import org.openlogisticsfoundation.ecmr.domain.models.InternalOrExternalUser;
+import org.openlogisticsfoundation.ecmr.domain.models.StreamedFile;
+import org.openlogisticsfoundation.ecmr.persistence.entities.ConsigneeSignatureEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.ConsigneeSignatureProjection;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrEntity;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.ConsigneeSignatureRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Stores the signature image of the consignee separately from the eCMR. The base64 data URL sent by the client is decoded once when it is
+ * saved, reading an eCMR does not load the image and the PDF gets the stored bytes.
+ */
+@Service
+@RequiredArgsConstructor
+@Log4j2
+public class ConsigneeSignatureService {
+
+    private static final String DATA_URL_PREFIX = "data:";
+    private static final String BASE64_MARKER = ";base64,";
+
+    private final ConsigneeSignatureRepository consigneeSignatureRepository;
+    private final EcmrService ecmrService;
+    private final AuthorisationService authorisationService;
+
+    /**
+     * Stores the signature if it carries an image that differs from the stored one. A signature without image keeps the stored one, since
+     * eCMRs are returned to the clients without the image.
+     */
+    @Transactional
+    public void saveSignature(EcmrEntity ecmrEntity, Signature signature) throws ValidationException {
+        if (signature == null || signature.getData() == null || signature.getData().isBlank()) {
+            return;
+        }
+        String dataUrl = signature.getData();
+        int marker = dataUrl.indexOf(BASE64_MARKER);
+        if (!dataUrl.startsWith(DATA_URL_PREFIX + "image/") || marker < 0) {
+            throw new ValidationException("The consignee signature has to be a base64 encoded image data URL");
+        }
+        String contentType = dataUrl.substring(DATA_URL_PREFIX.length(), marker).toLowerCase(Locale.ROOT);
+        byte[] data;
+        try {
+            data = Base64.getDecoder().decode(dataUrl.substring(marker + BASE64_MARKER.length()));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("The consignee signature is not valid base64");
+        }
+
+        Optional<ConsigneeSignatureEntity> storedSignature = consigneeSignatureRepository.findByEcmrId(ecmrEntity.getEcmrId());
+        if (storedSignature.isPresent() && Arrays.equals(storedSignature.get().getData(), data)) {
+            return;
+        }
+        // a new row gets a new id, which is the ETag of the image
+        storedSignature.ifPresent(consigneeSignatureEntity -> {
+            consigneeSignatureRepository.delete(consigneeSignatureEntity);
+            consigneeSignatureRepository.flush();
+        });
+        consigneeSignatureRepository.save(
+                new ConsigneeSignatureEntity(ecmrEntity, signature.getUserName(), signature.getTimestamp(), contentType, data));
+        log.debug("Stored consignee signature of eCMR {}, {} bytes", ecmrEntity.getEcmrId(), data.length);
+    }
+
+    @Transactional
+    public Optional<ConsigneeSignature> getSignature(EcmrEntity ecmrEntity) {
+        return consigneeSignatureRepository.findByEcmrId(ecmrEntity.getEcmrId())
+                .map(entity -> new ConsigneeSignature(entity.getUserName(), entity.getTimestamp(), entity.getContentType(), entity.getData()));
+    }
+
+    /**
+     * Returns the signature image for download. The ETag is known without reading the image, which is only loaded when the content is
+     * written.
+     */
+    @Transactional
+    public Optional<StreamedFile> getSignatureImage(UUID ecmrId, InternalOrExternalUser internalOrExternalUser)
+            throws EcmrNotFoundException, NoPermissionException {
+        if (!ecmrService.existsByEcmrId(ecmrId)) {
+            throw new EcmrNotFoundException(ecmrId);
+        }
+        if (authorisationService.hasNoRole(internalOrExternalUser, ecmrId)) {
+            throw new NoPermissionException("No permission to view the consignee signature");
+        }
+        return consigneeSignatureRepository.findProjectionByEcmrId(ecmrId).map(this::toImage);
+    }
+
+    private StreamedFile toImage(ConsigneeSignatureProjection projection) {
+        String fileName = "consignee-signature-" + projection.getId() + "." + projection.getContentType().replaceFirst("^image/", "");
+        Long id = projection.getId();
+        return new StreamedFile(fileName, projection.getContentType(), null, outputStream -> outputStream.write(
+                consigneeSignatureRepository.findDataById(id).orElseThrow(() -> new IOException("The consignee signature has been replaced"))))
+                .withEtag("\"signature-" + id + "\"");
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.domain.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.openlogisticsfoundation.ecmr.domain.exceptions.EcmrNotFoundException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.NoPermissionException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.PdfCreationException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.RateLimitException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.ValidationException;
+import org.openlogisticsfoundation.ecmr.domain.models.InternalOrExternalUser;
+import org.openlogisticsfoundation.ecmr.domain.models.StreamedFile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Renders the PDFs of many eCMRs into one ZIP archive. Documents are rendered in parallel on a bounded worker pool, and at most
+ * {@code ecmr.pdf.bulk.window-size} rendered documents are held in memory while waiting to be written, so the memory footprint does not depend on
+ * the number of exported eCMRs. An archive contains at most {@value #ARCHIVE_MAX_DOCUMENTS} eCMRs and at most
+ * {@code ecmr.pdf.bulk.max-archives} archives are written at the same time, so archive exports can not take the rendering bulkhead from other
+ * requests for long.
+ */
+@Service
+@Log4j2
+public class EcmrBulkPdfService {
+
+    public static final int ARCHIVE_MAX_DOCUMENTS = 1000;
+
+    private static final String ARCHIVE_FILE_NAME = "eCMRs.zip";
+    private static final String APPLICATION_ZIP = "application/zip";
+    private static final String ERROR_ENTRY_NAME = "errors.txt";
+
+    private final EcmrPdfService ecmrPdfService;
+    private final ExecutorService executorService;
+    private final int windowSize;
+    private final Semaphore archives;
+
+    public EcmrBulkPdfService(EcmrPdfService ecmrPdfService,
+            @Value("${ecmr.pdf.bulk.parallelism:0}") int parallelism,
+            @Value("${ecmr.pdf.bulk.window-size:0}") int windowSize,
+            @Value("${ecmr.pdf.bulk.max-archives:2}") int maxArchives) {
+        this.ecmrPdfService = ecmrPdfService;
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.executorService = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("ecmr-bulk-pdf-", 0).daemon().factory());
+        this.windowSize = windowSize > 0 ? windowSize : threads * 2;
+        this.archives = new Semaphore(maxArchives);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executorService.shutdownNow();
+    }
+
+    /**
+     * Returns the ZIP archive with the PDFs of the given eCMRs, in the order of the ids. The PDFs are rendered while the archive is written.
+     * eCMRs that cannot be rendered are skipped and listed in an {@code errors.txt} entry at the end of the archive. The archive takes one of
+     * the {@code ecmr.pdf.bulk.max-archives} slots until it has been written or discarded.
+     *
+     * @throws ValidationException If there are more than {@value #ARCHIVE_MAX_DOCUMENTS} eCMRs
+     * @throws RateLimitException If as many archives are being written already
+     */
+    public StreamedFile createPdfArchive(List<UUID> ecmrIds, InternalOrExternalUser internalOrExternalUser, boolean isCopy)
+            throws ValidationException, RateLimitException {
+        if (ecmrIds.size() > ARCHIVE_MAX_DOCUMENTS) {
+            throw new ValidationException("A PDF archive can contain at most " + ARCHIVE_MAX_DOCUMENTS + " eCMRs");
+        }
+        if (!archives.tryAcquire()) {
+            throw new RateLimitException("Too many PDF archive exports");
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                archives.release();
+            }
+        };
+        return new StreamedFile(ARCHIVE_FILE_NAME, APPLICATION_ZIP, null, new StreamedFile.Content() {
+            @Override
+            public void writeTo(OutputStream outputStream) throws IOException {
+                try {
+                    EcmrBulkPdfService.this.writePdfArchive(ecmrIds, internalOrExternalUser, isCopy, outputStream);
+                } finally {
+                    release.run();
+                }
+            }
+
+            @Override
+            public void discard() {
+                release.run();
+            }
+        });
+    }
+
+    private void writePdfArchive(List<UUID> ecmrIds, InternalOrExternalUser internalOrExternalUser, boolean isCopy, OutputStream outputStream)
+            throws IOException {
+        Deque<RenderTask> window = new ArrayDeque<>();
+        Iterator<UUID> idIterator = ecmrIds.iterator();
+        Set<String> entryNames = new HashSet<>();
+        List<String> errors = new ArrayList<>();
+
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+            while (idIterator.hasNext() || !window.isEmpty()) {
+                while (idIterator.hasNext() && window.size() < windowSize) {
+                    UUID ecmrId = idIterator.next();
+                    window.add(new RenderTask(ecmrId, executorService.submit(() -> this.renderPdf(ecmrId, internalOrExternalUser, isCopy))));
+                }
+
+                RenderTask task = window.poll();
+                try {
+                    RenderedPdf renderedPdf = task.getFuture().get();
+                    zipOutputStream.putNextEntry(new ZipEntry(getUniqueEntryName(renderedPdf.getFilename(), task.getEcmrId(), entryNames)));
+                    zipOutputStream.write(renderedPdf.getData());
+                    zipOutputStream.closeEntry();
+                } catch (ExecutionException e) {
+                    log.warn("Could not render PDF for eCMR {}", task.getEcmrId(), e.getCause());
+                    errors.add(task.getEcmrId() + ": " + e.getCause().getMessage());
+                }
+            }
+
+            if (!errors.isEmpty()) {
+                zipOutputStream.putNextEntry(new ZipEntry(ERROR_ENTRY_NAME));
+                zipOutputStream.write(String.join("\n", errors).getBytes(StandardCharsets.UTF_8));
+                zipOutputStream.closeEntry();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("PDF export was interrupted", e);
+        } finally {
+            // the client may have aborted the download, pending renderings are not needed anymore
+            window.forEach(task -> task.getFuture().cancel(true));
+        }
+    }
+
+    private RenderedPdf renderPdf(UUID ecmrId, InternalOrExternalUser internalOrExternalUser, boolean isCopy)
+            throws NoPermissionException, EcmrNotFoundException, PdfCreationException, RateLimitException, IOException {
+        StreamedFile pdfFile = ecmrPdfService.createJasperReportForEcmr(ecmrId, internalOrExternalUser, isCopy, true);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        pdfFile.writeTo(outputStream);
+        return new RenderedPdf(pdfFile.getFilename(), outputStream.toByteArray());
+    }
+
+    private static String getUniqueEntryName(String filename, UUID ecmrId, Set<String> entryNames) {
+        if (entryNames.add(filename)) {
+            return filename;
+        }
+        String uniqueName = filename.replaceFirst("\\.pdf$", "") + "-" + ecmrId + ".pdf";
+        entryNames.add(uniqueName);
+        return uniqueName;
+    }
+
+    @AllArgsConstructor
+    @Getter
+    private static class RenderTask {
+        private final UUID ecmrId;
+        private final Future<RenderedPdf> future;
+    }
+
+    @AllArgsConstructor
+    @Getter
+    private static class RenderedPdf {
+        private final String filename;
+        private final byte[] data;
+    }
+}
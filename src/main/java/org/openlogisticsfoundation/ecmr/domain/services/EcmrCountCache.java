@@ -0,0 +1,107 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.domain.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrFacetCount;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrType;
+import org.openlogisticsfoundation.ecmr.domain.models.commands.FilterRequestCommand;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the number of eCMRs matching a filter of a user for {@code ecmr.list.count-cache.ttl}, so that paging through a list counts only
+ * once. Changes to the eCMRs are not reflected before the count expires. Counts are only kept in memory of this instance, bounded by
+ * {@code ecmr.list.count-cache.max-entries}, the least recently used count is evicted first.
+ */
+@Service
+public class EcmrCountCache {
+    private final Duration timeToLive;
+    private final int maxEntries;
+
+    // access ordered, so the eldest entry is the least recently used one
+    private final LinkedHashMap<List<Object>, CachedCount> counts = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<Object>, CachedCount> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    public EcmrCountCache(@Value("${ecmr.list.count-cache.ttl:PT30S}") Duration timeToLive,
+            @Value("${ecmr.list.count-cache.max-entries:10000}") int maxEntries) {
+        this.timeToLive = timeToLive;
+        this.maxEntries = maxEntries;
+    }
+
+    public long getCount(long userId, EcmrType type, FilterRequestCommand filter, LongSupplier count) {
+        return this.get(key("count", userId, type, filter), count::getAsLong);
+    }
+
+    public List<EcmrFacetCount> getFacetCounts(long userId, FilterRequestCommand filter, Supplier<List<EcmrFacetCount>> facetCounts) {
+        return this.get(key("facets", userId, null, filter), facetCounts);
+    }
+
+    public synchronized void removeExpiredCounts() {
+        Instant now = Instant.now();
+        counts.values().removeIf(cachedCount -> cachedCount.expiresAt.isBefore(now));
+    }
+
+    public synchronized int size() {
+        return counts.size();
+    }
+
+    /**
+     * Returns the cached count, or counts without holding the lock and caches the result. An expired count is removed when it is read.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T get(List<Object> key, Supplier<T> count) {
+        if (maxEntries <= 0) {
+            return count.get();
+        }
+        Instant now = Instant.now();
+        synchronized (this) {
+            CachedCount cachedCount = counts.get(key);
+            if (cachedCount != null && !cachedCount.expiresAt.isBefore(now)) {
+                return (T) cachedCount.value;
+            }
+            if (cachedCount != null) {
+                counts.remove(key);
+            }
+        }
+        T value = count.get();
+        synchronized (this) {
+            counts.put(key, new CachedCount(value, now.plus(timeToLive)));
+        }
+        return value;
+    }
+
+    private static List<Object> key(String kind, long userId, EcmrType type, FilterRequestCommand filter) {
+        return Arrays.asList(kind, userId, type, filter.getReferenceId(), filter.getFrom(), filter.getTo(), filter.getTransportType(),
+                filter.getStatus(), filter.getLicensePlate(), filter.getCarrierName(), filter.getCarrierPostCode(), filter.getConsigneePostCode(),
+                filter.getLastEditor());
+    }
+
+    private static class CachedCount {
+        private final Object value;
+        private final Instant expiresAt;
+
+        private CachedCount(Object value, Instant expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
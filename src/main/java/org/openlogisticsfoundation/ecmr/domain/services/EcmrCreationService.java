@@ -42,6 +42,7 @@ public class EcmrCreationService {
     private final EcmrService ecmrService;
     private final HistoryLogService historyLogService;
     private final EcmrStatusService ecmrStatusService;
+    private final EcmrVisibilityService ecmrVisibilityService;
 
     @Value("${app.origin.url}")
     private String originUrl;
@@ -63,6 +64,7 @@ public EcmrModel createEcmr(EcmrCommand ecmrCommand, AuthenticatedUser authentic
             ecmrAssignmentEntity.setRole(EcmrRole.Sender);
             ecmrAssignmentRepository.save(ecmrAssignmentEntity);
         }
+        ecmrVisibilityService.assignmentsChanged(ecmrEntity);
         EcmrEntity entity = this.ecmrStatusService.setEcmrStatus(ecmrEntity, new InternalOrExternalUser(authenticatedUser.getUser()));
         return persistenceMapper.toModel(entity);
     }
@@ -15,6 +15,7 @@
 import org.openlogisticsfoundation.ecmr.domain.exceptions.ValidationException;
 import org.openlogisticsfoundation.ecmr.domain.models.EcmrRole;
 import org.openlogisticsfoundation.ecmr.domain.models.InternalOrExternalUser;
+import org.openlogisticsfoundation.ecmr.domain.services.search.EcmrSearchIndexer;
 import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrEntity;
 import org.openlogisticsfoundation.ecmr.persistence.repositories.EcmrAssignmentRepository;
 import org.openlogisticsfoundation.ecmr.persistence.repositories.EcmrRepository;
@@ -33,6 +34,7 @@ public class EcmrDeleteService {
     private final AuthorisationService authorisationService;
     private final HistoryLogRepository historyLogRepository;
     private final SealedDocumentRepository sealedDocumentRepository;
+    private final EcmrSearchIndexer ecmrSearchIndexer;
 
     @Transactional
     public void deleteEcmr(UUID ecmrId, InternalOrExternalUser internalOrExternalUser) throws EcmrNotFoundException, ValidationException,
@@ -49,6 +51,7 @@ public void deleteEcmr(UUID ecmrId, InternalOrExternalUser internalOrExternalUse
         historyLogRepository.deleteAllByEcmr_EcmrId(ecmrId);
         ecmrAssignmentRepository.deleteByEcmr_EcmrId(ecmrId);
         ecmrRepository.delete(ecmrEntity);
+        ecmrSearchIndexer.ecmrDeleted(ecmrId);
     }
 
 }
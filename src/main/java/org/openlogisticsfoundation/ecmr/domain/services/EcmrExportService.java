@@ -0,0 +1,145 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.domain.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.openlogisticsfoundation.ecmr.domain.models.AuthenticatedUser;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrExportFormat;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrSummary;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrType;
+import org.openlogisticsfoundation.ecmr.domain.models.SortingField;
+import org.openlogisticsfoundation.ecmr.domain.models.SortingOrder;
+import org.openlogisticsfoundation.ecmr.domain.models.commands.FilterRequestCommand;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.EcmrRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.UserToGroupRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes the list columns of all eCMRs of a user matching a filter as CSV or NDJSON. The rows are read with a forward-only cursor that
+ * fetches {@code ecmr.export.fetch-size} rows at a time and are written as they are read, so the memory used does not depend on the number
+ * of eCMRs.
+ */
+@Service
+public class EcmrExportService {
+    private static final Map<String, Function<EcmrSummary, Object>> CSV_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        CSV_COLUMNS.put("ecmrId", EcmrSummary::getEcmrId);
+        CSV_COLUMNS.put("type", EcmrSummary::getType);
+        CSV_COLUMNS.put("ecmrStatus", EcmrSummary::getEcmrStatus);
+        CSV_COLUMNS.put("referenceIdentificationNumber", EcmrSummary::getReferenceIdentificationNumber);
+        CSV_COLUMNS.put("senderCompanyName", EcmrSummary::getSenderCompanyName);
+        CSV_COLUMNS.put("senderCountryCode", EcmrSummary::getSenderCountryCode);
+        CSV_COLUMNS.put("consigneeCompanyName", EcmrSummary::getConsigneeCompanyName);
+        CSV_COLUMNS.put("consigneePostcode", EcmrSummary::getConsigneePostcode);
+        CSV_COLUMNS.put("consigneeCountryCode", EcmrSummary::getConsigneeCountryCode);
+        CSV_COLUMNS.put("carrierCompanyName", EcmrSummary::getCarrierCompanyName);
+        CSV_COLUMNS.put("carrierPostcode", EcmrSummary::getCarrierPostcode);
+        CSV_COLUMNS.put("carrierLicensePlate", EcmrSummary::getCarrierLicensePlate);
+        CSV_COLUMNS.put("createdAt", EcmrSummary::getCreatedAt);
+        CSV_COLUMNS.put("createdBy", EcmrSummary::getCreatedBy);
+        CSV_COLUMNS.put("editedAt", EcmrSummary::getEditedAt);
+        CSV_COLUMNS.put("editedBy", EcmrSummary::getEditedBy);
+    }
+
+    private final EcmrRepository ecmrRepository;
+    private final UserToGroupRepository userToGroupRepository;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public EcmrExportService(EcmrRepository ecmrRepository, UserToGroupRepository userToGroupRepository, ObjectMapper objectMapper,
+            @Value("${ecmr.export.fetch-size:500}") int fetchSize) {
+        this.ecmrRepository = ecmrRepository;
+        this.userToGroupRepository = userToGroupRepository;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes the eCMRs matching the same filter as {@link EcmrService#getEcmrsForUser}, sorted like the list, to the output stream. The
+     * output stream is flushed but not closed.
+     */
+    @Transactional(readOnly = true)
+    public void exportEcmrSummariesForUser(AuthenticatedUser authenticatedUser, EcmrType ecmrType, SortingField sortBy,
+            SortingOrder sortingOrder, EcmrExportFormat format, FilterRequestCommand filterRequestCommand, OutputStream outputStream)
+            throws IOException {
+        Sort sort = Sort.by(Sort.Direction.fromString(sortingOrder.name()), sortBy.getEntryFieldName());
+        List<Long> usersGroupIds = userToGroupRepository.findGroupIdsByUserId(authenticatedUser.getUser().getId());
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+        if (format == EcmrExportFormat.CSV) {
+            writeCsvRow(writer, CSV_COLUMNS.keySet());
+        }
+        try (Stream<EcmrSummary> summaries = ecmrRepository.streamSummariesByTypeAndAssignedGroupIds(ecmrType, usersGroupIds,
+                filterRequestCommand, sort, fetchSize)) {
+            summaries.forEach(summary -> {
+                try {
+                    if (format == EcmrExportFormat.CSV) {
+                        writeCsvRow(writer, CSV_COLUMNS.values().stream().map(column -> column.apply(summary)).toList());
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(summary));
+                        writer.write('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private static void writeCsvRow(Writer writer, Iterable<?> values) throws IOException {
+        boolean first = true;
+        for (Object value : values) {
+            if (!first) {
+                writer.write(',');
+            }
+            writer.write(toCsvField(value));
+            first = false;
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Quotes the value as required by RFC 4180. Values starting like a spreadsheet formula are prefixed with an apostrophe, so that a
+     * company name entered by another party is not evaluated when the file is opened.
+     */
+    private static String toCsvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String field = value.toString();
+        if (!field.isEmpty() && "=+-@\t\r".indexOf(field.charAt(0)) >= 0) {
+            field = "'" + field;
+        }
+        if (field.chars().anyMatch(c -> c == ',' || c == '"' || c == '\n' || c == '\r')) {
+            field = "\"" + field.replace("\"", "\"\"") + "\"";
+        }
+        return field;
+    }
+}
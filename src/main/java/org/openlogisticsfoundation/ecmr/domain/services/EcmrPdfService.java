@@ -7,19 +7,20 @@
  */
 package org.openlogisticsfoundation.ecmr.domain.services;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.text.SimpleDateFormat;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.openlogisticsfoundation.ecmr.api.model.EcmrModel;
@@ -27,30 +28,35 @@
 import org.openlogisticsfoundation.ecmr.api.model.SealedDocument;
 import org.openlogisticsfoundation.ecmr.api.model.areas.ten.LogisticsShippingMarksCustomBarcode;
 import org.openlogisticsfoundation.ecmr.api.model.compositions.Item;
-import org.openlogisticsfoundation.ecmr.api.model.signature.Signature;
 import org.openlogisticsfoundation.ecmr.domain.beans.ItemBean;
 import org.openlogisticsfoundation.ecmr.domain.exceptions.EcmrNotFoundException;
 import org.openlogisticsfoundation.ecmr.domain.exceptions.NoPermissionException;
 import org.openlogisticsfoundation.ecmr.domain.exceptions.PdfCreationException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.RateLimitException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.ValidationException;
 import org.openlogisticsfoundation.ecmr.domain.mappers.EcmrPersistenceMapper;
 import org.openlogisticsfoundation.ecmr.domain.mappers.SealedDocumentPersistenceMapper;
+import org.openlogisticsfoundation.ecmr.domain.models.ConsigneeSignature;
 import org.openlogisticsfoundation.ecmr.domain.models.InternalOrExternalUser;
-import org.openlogisticsfoundation.ecmr.domain.models.PdfFile;
+import org.openlogisticsfoundation.ecmr.domain.models.StreamedFile;
+import org.openlogisticsfoundation.ecmr.domain.services.pdf.EcmrReportRegistry;
+import org.openlogisticsfoundation.ecmr.domain.services.pdf.FilledReportCache;
+import org.openlogisticsfoundation.ecmr.domain.services.pdf.PdfCache;
+import org.openlogisticsfoundation.ecmr.domain.services.pdf.PdfRenderExecutor;
+import org.openlogisticsfoundation.ecmr.domain.services.pdf.ReportAssetRegistry;
+import org.openlogisticsfoundation.ecmr.domain.services.pdf.ReportImageOptimizer;
 import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrEntity;
 import org.openlogisticsfoundation.ecmr.persistence.entities.SealedDocumentEntity;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
-import net.sf.jasperreports.engine.JREmptyDataSource;
 import net.sf.jasperreports.engine.JRException;
-import net.sf.jasperreports.engine.JasperCompileManager;
-import net.sf.jasperreports.engine.JasperReport;
-import net.sf.jasperreports.engine.JasperRunManager;
+import net.sf.jasperreports.engine.JasperPrint;
 import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
-import net.sf.jasperreports.renderers.Renderable;
 import net.sf.jasperreports.renderers.SimpleDataRenderer;
 
 @Service
@@ -58,71 +64,418 @@
 @Log4j2
 public class EcmrPdfService {
 
-    private final ResourceLoader resourceLoader;
+    // size of the consignee signature box in reports/ecmr.jrxml, in points
+    private static final float SIGNATURE_WIDTH = 138;
+    private static final float SIGNATURE_HEIGHT = 80;
+
+    public static final int LOAD_SHEET_MAX_DOCUMENTS = 100;
+
+    private final ReportAssetRegistry reportAssetRegistry;
     private final EcmrService ecmrService;
     private final EcmrPersistenceMapper ecmrPersistenceMapper;
     private final SealedDocumentPersistenceMapper sealedDocumentPersistenceMapper;
     private final SealedDocumentService sealedDocumentService;
+    private final EcmrReportRegistry ecmrReportRegistry;
+    private final PdfCache pdfCache;
+    private final FilledReportCache filledReportCache;
+    private final PdfRenderExecutor pdfRenderExecutor;
+    private final ReportImageOptimizer reportImageOptimizer;
+    private final ConsigneeSignatureService consigneeSignatureService;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * @param clientHasEtag Whether the client already has the version with the given ETag. The document is then neither rendered nor opened,
+     *         and a {@link StreamedFile#notModified} file is returned.
+     */
+    public StreamedFile createJasperReportForEcmr(UUID id, InternalOrExternalUser internalOrExternalUser, boolean isCopy,
+            Predicate<String> clientHasEtag) throws NoPermissionException, EcmrNotFoundException, PdfCreationException, RateLimitException {
+        VersionedReport report = this.lookUp(() -> this.getVersionedReport(id, internalOrExternalUser, false));
+        return this.getOrRender(report, isCopy, clientHasEtag);
+    }
 
-    public PdfFile createJasperReportForEcmr(UUID id, InternalOrExternalUser internalOrExternalUser, boolean isCopy)
-            throws NoPermissionException, EcmrNotFoundException, PdfCreationException {
+    /**
+     * @param waitForCapacity Whether to wait for a free rendering slot instead of failing with a {@link RateLimitException}, meant for
+     *         background work
+     */
+    public StreamedFile createJasperReportForEcmr(UUID id, InternalOrExternalUser internalOrExternalUser, boolean isCopy, boolean waitForCapacity)
+            throws NoPermissionException, EcmrNotFoundException, PdfCreationException, RateLimitException {
+        VersionedReport report = this.lookUp(() -> this.getVersionedReport(id, internalOrExternalUser, waitForCapacity));
+        return this.getOrRender(report, isCopy, etag -> false);
+    }
 
-        Optional<SealedDocument> sealedDocumentOpt = this.sealedDocumentService.getSealedDocument(id, internalOrExternalUser);
-        SealedDocument sealedDocument = null;
-        EcmrModel ecmrModel;
-        if (sealedDocumentOpt.isPresent()) {
-            sealedDocument = sealedDocumentOpt.get();
-            ecmrModel = sealedDocument.getEcmr();
-        } else {
-            ecmrModel = this.ecmrService.getEcmr(id, internalOrExternalUser);
+    public StreamedFile createJasperReportForEcmr(UUID id, String shareToken, boolean isCopy, Predicate<String> clientHasEtag)
+            throws NoPermissionException, EcmrNotFoundException, PdfCreationException, RateLimitException {
+        VersionedReport report = this.lookUp(() -> {
+            Optional<SealedDocumentEntity> sealedDocumentOpt = this.sealedDocumentService.getSealedDocumentEntity(id);
+            EcmrEntity ecmrEntity = sealedDocumentOpt.map(SealedDocumentEntity::getEcmr).orElse(null);
+            if (ecmrEntity == null) {
+                ecmrEntity = this.ecmrService.getEcmrEntity(id);
+            }
+
+            if (!ecmrEntity.getShareWithReaderToken().equals(shareToken)) {
+                throw new NoPermissionException("Share Token mandatory");
+            }
+
+            if (sealedDocumentOpt.isPresent()) {
+                return this.getVersionedReport(sealedDocumentOpt.get(), false);
+            }
+            return this.getVersionedReport(ecmrEntity, false);
+        });
+        return this.getOrRender(report, isCopy, clientHasEtag);
+    }
+
+    /**
+     * Renders the first page of the eCMR as PNG image. Previews are kept in the {@link PdfCache} per document version and width, like the PDFs
+     * they are exported from.
+     *
+     * @param width The width of the image in pixels
+     * @param clientHasEtag Whether the client already has the version with the given ETag, see
+     *         {@link #createJasperReportForEcmr(UUID, InternalOrExternalUser, boolean, Predicate)}
+     */
+    public StreamedFile createPreviewForEcmr(UUID id, InternalOrExternalUser internalOrExternalUser, int width, boolean isCopy,
+            Predicate<String> clientHasEtag) throws NoPermissionException, EcmrNotFoundException, PdfCreationException, RateLimitException {
+        VersionedReport report = this.lookUp(() -> this.getVersionedReport(id, internalOrExternalUser, false));
+        String cacheKey = pdfCache.previewKey(report.version, width, isCopy);
+        String fileName = "eCMR-" + report.referenceIdentificationNumber + ".png";
+        String etag = getEtag(cacheKey, pdfCache.contains(cacheKey));
+        if (clientHasEtag.test(etag)) {
+            return StreamedFile.notModified(fileName, StreamedFile.IMAGE_PNG, etag);
+        }
+        StreamedFile preview = pdfCache.get(cacheKey, fileName).orElse(null);
+        if (preview == null) {
+            JasperPrint jasperPrint = this.getOrFill(report);
+            preview = pdfCache.writeThrough(cacheKey,
+                    new StreamedFile(fileName, StreamedFile.IMAGE_PNG, null,
+                            outputStream -> this.exportPreview(jasperPrint, width, isCopy, outputStream)));
+        }
+        return preview.withEtag(getEtag(cacheKey, preview.getContentLength() != null));
+    }
+
+    /**
+     * Merges the copies of several eCMRs into one PDF, e.g. as load sheet for all consignments of a truck. The reports that are not in the
+     * {@link FilledReportCache} are filled in parallel on the {@link PdfRenderExecutor}, the merged PDF itself is not cached. Like any other
+     * interactive request the fills are rejected if the rendering queue is full, and at most one fill per rendering thread is queued at a
+     * time, so a large load sheet does not take the queue from other requests.
+     *
+     * @param name Part of the file name identifying the load sheet
+     * @throws RateLimitException If the rendering queue is full
+     */
+    public StreamedFile createLoadSheet(List<UUID> ids, InternalOrExternalUser internalOrExternalUser, String name)
+            throws NoPermissionException, EcmrNotFoundException, PdfCreationException, ValidationException, RateLimitException {
+        if (ids.isEmpty()) {
+            throw new ValidationException("No eCMRs for the load sheet");
+        }
+        if (ids.size() > LOAD_SHEET_MAX_DOCUMENTS) {
+            throw new ValidationException("A load sheet can contain at most " + LOAD_SHEET_MAX_DOCUMENTS + " eCMRs");
+        }
+        // permissions are checked in one transaction and the models mapped on this thread, only the filling runs in parallel
+        List<VersionedReport> reports = this.lookUp(() -> {
+            List<VersionedReport> versionedReports = new ArrayList<>();
+            for (UUID id : ids) {
+                versionedReports.add(this.getVersionedReport(id, internalOrExternalUser, false));
+            }
+            return versionedReports;
+        });
+
+        List<Future<JasperPrint>> fills = new ArrayList<>();
+        List<JasperPrint> jasperPrints = new ArrayList<>();
+        try {
+            for (VersionedReport report : reports) {
+                if (fills.size() - jasperPrints.size() >= pdfRenderExecutor.getConcurrency()) {
+                    jasperPrints.add(this.awaitFill(reports.get(jasperPrints.size()), fills.get(jasperPrints.size())));
+                }
+                Optional<JasperPrint> filledReport = filledReportCache.get(report.version);
+                if (filledReport.isPresent()) {
+                    fills.add(CompletableFuture.completedFuture(filledReport.get()));
+                } else {
+                    HashMap<String, Object> parameters = report.parameters.create();
+                    fills.add(pdfRenderExecutor.submit(() -> ecmrReportRegistry.fill(parameters), report.waitForCapacity));
+                }
+            }
+            while (jasperPrints.size() < fills.size()) {
+                jasperPrints.add(this.awaitFill(reports.get(jasperPrints.size()), fills.get(jasperPrints.size())));
+            }
+            String fileName = "eCMR-load-sheet-" + name.replaceAll("[^A-Za-z0-9-]", "") + ".pdf";
+            return new StreamedFile(fileName, StreamedFile.APPLICATION_PDF, null,
+                    outputStream -> this.exportToPdf(jasperPrints, fileName, true, outputStream));
+        } catch (JRException e) {
+            log.error(e);
+            throw new PdfCreationException("Error generating report: " + e.getMessage());
+        } finally {
+            // does nothing for completed fills, pending ones are not needed anymore after an error
+            fills.forEach(fill -> fill.cancel(true));
         }
+    }
 
-        return this.createJasperReportForEcmr(ecmrModel, sealedDocument, isCopy);
+    private JasperPrint awaitFill(VersionedReport report, Future<JasperPrint> fill) throws JRException {
+        JasperPrint jasperPrint = pdfRenderExecutor.await(fill);
+        filledReportCache.put(report.version, jasperPrint);
+        return jasperPrint;
     }
 
-    public PdfFile createJasperReportForEcmr(UUID id, String shareToken, boolean isCopy)
-            throws NoPermissionException, EcmrNotFoundException, PdfCreationException {
+    /**
+     * Renders the original and the copy of a sealed eCMR into the {@link PdfCache}, so the next download does not have to wait for the report.
+     * Both are exported from a single fill. Does nothing for eCMRs that have not been sealed yet.
+     */
+    public void prerenderSealedDocument(UUID ecmrId) throws EcmrNotFoundException, PdfCreationException, RateLimitException {
+        if (!pdfCache.isEnabled()) {
+            return;
+        }
+        Optional<VersionedReport> report = this.read(() -> this.sealedDocumentService.getSealedDocumentEntity(ecmrId)
+                .map(sealedDocument -> this.getVersionedReport(sealedDocument, false)));
+        if (report.isEmpty()) {
+            return;
+        }
+        this.prerender(report.get(), false);
+        this.prerender(report.get(), true);
+    }
 
-        Optional<SealedDocumentEntity> sealedDocumentOpt = this.sealedDocumentService.getSealedDocumentEntity(id);
-        SealedDocumentEntity sealedDocumentEntity = null;
-        EcmrEntity ecmrEntity;
-        if (sealedDocumentOpt.isPresent()) {
-            sealedDocumentEntity = sealedDocumentOpt.get();
-            ecmrEntity = sealedDocumentEntity.getEcmr();
-        } else {
-            ecmrEntity = this.ecmrService.getEcmrEntity(id);
+    private void prerender(VersionedReport report, boolean isCopy) throws EcmrNotFoundException, PdfCreationException, RateLimitException {
+        String cacheKey = pdfCache.key(report.version, isCopy);
+        if (pdfCache.contains(cacheKey)) {
+            return;
+        }
+        try {
+            // writing the document adds it to the cache
+            this.render(report, isCopy, cacheKey).writeTo(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            throw new PdfCreationException("Error exporting report: " + e.getMessage());
         }
+    }
 
-        if (!ecmrEntity.getShareWithReaderToken().equals(shareToken)) {
-            throw new NoPermissionException("Share Token mandatory");
+    private VersionedReport getVersionedReport(UUID id, InternalOrExternalUser internalOrExternalUser, boolean waitForCapacity)
+            throws NoPermissionException, EcmrNotFoundException {
+        Optional<SealedDocumentEntity> sealedDocumentOpt = this.sealedDocumentService.getSealedDocumentEntity(id, internalOrExternalUser);
+        if (sealedDocumentOpt.isPresent()) {
+            return this.getVersionedReport(sealedDocumentOpt.get(), waitForCapacity);
         }
-        SealedDocument sealedDocument = sealedDocumentPersistenceMapper.toDomain(sealedDocumentEntity);
 
-        return this.createJasperReportForEcmr(sealedDocument == null ? ecmrPersistenceMapper.toModel(ecmrEntity) : sealedDocument.getEcmr(),
-                sealedDocument, isCopy);
+        // the permission has already been checked while looking up the sealed document
+        return this.getVersionedReport(this.ecmrService.getEcmrEntity(id), waitForCapacity);
     }
 
-    private PdfFile createJasperReportForEcmr(EcmrModel ecmrModel, SealedDocument sealedDocument, boolean isCopy) throws PdfCreationException {
+    private VersionedReport getVersionedReport(SealedDocumentEntity sealedDocumentEntity, boolean waitForCapacity) {
+        String version = sealedDocumentService.getCurrentSeal(sealedDocumentEntity) + "|" + sealedDocumentEntity.getEcmr().getEditedAt() + "|"
+                + reportAssetRegistry.getVersion();
+        UUID ecmrId = sealedDocumentEntity.getEcmr().getEcmrId();
+        return new VersionedReport(version, sealedDocumentEntity.getEcmr().getReferenceIdentificationNumber(), waitForCapacity,
+                () -> this.read(() -> {
+                    SealedDocumentEntity currentSealedDocumentEntity = this.sealedDocumentService.getSealedDocumentEntity(ecmrId)
+                            .orElseThrow(() -> new EcmrNotFoundException(ecmrId));
+                    SealedDocument sealedDocument = sealedDocumentPersistenceMapper.toDomain(currentSealedDocumentEntity);
+                    ConsigneeSignature consigneeSignature = consigneeSignatureService.getSignature(currentSealedDocumentEntity.getEcmr())
+                            .orElse(null);
+                    return this.createReportParameters(sealedDocument.getEcmr(), sealedDocument, consigneeSignature);
+                }));
+    }
+
+    private VersionedReport getVersionedReport(EcmrEntity ecmrEntity, boolean waitForCapacity) {
+        String version = ecmrEntity.getEcmrId() + "|" + ecmrEntity.getCreatedAt() + "|" + ecmrEntity.getEditedAt() + "|" + reportAssetRegistry.getVersion();
+        UUID ecmrId = ecmrEntity.getEcmrId();
+        return new VersionedReport(version, ecmrEntity.getReferenceIdentificationNumber(), waitForCapacity,
+                () -> this.read(() -> {
+                    EcmrModel ecmrModel = ecmrPersistenceMapper.toModel(this.ecmrService.getEcmrEntity(ecmrId));
+                    return this.createReportParameters(ecmrModel, null, null);
+                }));
+    }
+
+    /**
+     * Checks the permission and looks the document up in a short read-only transaction. Reports are filled and exported outside of any
+     * transaction, so no database connection is held while waiting for a rendering slot or while rendering.
+     */
+    private <T> T lookUp(Lookup<T> lookup) throws NoPermissionException, EcmrNotFoundException {
         try {
-            InputStream ecmrReportStream = getClass().getResourceAsStream("/reports/ecmr.jrxml");
-            JasperReport jasperReport = JasperCompileManager.compileReport(ecmrReportStream);
+            return this.inReadOnlyTransaction(lookup::get);
+        } catch (TransactionCallbackException e) {
+            if (e.getCause() instanceof NoPermissionException noPermissionException) {
+                throw noPermissionException;
+            }
+            throw (EcmrNotFoundException) e.getCause();
+        }
+    }
 
-            List<ItemBean> itemBeans = convertToItemBeans(ecmrModel.getEcmrConsignment().getItemList());
-            JRBeanCollectionDataSource itemDataSource = new JRBeanCollectionDataSource(itemBeans);
-            HashMap<String, Object> parameters = setEcmrParameters(ecmrModel, sealedDocument, isCopy);
-            parameters.put("items", itemDataSource);
+    /**
+     * Reads the document in a short read-only transaction, without checking permissions.
+     */
+    private <T> T read(Read<T> read) throws EcmrNotFoundException, PdfCreationException {
+        try {
+            return this.inReadOnlyTransaction(read::get);
+        } catch (TransactionCallbackException e) {
+            if (e.getCause() instanceof EcmrNotFoundException ecmrNotFoundException) {
+                throw ecmrNotFoundException;
+            }
+            throw (PdfCreationException) e.getCause();
+        }
+    }
+
+    private <T> T inReadOnlyTransaction(Callable<T> callable) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate.execute(status -> {
+            try {
+                return callable.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new TransactionCallbackException(e);
+            }
+        });
+    }
+
+    /**
+     * A document only changes with a new seal, an edit of the eCMR, new report assets or a build with a different template, so the rendered PDF
+     * is served from the {@link PdfCache} keyed by its version. A document that is not cached yet is streamed to the client while it is
+     * written to the cache.
+     */
+    private StreamedFile getOrRender(VersionedReport report, boolean isCopy, Predicate<String> clientHasEtag)
+            throws EcmrNotFoundException, PdfCreationException, RateLimitException {
+        String cacheKey = pdfCache.key(report.version, isCopy);
+        String fileName = getPdfFileName(report.referenceIdentificationNumber);
+        String etag = getEtag(cacheKey, pdfCache.contains(cacheKey));
+        if (clientHasEtag.test(etag)) {
+            return StreamedFile.notModified(fileName, StreamedFile.APPLICATION_PDF, etag);
+        }
+        StreamedFile pdfFile = pdfCache.get(cacheKey, fileName).orElse(null);
+        if (pdfFile == null) {
+            pdfFile = this.render(report, isCopy, cacheKey);
+        }
+        return pdfFile.withEtag(getEtag(cacheKey, pdfFile.getContentLength() != null));
+    }
+
+    private StreamedFile render(VersionedReport report, boolean isCopy, String cacheKey)
+            throws EcmrNotFoundException, PdfCreationException, RateLimitException {
+        return pdfCache.writeThrough(cacheKey, this.toPdfFile(this.getOrFill(report), report.referenceIdentificationNumber, isCopy));
+    }
 
-            return new PdfFile("eCMR-" + ecmrModel.getEcmrConsignment().getReferenceIdentificationNumber().getValue() + ".pdf",
-                    JasperRunManager.runReportToPdf(jasperReport, parameters, new JREmptyDataSource()));
+    private JasperPrint getOrFill(VersionedReport report) throws EcmrNotFoundException, PdfCreationException, RateLimitException {
+        Optional<JasperPrint> filledReport = filledReportCache.get(report.version);
+        return filledReport.isPresent() ? filledReport.get() : this.fillReport(report.parameters.create(), report.version, report.waitForCapacity);
+    }
+
+    /**
+     * The ETag is derived from the cache key, so it is known before the file is rendered. It is strong if the file has been cached, since only
+     * then the same bytes are served again, and weak otherwise.
+     */
+    private static String getEtag(String cacheKey, boolean cached) {
+        return (cached ? "" : "W/") + "\"" + cacheKey + "\"";
+    }
+
+    @AllArgsConstructor
+    private static final class VersionedReport {
+        private final String version;
+        private final String referenceIdentificationNumber;
+        private final boolean waitForCapacity;
+        private final ReportParameters parameters;
+    }
+
+    /**
+     * Reads the document again and maps it to the report parameters, in a transaction of its own. Only needed if the report is not cached.
+     */
+    @FunctionalInterface
+    private interface ReportParameters {
+        HashMap<String, Object> create() throws EcmrNotFoundException, PdfCreationException;
+    }
+
+    @FunctionalInterface
+    private interface Lookup<T> {
+        T get() throws NoPermissionException, EcmrNotFoundException;
+    }
+
+    @FunctionalInterface
+    private interface Read<T> {
+        T get() throws EcmrNotFoundException, PdfCreationException;
+    }
+
+    /**
+     * Carries the checked exception of a lookup out of the transaction callback.
+     */
+    private static final class TransactionCallbackException extends RuntimeException {
+        private TransactionCallbackException(Exception cause) {
+            super(cause);
+        }
+    }
+
+    // the rendering stages are package-private so the benchmarks in src/jmh can measure them one by one
+    StreamedFile createJasperReportForEcmr(EcmrModel ecmrModel, SealedDocument sealedDocument, ConsigneeSignature consigneeSignature, String version,
+            boolean isCopy, boolean waitForCapacity) throws PdfCreationException, RateLimitException {
+        JasperPrint jasperPrint = this.fillReport(ecmrModel, sealedDocument, consigneeSignature, version, waitForCapacity);
+        return this.toPdfFile(jasperPrint, ecmrModel.getEcmrConsignment().getReferenceIdentificationNumber().getValue(), isCopy);
+    }
+
+    /**
+     * Fills the report once with the copy watermark and keeps it in the {@link FilledReportCache}. The original is derived from the same fill by
+     * leaving the watermark out of the export.
+     *
+     * @param version The version of the document, {@code null} to skip the {@link FilledReportCache}
+     */
+    JasperPrint fillReport(EcmrModel ecmrModel, SealedDocument sealedDocument, ConsigneeSignature consigneeSignature, String version,
+            boolean waitForCapacity) throws PdfCreationException, RateLimitException {
+        return this.fillReport(this.createReportParameters(ecmrModel, sealedDocument, consigneeSignature), version, waitForCapacity);
+    }
+
+    private JasperPrint fillReport(HashMap<String, Object> parameters, String version, boolean waitForCapacity)
+            throws PdfCreationException, RateLimitException {
+        try {
+            // filling happens up front so errors are still reported properly, the export is streamed to the client
+            long fillStart = System.nanoTime();
+            JasperPrint jasperPrint = pdfRenderExecutor.execute(() -> ecmrReportRegistry.fill(parameters), waitForCapacity);
+            log.debug("Filled report {} with {} pages in {} ms", version, jasperPrint.getPages().size(), (System.nanoTime() - fillStart) / 1_000_000);
+            filledReportCache.put(version, jasperPrint);
+            return jasperPrint;
         } catch (JRException e) {
             log.error(e);
             throw new PdfCreationException("Error generating report: " + e.getMessage());
+        }
+    }
+
+    private HashMap<String, Object> createReportParameters(EcmrModel ecmrModel, SealedDocument sealedDocument, ConsigneeSignature consigneeSignature)
+            throws PdfCreationException {
+        try {
+            List<ItemBean> itemBeans = convertToItemBeans(ecmrModel.getEcmrConsignment().getItemList());
+            HashMap<String, Object> parameters = setEcmrParameters(ecmrModel, sealedDocument, consigneeSignature);
+            parameters.put("items", new JRBeanCollectionDataSource(itemBeans));
+            return parameters;
         } catch (IOException e) {
             throw new PdfCreationException("I/O error occurred: " + e.getMessage());
         }
     }
 
-    private HashMap<String, Object> setEcmrParameters(EcmrModel ecmrModel, SealedDocument sealedDocument, boolean isCopy) throws IOException {
+    private StreamedFile toPdfFile(JasperPrint jasperPrint, String referenceIdentificationNumber, boolean isCopy) {
+        String fileName = getPdfFileName(referenceIdentificationNumber);
+        return new StreamedFile(fileName, StreamedFile.APPLICATION_PDF, null,
+                outputStream -> this.exportToPdf(List.of(jasperPrint), fileName, isCopy, outputStream));
+    }
+
+    private void exportToPdf(List<JasperPrint> jasperPrints, String fileName, boolean isCopy, OutputStream outputStream) throws IOException {
+        try {
+            long exportStart = System.nanoTime();
+            long size = ecmrReportRegistry.exportToPdf(jasperPrints, isCopy, outputStream);
+            log.debug("Exported {} of {} with {} pages: {} bytes in {} ms", isCopy ? "copy" : "original", fileName,
+                    jasperPrints.stream().mapToInt(jasperPrint -> jasperPrint.getPages().size()).sum(), size, (System.nanoTime() - exportStart) / 1_000_000);
+        } catch (JRException e) {
+            log.error(e);
+            throw new IOException("Error exporting report: " + e.getMessage(), e);
+        }
+    }
+
+    private void exportPreview(JasperPrint jasperPrint, int width, boolean isCopy, OutputStream outputStream) throws IOException {
+        try {
+            ecmrReportRegistry.exportFirstPageToPng(jasperPrint, width, isCopy, outputStream);
+        } catch (JRException e) {
+            log.error(e);
+            throw new IOException("Error exporting preview: " + e.getMessage(), e);
+        }
+    }
+
+    private static String getPdfFileName(String referenceIdentificationNumber) {
+        return "eCMR-" + referenceIdentificationNumber + ".pdf";
+    }
+
+    /**
+     * @param consigneeSignature The stored signature of the consignee, it is only shown on sealed documents without a consignee seal
+     */
+    HashMap<String, Object> setEcmrParameters(EcmrModel ecmrModel, SealedDocument sealedDocument, ConsigneeSignature consigneeSignature)
+            throws IOException {
         HashMap<String, Object> parameters = new HashMap<>();
 
         //sender data
@@ -247,11 +600,10 @@ private HashMap<String, Object> setEcmrParameters(EcmrModel ecmrModel, SealedDoc
             //Consignee Signature
             if (sealedDocument.getConsigneeSeal() != null) {
                 parameters.put("consigneeSealText", getSealText(sealedDocument.getConsigneeSeal().getSealMetadata()));
-            } else if (ecmrModel.getEcmrConsignment().getGoodsReceived().getConsigneeSignature() != null) {
-                Renderable renderableSignature =
-                        this.decodeImage(ecmrModel.getEcmrConsignment().getGoodsReceived().getConsigneeSignature().getData());
-                parameters.put("consigneeSignatureImage", renderableSignature);
-                parameters.put("consigneeSignatureText", getSignatureText(ecmrModel.getEcmrConsignment().getGoodsReceived().getConsigneeSignature()));
+            } else if (consigneeSignature != null) {
+                parameters.put("consigneeSignatureImage",
+                        SimpleDataRenderer.getInstance(reportImageOptimizer.fit(consigneeSignature.getData(), SIGNATURE_WIDTH, SIGNATURE_HEIGHT)));
+                parameters.put("consigneeSignatureText", getSignatureText(consigneeSignature));
             }
         }
 
@@ -271,36 +623,21 @@ private HashMap<String, Object> setEcmrParameters(EcmrModel ecmrModel, SealedDoc
 
         //eCmr Logo
         if (EcmrTransportType.INTERNATIONAL == ecmrTransportType) {
-            InputStream imageStream = resourceLoader.getResource("classpath:/images/cmrLogo.png").getInputStream();
-            byte[] waterMarkBytes = imageStream.readAllBytes();
-            Renderable renderableWaterMark = SimpleDataRenderer.getInstance(waterMarkBytes);
-            parameters.put("ecmrLogo", renderableWaterMark);
+            parameters.put("ecmrLogo", reportAssetRegistry.getLogo());
         }
 
-        //Copy Watermark
-        if (isCopy) {
-            InputStream imageStream = resourceLoader.getResource("classpath:/images/Copy-Wasserzeichen-DIN4.png").getInputStream();
-            byte[] waterMarkBytes = imageStream.readAllBytes();
-            Renderable renderableWaterMark = SimpleDataRenderer.getInstance(waterMarkBytes);
-            parameters.put("watermark", renderableWaterMark);
-        }
+        //Copy Watermark, left out of the export of the original
+        parameters.put("watermark", reportAssetRegistry.getWatermark());
 
         return parameters;
     }
 
     private String getMultiConsigneeShipmentText() throws IOException {
-        String language = "EN";
-        String filePath = "reports/texts/" + language + "_MultiConsigneeShipment.txt";
-        InputStream resource = new ClassPathResource(filePath).getInputStream();
-        BufferedReader reader = new BufferedReader(new InputStreamReader(resource));
-        return reader.lines().collect(Collectors.joining());
+        return reportAssetRegistry.getText("EN", "MultiConsigneeShipment");
     }
 
     private String getInformationText(String language, boolean isNational) throws IOException {
-        String filePath = "reports/texts/" + language + (isNational ? "_NationalTransport.txt" : "_InternationalTransport.txt");
-        InputStream resource = new ClassPathResource(filePath).getInputStream();
-        BufferedReader reader = new BufferedReader(new InputStreamReader(resource));
-        return reader.lines().collect(Collectors.joining());
+        return reportAssetRegistry.getText(language, isNational ? "NationalTransport" : "InternationalTransport");
     }
 
     private EcmrTransportType getEcmrTransportType(EcmrModel ecmrModel) {
@@ -320,28 +657,14 @@ private enum EcmrTransportType {
         UNKNOWN
     }
 
-    private Renderable decodeImage(String base64Image) throws IOException {
-        try {
-            if (base64Image == null || !base64Image.contains(",")) {
-                throw new IllegalArgumentException("Invalid base64 image string");
-            }
-            String base64ImageString = base64Image.split(",")[1];
-            byte[] imageBytes = Base64.getDecoder().decode(base64ImageString);
-            return SimpleDataRenderer.getInstance(imageBytes);
-        } catch (Exception e) {
-            log.error("Error while decoding image", e);
-            throw new IOException(e);
-        }
-    }
-
     private String getSealText(SealMetadata sealMetadata) {
         String sealerText = sealMetadata.getSealer() != null ? sealMetadata.getSealer() : "";
         String formattedDate = this.getFormattedDate(sealMetadata.getTimestamp());
         return "Signed with eSeal on:\r\n" + formattedDate + "\r\nBy:\r\n" + sealerText;
     }
 
-    private String getSignatureText(Signature signature) {
-        return signature.getUserName() + " - " + this.getFormattedDate(signature.getTimestamp());
+    private String getSignatureText(ConsigneeSignature consigneeSignature) {
+        return consigneeSignature.getUserName() + " - " + this.getFormattedDate(consigneeSignature.getTimestamp());
     }
 
     private String getFormattedDate(Instant timestamp) {
@@ -353,7 +676,7 @@ private String getFormattedDate(Instant timestamp) {
         return formatter.format(date);
     }
 
-    private List<ItemBean> convertToItemBeans(List<Item> items) {
+    List<ItemBean> convertToItemBeans(List<Item> items) {
         List<ItemBean> itemBeans = new ArrayList<>();
 
         for (Item item : items) {
@@ -8,28 +8,51 @@
 
 package org.openlogisticsfoundation.ecmr.domain.services;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.openlogisticsfoundation.ecmr.api.model.EcmrModel;
+import org.openlogisticsfoundation.ecmr.api.model.EcmrStatus;
 import org.openlogisticsfoundation.ecmr.domain.exceptions.EcmrNotFoundException;
 import org.openlogisticsfoundation.ecmr.domain.exceptions.NoPermissionException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.ValidationException;
 import org.openlogisticsfoundation.ecmr.domain.mappers.EcmrPersistenceMapper;
 import org.openlogisticsfoundation.ecmr.domain.models.AuthenticatedUser;
+import org.openlogisticsfoundation.ecmr.domain.models.CountMode;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrCursor;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrFacetCount;
 import org.openlogisticsfoundation.ecmr.domain.models.EcmrRole;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrSummary;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrTransportType;
 import org.openlogisticsfoundation.ecmr.domain.models.EcmrType;
-import org.openlogisticsfoundation.ecmr.domain.models.Group;
 import org.openlogisticsfoundation.ecmr.domain.models.InternalOrExternalUser;
 import org.openlogisticsfoundation.ecmr.domain.models.SortingField;
 import org.openlogisticsfoundation.ecmr.domain.models.SortingOrder;
 import org.openlogisticsfoundation.ecmr.domain.models.commands.FilterRequestCommand;
 import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrSortKey;
 import org.openlogisticsfoundation.ecmr.persistence.repositories.EcmrRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.UserToGroupRepository;
+import org.openlogisticsfoundation.ecmr.web.models.EcmrCursorPageModel;
+import org.openlogisticsfoundation.ecmr.web.models.EcmrFacetsModel;
 import org.openlogisticsfoundation.ecmr.web.models.EcmrPageModel;
+import org.openlogisticsfoundation.ecmr.web.models.EcmrSummaryPageModel;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -41,10 +64,12 @@
 @Service
 @RequiredArgsConstructor
 public class EcmrService {
+
     private final EcmrRepository ecmrRepository;
     private final EcmrPersistenceMapper ecmrPersistenceMapper;
-    private final GroupService groupService;
+    private final UserToGroupRepository userToGroupRepository;
     private final AuthorisationService authorisationService;
+    private final EcmrCountCache ecmrCountCache;
 
     @Transactional
     public EcmrModel getEcmr(UUID ecmrId, InternalOrExternalUser internalOrExternalUser) throws EcmrNotFoundException, NoPermissionException {
@@ -64,23 +89,190 @@ public boolean existsByEcmrId(UUID ecmrId) {
         return this.ecmrRepository.existsByEcmrId(ecmrId);
     }
 
+    /**
+     * Returns a page of the eCMRs of the user. Depending on the count mode the totals are counted exactly, taken from a count of the same
+     * filter of the last seconds, estimated by the database or not determined at all.
+     */
     @Transactional
     public EcmrPageModel getEcmrsForUser(AuthenticatedUser authenticatedUser, EcmrType ecmrType, int page, int size, SortingField sortBy,
-            SortingOrder sortingOrder, FilterRequestCommand filterRequestCommand) {
+            SortingOrder sortingOrder, CountMode countMode, FilterRequestCommand filterRequestCommand) {
         Sort.Direction sortDirection = Sort.Direction.fromString(sortingOrder.name());
         final Pageable pageable = PageRequest.of(page, size, sortDirection, sortBy.getEntryFieldName());
 
-        List<Group> usersGroups = groupService.getGroupsForUser(authenticatedUser);
-        List<Long> usersGroupIds = groupService.flatMapGroupTrees(usersGroups).stream().map(Group::getId).toList();
+        List<Long> usersGroupIds = this.getGroupIdsForUser(authenticatedUser);
+        if (countMode == CountMode.EXACT) {
+            final Page<EcmrEntity> ecmrPage = this.findEcmrsForUser(usersGroupIds, ecmrType, filterRequestCommand, pageable);
+            return new EcmrPageModel(ecmrPage.getTotalPages(), ecmrPage.getTotalElements(),
+                    ecmrPage.get().map(ecmrPersistenceMapper::toModel).toList(), ecmrPage.hasNext(), CountMode.EXACT);
+        }
 
-        final Page<EcmrEntity> ecmrPage = ecmrRepository.findAllByTypeAndAssignedGroupIds(ecmrType, usersGroupIds,
-                filterRequestCommand.getReferenceId(), filterRequestCommand.getFrom(), filterRequestCommand.getTo(),
-                Optional.ofNullable(filterRequestCommand.getTransportType()).map(Enum::name).orElse(null),
-                filterRequestCommand.getStatus(), filterRequestCommand.getLicensePlate(), filterRequestCommand.getCarrierName(),
-                filterRequestCommand.getCarrierPostCode(), filterRequestCommand.getConsigneePostCode(), filterRequestCommand.getLastEditor(),
+        final Slice<EcmrEntity> ecmrSlice = ecmrRepository.findSliceByTypeAndAssignedGroupIds(ecmrType, usersGroupIds, filterRequestCommand,
                 pageable);
+        List<EcmrModel> ecmrs = ecmrSlice.get().map(ecmrPersistenceMapper::toModel).toList();
+        if (countMode == CountMode.NONE) {
+            return new EcmrPageModel(null, null, ecmrs, ecmrSlice.hasNext(), CountMode.NONE);
+        }
+
+        CountMode usedCountMode = countMode;
+        long count;
+        if (countMode == CountMode.CACHED) {
+            count = ecmrCountCache.getCount(authenticatedUser.getUser().getId(), ecmrType, filterRequestCommand,
+                    () -> ecmrRepository.countByTypeAndAssignedGroupIds(ecmrType, usersGroupIds, filterRequestCommand));
+        } else {
+            OptionalLong estimate = ecmrRepository.estimateCountByTypeAndAssignedGroupIds(ecmrType, usersGroupIds, filterRequestCommand);
+            if (estimate.isEmpty()) {
+                usedCountMode = CountMode.EXACT;
+            }
+            count = estimate.orElseGet(() -> ecmrRepository.countByTypeAndAssignedGroupIds(ecmrType, usersGroupIds, filterRequestCommand));
+        }
+        final Page<EcmrModel> ecmrPage = new PageImpl<>(ecmrs, pageable, consistentCount(count, ecmrSlice));
+        return new EcmrPageModel(ecmrPage.getTotalPages(), ecmrPage.getTotalElements(), ecmrs, ecmrSlice.hasNext(), usedCountMode);
+    }
+
+    /**
+     * Corrects a cached or estimated count so that it matches the slice: the exact count is known on the last page, and there are more
+     * eCMRs than up to the end of the slice if it has a next page.
+     */
+    private static long consistentCount(long count, Slice<?> slice) {
+        long endOfSlice = slice.getPageable().getOffset() + slice.getNumberOfElements();
+        if (!slice.hasNext() && (slice.hasContent() || slice.getPageable().getOffset() == 0)) {
+            return endOfSlice;
+        }
+        return Math.max(count, slice.hasNext() ? endOfSlice + 1 : endOfSlice);
+    }
+
+    /**
+     * Returns a page of the list columns of the eCMRs matching the same filter as {@link #getEcmrsForUser}, without loading the eCMRs.
+     */
+    @Transactional
+    public EcmrSummaryPageModel getEcmrSummariesForUser(AuthenticatedUser authenticatedUser, EcmrType ecmrType, int page, int size,
+            SortingField sortBy, SortingOrder sortingOrder, FilterRequestCommand filterRequestCommand) {
+        Sort.Direction sortDirection = Sort.Direction.fromString(sortingOrder.name());
+        final Pageable pageable = PageRequest.of(page, size, sortDirection, sortBy.getEntryFieldName());
+
+        List<Long> usersGroupIds = this.getGroupIdsForUser(authenticatedUser);
+        final Page<EcmrSummary> summaryPage = ecmrRepository.findSummariesByTypeAndAssignedGroupIds(ecmrType, usersGroupIds,
+                filterRequestCommand, pageable);
+
+        return new EcmrSummaryPageModel(summaryPage.getTotalPages(), summaryPage.getTotalElements(), summaryPage.getContent());
+    }
+
+    /**
+     * Resolves a scanned shipping mark barcode to the eCMRs of the user with an item carrying it. Usually there is one, but the same barcode
+     * can be on several eCMRs.
+     */
+    @Transactional(readOnly = true)
+    public List<EcmrSummary> getEcmrSummariesByBarcodeForUser(AuthenticatedUser authenticatedUser, String barcode)
+            throws ValidationException {
+        if (barcode == null || barcode.isBlank()) {
+            throw new ValidationException("Barcode must not be empty");
+        }
+        return ecmrRepository.findSummariesByBarcodeAndAssignedGroupIds(barcode.strip(), this.getGroupIdsForUser(authenticatedUser));
+    }
+
+    /**
+     * Counts the eCMRs of the user per type, status and transport type with one query. The type, status and transport type of the filter are
+     * ignored, as they are the counted facets, all other filters apply as in {@link #getEcmrsForUser}.
+     *
+     * @param cached Whether counts of the same filter of the last seconds may be returned
+     */
+    @Transactional
+    public EcmrFacetsModel getEcmrFacetsForUser(AuthenticatedUser authenticatedUser, boolean cached, FilterRequestCommand filterRequestCommand) {
+        FilterRequestCommand facetFilter = new FilterRequestCommand(filterRequestCommand.getReferenceId(), filterRequestCommand.getFrom(),
+                filterRequestCommand.getTo(), null, null, filterRequestCommand.getLicensePlate(), filterRequestCommand.getCarrierName(),
+                filterRequestCommand.getCarrierPostCode(), filterRequestCommand.getConsigneePostCode(), filterRequestCommand.getLastEditor());
+        List<Long> usersGroupIds = this.getGroupIdsForUser(authenticatedUser);
+
+        List<EcmrFacetCount> counts = cached
+                ? ecmrCountCache.getFacetCounts(authenticatedUser.getUser().getId(), facetFilter,
+                        () -> ecmrRepository.countFacetsByAssignedGroupIds(usersGroupIds, facetFilter))
+                : ecmrRepository.countFacetsByAssignedGroupIds(usersGroupIds, facetFilter);
+
+        Map<EcmrType, Long> types = new EnumMap<>(EcmrType.class);
+        Map<EcmrStatus, Long> statuses = new EnumMap<>(EcmrStatus.class);
+        Map<EcmrTransportType, Long> transportTypes = new EnumMap<>(EcmrTransportType.class);
+        long total = 0;
+        for (EcmrFacetCount count : counts) {
+            addCount(types, count.getType(), count.getCount());
+            addCount(statuses, count.getEcmrStatus(), count.getCount());
+            addCount(transportTypes, count.getTransportType(), count.getCount());
+            total += count.getCount();
+        }
+        return new EcmrFacetsModel(total, types, statuses, transportTypes, counts);
+    }
+
+    private static <K> void addCount(Map<K, Long> counts, K key, long count) {
+        if (key != null) {
+            counts.merge(key, count, Long::sum);
+        }
+    }
+
+    /**
+     * Returns the next page of eCMRs matching the same filter as {@link #getEcmrsForUser}, seeking on the sort field and the id instead of
+     * skipping rows, so that every page costs the same. No totals are counted, the cursor of the response is null after the last page.
+     *
+     * @param cursor The cursor returned with the previous page, or null for the first page
+     * @throws ValidationException If the cursor is invalid or was created for another sorting
+     */
+    @Transactional
+    public EcmrCursorPageModel getEcmrsForUserAfter(AuthenticatedUser authenticatedUser, EcmrType ecmrType, String cursor, int size,
+            SortingField sortBy, SortingOrder sortingOrder, FilterRequestCommand filterRequestCommand) throws ValidationException {
+        if (size < 1) {
+            throw new ValidationException("Page size must be at least 1");
+        }
+        EcmrCursor after = cursor == null ? null : EcmrCursor.fromToken(cursor, sortBy, sortingOrder);
+        List<Long> usersGroupIds = this.getGroupIdsForUser(authenticatedUser);
+
+        List<EcmrSortKey> sortKeys = ecmrRepository.findSortKeysByTypeAndAssignedGroupIds(ecmrType, usersGroupIds, filterRequestCommand,
+                sortBy.getEntryFieldName(), Sort.Direction.fromString(sortingOrder.name()),
+                after == null ? null : after.getSortValue(), after == null ? null : after.getId(), size + 1);
+
+        List<EcmrSortKey> pageKeys = sortKeys.subList(0, Math.min(size, sortKeys.size()));
+        String nextCursor = null;
+        if (sortKeys.size() > size) {
+            EcmrSortKey last = pageKeys.getLast();
+            nextCursor = new EcmrCursor(sortBy, sortingOrder, last.getSortValue(), last.getId()).toToken();
+        }
+
+        List<Long> ids = pageKeys.stream().map(EcmrSortKey::getId).toList();
+        Map<Long, EcmrEntity> ecmrsById = ecmrRepository.findAllByIdIn(ids).stream()
+                .collect(Collectors.toMap(EcmrEntity::getId, Function.identity()));
+        List<EcmrModel> ecmrs = ids.stream().map(ecmrsById::get).filter(Objects::nonNull).map(ecmrPersistenceMapper::toModel).toList();
+        return new EcmrCursorPageModel(ecmrs, nextCursor);
+    }
+
+    /**
+     * Returns the ids of the first eCMRs matching the same filter as {@link #getEcmrsForUser}, in the requested order. They are selected with
+     * one query, without counting the matching eCMRs.
+     *
+     * @param limit The maximum number of ids
+     */
+    @Transactional(readOnly = true)
+    public List<UUID> getEcmrIdsForUser(AuthenticatedUser authenticatedUser, EcmrType ecmrType, SortingField sortBy, SortingOrder sortingOrder,
+            FilterRequestCommand filterRequestCommand, int limit) {
+        Sort sort = Sort.by(Sort.Direction.fromString(sortingOrder.name()), sortBy.getEntryFieldName());
+        return ecmrRepository.findEcmrIdsByTypeAndAssignedGroupIds(ecmrType, this.getGroupIdsForUser(authenticatedUser), filterRequestCommand,
+                sort, limit);
+    }
+
+    /**
+     * Returns the ids of the active eCMRs of the truck with the given license plate whose goods are taken over on the given day (UTC), ordered
+     * by creation. The license plate has to match exactly apart from case and spaces, so "ab 123" finds the eCMRs of "AB123".
+     */
+    @Transactional(readOnly = true)
+    public List<UUID> getEcmrIdsForLoadSheet(AuthenticatedUser authenticatedUser, String licensePlate, LocalDate date) {
+        Instant from = date.atStartOfDay(ZoneOffset.UTC).toInstant();
+        return ecmrRepository.findEcmrIdsByLicensePlateAndTakingOverBetween(EcmrType.ECMR, this.getGroupIdsForUser(authenticatedUser),
+                licensePlate.replace(" ", "").toUpperCase(Locale.ROOT), from, from.plus(1, ChronoUnit.DAYS));
+    }
+
+    private List<Long> getGroupIdsForUser(AuthenticatedUser authenticatedUser) {
+        return userToGroupRepository.findGroupIdsByUserId(authenticatedUser.getUser().getId());
+    }
 
-        return new EcmrPageModel(ecmrPage.getTotalPages(), ecmrPage.getTotalElements(), ecmrPage.get().map(ecmrPersistenceMapper::toModel).toList());
+    private Page<EcmrEntity> findEcmrsForUser(List<Long> usersGroupIds, EcmrType ecmrType, FilterRequestCommand filterRequestCommand,
+            Pageable pageable) {
+        return ecmrRepository.findAllByTypeAndAssignedGroupIds(ecmrType, usersGroupIds, filterRequestCommand, pageable);
     }
 
     @Transactional
@@ -39,7 +39,6 @@
 import org.openlogisticsfoundation.ecmr.domain.models.EcmrExportResult;
 import org.openlogisticsfoundation.ecmr.domain.models.EcmrRole;
 import org.openlogisticsfoundation.ecmr.domain.models.EcmrShareResponse;
-import org.openlogisticsfoundation.ecmr.domain.models.Group;
 import org.openlogisticsfoundation.ecmr.domain.models.InternalOrExternalUser;
 import org.openlogisticsfoundation.ecmr.domain.models.ShareEcmrResult;
 import org.openlogisticsfoundation.ecmr.domain.models.commands.ExternalUserRegistrationCommand;
@@ -72,6 +71,7 @@ public class EcmrShareService {
     private final EcmrService ecmrService;
     private final EcmrPersistenceMapper ecmrPersistenceMapper;
     private final EcmrAssignmentRepository ecmrAssignmentRepository;
+    private final EcmrVisibilityService ecmrVisibilityService;
     private final ExternalUserRepository externalUserRepository;
     private final PhoneMessageProvider phoneMessageProvider;
     private final UserRepository userRepository;
@@ -208,15 +208,14 @@ private void createAndSaveAssigment(final EcmrEntity ecmr, final EcmrRole role,
         assignmentEntity.setRole(role);
         assignmentEntity.setGroup(group);
         ecmrAssignmentRepository.save(assignmentEntity);
+        ecmrVisibilityService.assignmentsChanged(ecmr);
     }
 
     private void changeRoleToReadonly(InternalOrExternalUser internalOrExternalUser, EcmrRole roleToChange, UUID ecmrId) {
         List<EcmrAssignmentEntity> userAssignments;
         if (internalOrExternalUser.isInternalUser()) {
-            List<Group> usersGroups = groupService.getGroupsForUser(internalOrExternalUser.getInternalUser().getId());
-            List<Long> groupIds = groupService.flatMapGroupTrees(usersGroups).stream().map(Group::getId).toList();
-            userAssignments = this.ecmrAssignmentRepository.findByEcmr_EcmrIdAndGroup_idInAndRole(ecmrId,
-                    groupIds, roleToChange);
+            userAssignments = this.ecmrAssignmentRepository.findByEcmrIdAndRoleInGroupsOfUser(ecmrId,
+                    internalOrExternalUser.getInternalUser().getId(), roleToChange);
         } else {
             userAssignments = this.ecmrAssignmentRepository.findByExternalUser(
                             ecmrId, internalOrExternalUser.getExternalUser().getUserToken(), internalOrExternalUser.getExternalUser().getTan())
@@ -225,6 +224,9 @@ private void changeRoleToReadonly(InternalOrExternalUser internalOrExternalUser,
         }
         userAssignments.forEach(userAssignment -> userAssignment.setRole(EcmrRole.Reader));
         ecmrAssignmentRepository.saveAll(userAssignments);
+        if (!userAssignments.isEmpty()) {
+            ecmrVisibilityService.assignmentsChanged(userAssignments.getFirst().getEcmr());
+        }
     }
 
     private void validateShareRoles(List<EcmrRole> userRoles, EcmrRole roleToShare) throws NoPermissionException {
@@ -369,6 +371,7 @@ public void importEcmrFromExternal(String url, UUID ecmrId, String shareToken, L
             ecmrAssignmentEntity.setRole(exportResult.getEcmrRole());
             ecmrAssignmentRepository.save(ecmrAssignmentEntity);
         }
+        ecmrVisibilityService.assignmentsChanged(sealedDocumentEntity.getEcmr());
 
         // save history log
         this.historyLogService.writeHistoryLog(sealedDocumentEntity.getEcmr(), sealedDocumentEntity.getEcmr().getOriginUrl(), ActionType.Creation);
@@ -23,6 +23,7 @@
 import org.openlogisticsfoundation.ecmr.domain.models.EcmrType;
 import org.openlogisticsfoundation.ecmr.domain.models.InternalOrExternalUser;
 import org.openlogisticsfoundation.ecmr.domain.models.commands.EcmrCommand;
+import org.openlogisticsfoundation.ecmr.domain.services.search.EcmrSearchIndexer;
 import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrEntity;
 import org.openlogisticsfoundation.ecmr.persistence.repositories.EcmrRepository;
 import org.springframework.stereotype.Service;
@@ -41,6 +42,8 @@ public class EcmrUpdateService {
     private final EcmrService ecmrService;
     private final HistoryLogService historyLogService;
     private final EcmrStatusService ecmrStatusService;
+    private final ConsigneeSignatureService consigneeSignatureService;
+    private final EcmrSearchIndexer ecmrSearchIndexer;
 
     public EcmrModel archiveEcmr(UUID ecmrUuid, AuthenticatedUser authenticatedUser)
             throws EcmrNotFoundException, ValidationException, NoPermissionException {
@@ -52,7 +55,9 @@ public EcmrModel archiveEcmr(UUID ecmrUuid, AuthenticatedUser authenticatedUser)
             throw new ValidationException("Only ecmrs can be archived");
         }
         ecmrEntity.setType(EcmrType.ARCHIVED);
-        return persistenceMapper.toModel(this.ecmrRepository.save(ecmrEntity));
+        ecmrEntity = this.ecmrRepository.save(ecmrEntity);
+        ecmrSearchIndexer.ecmrsChanged(List.of(ecmrEntity.getId()));
+        return persistenceMapper.toModel(ecmrEntity);
     }
 
     public EcmrModel reactivateEcmr(UUID ecmrUuid, AuthenticatedUser authenticatedUser)
@@ -65,7 +70,9 @@ public EcmrModel reactivateEcmr(UUID ecmrUuid, AuthenticatedUser authenticatedUs
             throw new ValidationException("Only archived ecmrs can be reactivated");
         }
         ecmrEntity.setType(EcmrType.ECMR);
-        return persistenceMapper.toModel(this.ecmrRepository.save(ecmrEntity));
+        ecmrEntity = this.ecmrRepository.save(ecmrEntity);
+        ecmrSearchIndexer.ecmrsChanged(List.of(ecmrEntity.getId()));
+        return persistenceMapper.toModel(ecmrEntity);
     }
 
     public void archiveEcmrs() {
@@ -75,11 +82,12 @@ public void archiveEcmrs() {
             entity.setType(EcmrType.ARCHIVED);
         }
         this.ecmrRepository.saveAll(entities);
+        ecmrSearchIndexer.ecmrsChanged(entities.stream().map(EcmrEntity::getId).toList());
     }
 
     @Transactional
     public EcmrModel updateEcmr(EcmrCommand ecmrCommand, UUID ecmrId, InternalOrExternalUser internalOrExternalUser)
-            throws EcmrNotFoundException, NoPermissionException {
+            throws EcmrNotFoundException, NoPermissionException, ValidationException {
         EcmrEntity ecmrEntity = ecmrRepository.findByEcmrId(ecmrId)
                 .orElseThrow(() -> new EcmrNotFoundException(ecmrId));
 
@@ -95,9 +103,13 @@ public EcmrModel updateEcmr(EcmrCommand ecmrCommand, UUID ecmrId, InternalOrExte
         ecmrEntity = ecmrService.clearPhoneNumbers(ecmrEntity);
 
         ecmrEntity = ecmrRepository.save(ecmrEntity);
+        if (ecmrCommand.getGoodsReceived() != null) {
+            consigneeSignatureService.saveSignature(ecmrEntity, ecmrCommand.getGoodsReceived().getConsigneeSignature());
+        }
         ecmrEntity = this.ecmrStatusService.setEcmrStatus(ecmrEntity, internalOrExternalUser);
 
         historyLogService.writeHistoryLog(ecmrEntity, internalOrExternalUser.getFullName(), ActionType.Edit);
+        ecmrSearchIndexer.ecmrsChanged(List.of(ecmrEntity.getId()));
 
         return persistenceMapper.toModel(ecmrEntity);
     }
@@ -0,0 +1,73 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.domain.services;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.openlogisticsfoundation.ecmr.domain.services.search.EcmrSearchIndexer;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.GroupClosureEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.GroupEntity;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.EcmrVisibilityRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.GroupClosureRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Maintains the group closure and the eCMR visibility derived from it, so that the eCMRs and roles of a user can be looked up with a join on
+ * the groups of the user instead of expanding their group trees. Must be called in the transaction that changes the groups or assignments.
+ * Rows of deleted groups and eCMRs are removed by the database. The search index is updated with the new visibility after the commit.
+ */
+@Service
+@RequiredArgsConstructor
+public class EcmrVisibilityService {
+    private final GroupClosureRepository groupClosureRepository;
+    private final EcmrVisibilityRepository ecmrVisibilityRepository;
+    private final EcmrSearchIndexer ecmrSearchIndexer;
+
+    @Transactional
+    public void groupCreated(GroupEntity group) {
+        groupClosureRepository.save(new GroupClosureEntity(group, group, 0));
+        if (group.getParent() != null) {
+            groupClosureRepository.insertAncestorsOfNewGroup(group.getId(), group.getParent().getId());
+        }
+    }
+
+    @Transactional
+    public void groupMoved(GroupEntity group) {
+        groupClosureRepository.detachSubtree(group.getId());
+        if (group.getParent() != null) {
+            groupClosureRepository.attachSubtree(group.getId(), group.getParent().getId());
+        }
+        ecmrVisibilityRepository.deleteByAssignmentsInSubtree(group.getId());
+        ecmrVisibilityRepository.insertByAssignmentsInSubtree(group.getId());
+        ecmrSearchIndexer.ecmrsChanged(ecmrVisibilityRepository.findEcmrIdsByGroupId(group.getId()));
+    }
+
+    public boolean isDescendant(long groupId, long ancestorId) {
+        return groupClosureRepository.existsByAncestor_IdAndDescendant_Id(ancestorId, groupId);
+    }
+
+    @Transactional
+    public void assignmentsChanged(EcmrEntity ecmr) {
+        this.assignmentsChanged(List.of(ecmr.getId()));
+    }
+
+    @Transactional
+    public void assignmentsChanged(Collection<Long> ecmrEntityIds) {
+        if (ecmrEntityIds.isEmpty()) {
+            return;
+        }
+        ecmrVisibilityRepository.deleteByEcmrIds(ecmrEntityIds);
+        ecmrVisibilityRepository.insertByEcmrIds(ecmrEntityIds);
+        ecmrSearchIndexer.ecmrsChanged(ecmrEntityIds);
+    }
+}
@@ -48,6 +48,7 @@ public class GroupService {
     private final UserToGroupRepository userToGroupRepository;
     private final UserRepository userRepository;
     private final EcmrAssignmentRepository ecmrAssignmentRepository;
+    private final EcmrVisibilityService ecmrVisibilityService;
 
     public List<Group> getAllGroups() {
         List<GroupEntity> groupEntities = groupRepository.findByParentId(null);
@@ -93,6 +94,7 @@ public Group getGroup(long id) throws GroupNotFoundException {
         return groupRepository.findById(id).map(groupPersistenceMapper::toGroup).orElseThrow(() -> new GroupNotFoundException(id));
     }
 
+    @Transactional
     public Group createGroup(AuthenticatedUser authenticatedUser, @Valid GroupCreationCommand command) throws GroupNotFoundException, NoPermissionException {
         GroupEntity parentGroup = groupRepository.findById(command.getParentId())
                 .orElseThrow(() -> new GroupNotFoundException(command.getParentId()));
@@ -106,6 +108,7 @@ public Group createGroup(AuthenticatedUser authenticatedUser, @Valid GroupCreati
         group.setParent(parentGroup);
         group.setChildren(new ArrayList<>());
         group = groupRepository.save(group);
+        ecmrVisibilityService.groupCreated(group);
         return getGroup(group.getId());
     }
 
@@ -135,6 +138,7 @@ public Boolean deleteGroup(long id) throws GroupNotFoundException, GroupHasChild
             // Update ECMR Assignments to the parent group
             List<EcmrAssignmentEntity> ecmrAssignments = ecmrAssignmentRepository.findByGroup_Id(id);
             updateEcmrAssignmentsGroup(ecmrAssignments, parentEntity);
+            ecmrVisibilityService.assignmentsChanged(ecmrAssignments.stream().map(assignment -> assignment.getEcmr().getId()).distinct().toList());
 
             groupRepository.delete(groupEntity);
             return true;
@@ -166,18 +170,17 @@ public void updateEcmrAssignmentsGroup(List<EcmrAssignmentEntity> ecmrAssignment
         }
     }
 
+    @Transactional
     public Group updateGroupParent(long groupId, long groupParentId) throws GroupNotFoundException, ValidationException {
-
-        Group group = getGroup(groupId);
-        List<Group> groupDescendants = flatMapGroupTree(group).toList();
-        // Check if the groupParentId is contained in the list of descendants of the group
-        if (groupDescendants.stream().map(Group::getId).toList().contains(groupParentId)) {
-            throw new ValidationException("Can't set parent to a group that is a descendant of the group");
-        }
         GroupEntity groupEntity = groupRepository.findById(groupId).orElseThrow(() -> new GroupNotFoundException(groupId));
         GroupEntity parentGroup = groupRepository.findById(groupParentId).orElseThrow(() -> new GroupNotFoundException(groupParentId));
+        // Check if the groupParentId is the group itself or one of its descendants
+        if (ecmrVisibilityService.isDescendant(groupParentId, groupId)) {
+            throw new ValidationException("Can't set parent to a group that is a descendant of the group");
+        }
         groupEntity.setParent(parentGroup);
         groupEntity = groupRepository.save(groupEntity);
+        ecmrVisibilityService.groupMoved(groupEntity);
         return getGroup(groupEntity.getId());
     }
 
@@ -0,0 +1,260 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.domain.services;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import org.openlogisticsfoundation.ecmr.domain.exceptions.EcmrNotFoundException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.NoPermissionException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.PdfJobNotCompletedException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.PdfJobNotFoundException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.RateLimitException;
+import org.openlogisticsfoundation.ecmr.domain.models.InternalOrExternalUser;
+import org.openlogisticsfoundation.ecmr.domain.models.StreamedFile;
+import org.openlogisticsfoundation.ecmr.domain.models.PdfJob;
+import org.openlogisticsfoundation.ecmr.domain.models.PdfJobStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Renders eCMR PDFs in the background. The finished documents are written to a spool directory and can be downloaded by the user who
+ * created the job until they expire after {@code ecmr.pdf.jobs.ttl}. Jobs are only kept in memory, so they do not survive a restart.
+ * <p>
+ * Like the {@link org.openlogisticsfoundation.ecmr.domain.services.pdf.PdfRenderExecutor} for interactive requests, new jobs are rejected with
+ * a {@link RateLimitException} once an owner has {@code ecmr.pdf.jobs.max-pending-per-owner} or all owners together have
+ * {@code ecmr.pdf.jobs.max-pending} jobs that have not finished yet. This also bounds the queue of the job executor.
+ */
+@Service
+@Log4j2
+public class PdfJobService {
+
+    // the cause is only logged, exception messages may contain internals like paths or SQL
+    private static final String FAILURE_MESSAGE = "The PDF could not be created";
+
+    private final EcmrPdfService ecmrPdfService;
+    private final EcmrService ecmrService;
+    private final AuthorisationService authorisationService;
+    private final Path spoolDirectory;
+    private final Duration timeToLive;
+    private final int maxPending;
+    private final int maxPendingPerOwner;
+    private final Duration retryAfter;
+    private final ExecutorService executorService;
+
+    private final Map<UUID, Job> jobs = new ConcurrentHashMap<>();
+
+    public PdfJobService(EcmrPdfService ecmrPdfService, EcmrService ecmrService, AuthorisationService authorisationService,
+            @Value("${ecmr.pdf.jobs.spool-directory:${java.io.tmpdir}/ecmr-pdf-jobs}") Path spoolDirectory,
+            @Value("${ecmr.pdf.jobs.ttl:PT1H}") Duration timeToLive,
+            @Value("${ecmr.pdf.jobs.parallelism:2}") int parallelism,
+            @Value("${ecmr.pdf.jobs.max-pending:100}") int maxPending,
+            @Value("${ecmr.pdf.jobs.max-pending-per-owner:10}") int maxPendingPerOwner,
+            @Value("${ecmr.pdf.render.retry-after:PT5S}") Duration retryAfter) {
+        this.ecmrPdfService = ecmrPdfService;
+        this.ecmrService = ecmrService;
+        this.authorisationService = authorisationService;
+        this.spoolDirectory = spoolDirectory;
+        this.timeToLive = timeToLive;
+        this.maxPending = maxPending;
+        this.maxPendingPerOwner = maxPendingPerOwner;
+        this.retryAfter = retryAfter;
+        this.executorService = Executors.newFixedThreadPool(parallelism, Thread.ofPlatform().name("ecmr-pdf-job-", 0).daemon().factory());
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(spoolDirectory);
+        // jobs are not persisted, so files from a previous run can never be downloaded again
+        try (Stream<Path> files = Files.list(spoolDirectory)) {
+            files.forEach(this::deleteQuietly);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executorService.shutdownNow();
+    }
+
+    /**
+     * @throws RateLimitException If the owner or all owners together have too many jobs that have not finished yet
+     */
+    public PdfJob createJob(UUID ecmrId, InternalOrExternalUser internalOrExternalUser)
+            throws EcmrNotFoundException, NoPermissionException, RateLimitException {
+        if (!ecmrService.existsByEcmrId(ecmrId)) {
+            throw new EcmrNotFoundException(ecmrId);
+        }
+        if (authorisationService.hasNoRole(internalOrExternalUser, ecmrId)) {
+            throw new NoPermissionException("No permission to load ecmr");
+        }
+
+        Job job = new Job(UUID.randomUUID(), ecmrId, getOwner(internalOrExternalUser));
+        this.admit(job);
+        executorService.execute(() -> this.runJob(job, internalOrExternalUser));
+        return job.toPdfJob();
+    }
+
+    public PdfJob getJob(UUID jobId, InternalOrExternalUser internalOrExternalUser) throws PdfJobNotFoundException, NoPermissionException {
+        return this.getOwnedJob(jobId, internalOrExternalUser).toPdfJob();
+    }
+
+    public StreamedFile getJobResult(UUID jobId, InternalOrExternalUser internalOrExternalUser)
+            throws PdfJobNotFoundException, NoPermissionException, PdfJobNotCompletedException {
+        Job job = this.getOwnedJob(jobId, internalOrExternalUser);
+        if (job.status != PdfJobStatus.COMPLETED) {
+            throw new PdfJobNotCompletedException(jobId);
+        }
+        Path file = job.file;
+        return new StreamedFile(job.filename, StreamedFile.APPLICATION_PDF, job.size, outputStream -> Files.copy(file, outputStream));
+    }
+
+    public void removeExpiredJobs() {
+        Instant expiry = Instant.now().minus(timeToLive);
+        Iterator<Job> iterator = jobs.values().iterator();
+        while (iterator.hasNext()) {
+            Job job = iterator.next();
+            Instant referenceTime = job.completedAt != null ? job.completedAt : job.createdAt;
+            if (referenceTime.isBefore(expiry)) {
+                iterator.remove();
+                if (job.file != null) {
+                    this.deleteQuietly(job.file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the job if the limits of pending jobs allow it. Counting and adding happen under one lock, so concurrent requests cannot exceed
+     * them.
+     */
+    private synchronized void admit(Job job) throws RateLimitException {
+        int pending = 0;
+        int pendingOfOwner = 0;
+        for (Job other : jobs.values()) {
+            if (other.isPending()) {
+                pending++;
+                if (other.owner.equals(job.owner)) {
+                    pendingOfOwner++;
+                }
+            }
+        }
+        if (pendingOfOwner >= maxPendingPerOwner) {
+            throw new RateLimitException("Too many pending PDF jobs, at most " + maxPendingPerOwner + " per user", retryAfter);
+        }
+        if (pending >= maxPending) {
+            throw new RateLimitException("Too many pending PDF jobs", retryAfter);
+        }
+        jobs.put(job.jobId, job);
+    }
+
+    private void runJob(Job job, InternalOrExternalUser internalOrExternalUser) {
+        job.status = PdfJobStatus.RUNNING;
+        Path tempFile = null;
+        try {
+            StreamedFile pdfFile = ecmrPdfService.createJasperReportForEcmr(job.ecmrId, internalOrExternalUser, true, true);
+            tempFile = Files.createTempFile(spoolDirectory, job.jobId.toString(), ".tmp");
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+                pdfFile.writeTo(outputStream);
+            }
+            Path file = Files.move(tempFile, spoolDirectory.resolve(job.jobId + ".pdf"), StandardCopyOption.ATOMIC_MOVE);
+            job.complete(pdfFile.getFilename(), file, Files.size(file));
+            if (!jobs.containsKey(job.jobId)) {
+                // the job expired while it was still running
+                this.deleteQuietly(file);
+            }
+        } catch (Exception e) {
+            log.warn("PDF job {} for eCMR {} failed", job.jobId, job.ecmrId, e);
+            if (tempFile != null) {
+                this.deleteQuietly(tempFile);
+            }
+            job.fail(FAILURE_MESSAGE);
+        }
+    }
+
+    private Job getOwnedJob(UUID jobId, InternalOrExternalUser internalOrExternalUser) throws PdfJobNotFoundException, NoPermissionException {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new PdfJobNotFoundException(jobId);
+        }
+        if (!job.owner.equals(getOwner(internalOrExternalUser))) {
+            throw new NoPermissionException("No permission to access PDF job");
+        }
+        return job;
+    }
+
+    private static String getOwner(InternalOrExternalUser internalOrExternalUser) {
+        return internalOrExternalUser.isInternalUser() ? "user:" + internalOrExternalUser.getInternalUser().getId()
+                : "external-user:" + internalOrExternalUser.getExternalUser().getId();
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled PDF {}", file, e);
+        }
+    }
+
+    private static class Job {
+        private final UUID jobId;
+        private final UUID ecmrId;
+        private final String owner;
+        private final Instant createdAt = Instant.now();
+        private volatile PdfJobStatus status = PdfJobStatus.QUEUED;
+        private volatile String filename;
+        private volatile Path file;
+        private volatile Long size;
+        private volatile String errorMessage;
+        private volatile Instant completedAt;
+
+        private Job(UUID jobId, UUID ecmrId, String owner) {
+            this.jobId = jobId;
+            this.ecmrId = ecmrId;
+            this.owner = owner;
+        }
+
+        private void complete(String filename, Path file, long size) {
+            this.filename = filename;
+            this.file = file;
+            this.size = size;
+            this.completedAt = Instant.now();
+            this.status = PdfJobStatus.COMPLETED;
+        }
+
+        private void fail(String errorMessage) {
+            this.errorMessage = errorMessage;
+            this.completedAt = Instant.now();
+            this.status = PdfJobStatus.FAILED;
+        }
+
+        private boolean isPending() {
+            return status == PdfJobStatus.QUEUED || status == PdfJobStatus.RUNNING;
+        }
+
+        private PdfJob toPdfJob() {
+            return new PdfJob(jobId, ecmrId, status, errorMessage, createdAt, completedAt);
+        }
+    }
+}
@@ -12,7 +12,6 @@
 import java.util.Optional;
 import java.util.UUID;
 
-import org.openlogisticsfoundation.ecmr.api.model.SealedDocument;
 import org.openlogisticsfoundation.ecmr.domain.exceptions.NoPermissionException;
 import org.openlogisticsfoundation.ecmr.domain.exceptions.SealedDocumentNotFoundException;
 import org.openlogisticsfoundation.ecmr.domain.exceptions.ValidationException;
@@ -87,13 +86,6 @@ public void validateSealedDocument(SealedDocumentEntity sealedDocument) throws V
         }
     }
 
-    Optional<SealedDocument> getSealedDocument(UUID ecmrId, InternalOrExternalUser internalOrExternalUser) throws NoPermissionException {
-        if (authorisationService.hasNoRole(internalOrExternalUser, ecmrId)) {
-            throw new NoPermissionException("No permission to load ecmr");
-        }
-        return sealedDocumentRepository.findByEcmrId(ecmrId).map(sealedDocumentPersistenceMapper::toDomain);
-    }
-
     Optional<SealedDocumentEntity> getSealedDocumentEntity(UUID ecmrId, InternalOrExternalUser internalOrExternalUser) throws NoPermissionException {
         if (authorisationService.hasNoRole(internalOrExternalUser, ecmrId)) {
             throw new NoPermissionException("No permission to load ecmr");
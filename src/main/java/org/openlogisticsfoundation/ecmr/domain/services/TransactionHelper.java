@@ -0,0 +1,36 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.domain.services;
+
+import java.util.concurrent.Executor;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class TransactionHelper {
+
+    private TransactionHelper() {}
+
+    /**
+     * Hands the task to the executor once the current transaction has committed, or at once if there is no transaction. Changes are not
+     * visible to other transactions before the commit, so background work that reads them has to wait for it. The task is dropped if the
+     * transaction is rolled back.
+     */
+    public static void executeAfterCommit(Executor executor, Runnable task) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            executor.execute(task);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                executor.execute(task);
+            }
+        });
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.domain.services.pdf;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import net.sf.jasperreports.engine.JREmptyDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.export.JRGraphics2DExporter;
+import net.sf.jasperreports.engine.export.JRPdfExporter;
+import net.sf.jasperreports.engine.util.ExifOrientationEnum;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.util.Pair;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleGraphics2DExporterOutput;
+import net.sf.jasperreports.export.SimpleGraphics2DReportConfiguration;
+import net.sf.jasperreports.export.SimpleOutputStreamExporterOutput;
+import net.sf.jasperreports.export.SimplePdfExporterConfiguration;
+import net.sf.jasperreports.export.SimplePdfReportConfiguration;
+import net.sf.jasperreports.export.pdf.PdfImage;
+
+/**
+ * Holds the compiled eCMR report. A {@link JasperReport} is immutable once compiled and can be shared between threads, so the template is
+ * compiled (or loaded from a precompiled {@code .jasper}) only once. With {@code ecmr.pdf.report.reload-on-change} enabled the source template
+ * is watched and recompiled when it changes, which is meant for local development only.
+ */
+@Component
+@Log4j2
+public class EcmrReportRegistry {
+
+    /** Key of the copy watermark element in the template */
+    public static final String WATERMARK_KEY = "watermark";
+
+    private static final String REPORT_SOURCE = "reports/ecmr.jrxml";
+    private static final String REPORT_COMPILED = "reports/ecmr.jasper";
+
+    private final boolean reloadOnChange;
+    private final boolean compressed;
+    private final Timer compileTimer;
+    private final Timer fillTimer;
+    private final Timer exportTimer;
+    private final DistributionSummary exportSize;
+    private final Timer previewTimer;
+
+    private volatile JasperReport report;
+    private volatile long reportLastModified;
+
+    public EcmrReportRegistry(@Value("${ecmr.pdf.report.reload-on-change:false}") boolean reloadOnChange,
+            @Value("${ecmr.pdf.export.compressed:true}") boolean compressed, MeterRegistry meterRegistry) {
+        this.reloadOnChange = reloadOnChange;
+        this.compressed = compressed;
+        this.compileTimer = Timer.builder("ecmr.pdf.compile").description("Time spent compiling or loading the eCMR report template")
+                .register(meterRegistry);
+        this.fillTimer = Timer.builder("ecmr.pdf.fill").description("Time spent filling the eCMR report").register(meterRegistry);
+        this.exportTimer = Timer.builder("ecmr.pdf.export").description("Time spent exporting the filled eCMR report to PDF")
+                .register(meterRegistry);
+        this.exportSize = DistributionSummary.builder("ecmr.pdf.export.size").description("Size of the exported eCMR PDFs").baseUnit("bytes")
+                .register(meterRegistry);
+        this.previewTimer = Timer.builder("ecmr.pdf.preview").description("Time spent drawing preview images of the filled eCMR report")
+                .register(meterRegistry);
+    }
+
+    public JasperReport getReport() throws JRException {
+        JasperReport current = this.report;
+        if (current != null && (!reloadOnChange || this.reportLastModified == lastModified(REPORT_SOURCE))) {
+            return current;
+        }
+        synchronized (this) {
+            long lastModified = lastModified(REPORT_SOURCE);
+            if (this.report == null || (reloadOnChange && this.reportLastModified != lastModified)) {
+                this.report = this.loadReport();
+                this.reportLastModified = lastModified;
+            }
+            return this.report;
+        }
+    }
+
+    public JasperPrint fill(Map<String, Object> parameters) throws JRException {
+        JasperReport jasperReport = this.getReport();
+        Timer.Sample sample = Timer.start();
+        try {
+            return JasperFillManager.fillReport(jasperReport, parameters, new JREmptyDataSource());
+        } finally {
+            sample.stop(fillTimer);
+        }
+    }
+
+    /**
+     * @param withWatermark Whether to keep the element keyed {@value #WATERMARK_KEY}. The report is filled with the watermark, the original
+     *         is derived from the same fill by leaving it out of the export.
+     * @return The number of bytes written
+     */
+    public long exportToPdf(JasperPrint jasperPrint, boolean withWatermark, OutputStream outputStream) throws JRException {
+        return this.exportToPdf(List.of(jasperPrint), withWatermark, outputStream);
+    }
+
+    /**
+     * Exports several filled reports into one PDF, their pages are concatenated in the order of the list.
+     *
+     * @see #exportToPdf(JasperPrint, boolean, OutputStream)
+     */
+    public long exportToPdf(List<JasperPrint> jasperPrints, boolean withWatermark, OutputStream outputStream) throws JRException {
+        Timer.Sample sample = Timer.start();
+        CountingOutputStream countingOutputStream = new CountingOutputStream(outputStream);
+        try {
+            JRPdfExporter exporter = new BatchPdfExporter();
+            exporter.setExporterInput(SimpleExporterInput.getInstance(jasperPrints));
+            exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(countingOutputStream));
+            SimplePdfExporterConfiguration exporterConfiguration = new SimplePdfExporterConfiguration();
+            exporterConfiguration.setCompressed(compressed);
+            exporter.setConfiguration(exporterConfiguration);
+            if (!withWatermark) {
+                SimplePdfReportConfiguration reportConfiguration = new SimplePdfReportConfiguration();
+                reportConfiguration.setExporterFilter(element -> !WATERMARK_KEY.equals(element.getKey()));
+                exporter.setConfiguration(reportConfiguration);
+            }
+            exporter.exportReport();
+            exportSize.record(countingOutputStream.count);
+            return countingOutputStream.count;
+        } finally {
+            sample.stop(exportTimer);
+        }
+    }
+
+    /**
+     * Draws the first page of the report scaled to the given width and writes it as PNG image.
+     */
+    public void exportFirstPageToPng(JasperPrint jasperPrint, int width, boolean withWatermark, OutputStream outputStream)
+            throws JRException, IOException {
+        Timer.Sample sample = Timer.start();
+        try {
+            float zoomRatio = (float) width / jasperPrint.getPageWidth();
+            int height = Math.max(1, Math.round(jasperPrint.getPageHeight() * zoomRatio));
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = image.createGraphics();
+            try {
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+                graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+                JRGraphics2DExporter exporter = new JRGraphics2DExporter();
+                exporter.setExporterInput(new SimpleExporterInput(jasperPrint));
+                SimpleGraphics2DExporterOutput exporterOutput = new SimpleGraphics2DExporterOutput();
+                exporterOutput.setGraphics2D(graphics);
+                exporter.setExporterOutput(exporterOutput);
+                SimpleGraphics2DReportConfiguration reportConfiguration = new SimpleGraphics2DReportConfiguration();
+                reportConfiguration.setPageIndex(0);
+                reportConfiguration.setZoomRatio(zoomRatio);
+                if (!withWatermark) {
+                    reportConfiguration.setExporterFilter(element -> !WATERMARK_KEY.equals(element.getKey()));
+                }
+                exporter.setConfiguration(reportConfiguration);
+                exporter.exportReport();
+            } finally {
+                graphics.dispose();
+            }
+            ImageIO.write(image, "png", outputStream);
+        } finally {
+            sample.stop(previewTimer);
+        }
+    }
+
+    private JasperReport loadReport() throws JRException {
+        Timer.Sample sample = Timer.start();
+        try {
+            ClassPathResource compiled = new ClassPathResource(REPORT_COMPILED);
+            if (!reloadOnChange && compiled.exists()) {
+                log.info("Loading precompiled report {}", REPORT_COMPILED);
+                try (InputStream inputStream = compiled.getInputStream()) {
+                    return (JasperReport) JRLoader.loadObject(inputStream);
+                }
+            }
+            log.info("Compiling report {}", REPORT_SOURCE);
+            try (InputStream inputStream = new ClassPathResource(REPORT_SOURCE).getInputStream()) {
+                return JasperCompileManager.compileReport(inputStream);
+            }
+        } catch (IOException e) {
+            throw new JRException("Could not read report template: " + e.getMessage(), e);
+        } finally {
+            sample.stop(compileTimer);
+        }
+    }
+
+    private static long lastModified(String path) {
+        try {
+            return new ClassPathResource(path).lastModified();
+        } catch (IOException e) {
+            // resources inside a jar have no reliable timestamp, which is fine since they cannot change either
+            return 0L;
+        }
+    }
+
+    /**
+     * Keeps the embedded images across the reports of a batch. The exporter clears its image cache for every report, so merged reports would
+     * embed the shared logo and watermark once per report instead of once per document.
+     */
+    private static final class BatchPdfExporter extends JRPdfExporter {
+        private Map<String, Pair<PdfImage, ExifOrientationEnum>> documentImages;
+
+        @Override
+        protected void initReport() {
+            super.initReport();
+            if (documentImages == null) {
+                documentImages = loadedImagesMap;
+            } else {
+                loadedImagesMap = documentImages;
+            }
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream outputStream) {
+            super(outputStream);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.domain.services.pdf;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.sf.jasperreports.engine.JasperPrint;
+
+/**
+ * In-memory cache for filled eCMR reports, keyed by the document version. A {@link JasperPrint} is not modified by exporting it, so the
+ * original and the copy of a version are both exported from the same cached fill. Bounded by {@code ecmr.pdf.fill-cache.max-entries}, the
+ * least recently used report is evicted first.
+ */
+@Component
+public class FilledReportCache {
+
+    private final int maxEntries;
+    private final Counter hits;
+    private final Counter misses;
+
+    // access ordered, so the eldest entry is the least recently used one
+    private final LinkedHashMap<String, JasperPrint> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, JasperPrint> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    public FilledReportCache(@Value("${ecmr.pdf.fill-cache.max-entries:32}") int maxEntries, MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.hits = Counter.builder("ecmr.pdf.fill-cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("ecmr.pdf.fill-cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("ecmr.pdf.fill-cache.entries", this, FilledReportCache::size).register(meterRegistry);
+    }
+
+    /**
+     * @param version A string that changes whenever the filled report would change, {@code null} if the report must not be cached
+     */
+    public Optional<JasperPrint> get(String version) {
+        if (maxEntries <= 0 || version == null) {
+            return Optional.empty();
+        }
+        JasperPrint jasperPrint;
+        synchronized (this) {
+            jasperPrint = entries.get(version);
+        }
+        (jasperPrint != null ? hits : misses).increment();
+        return Optional.ofNullable(jasperPrint);
+    }
+
+    public void put(String version, JasperPrint jasperPrint) {
+        if (maxEntries <= 0 || version == null) {
+            return;
+        }
+        synchronized (this) {
+            entries.put(version, jasperPrint);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,413 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.domain.services.pdf;
+
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.openlogisticsfoundation.ecmr.domain.models.StreamedFile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * File system cache for rendered PDFs and their preview images. Entries are addressed by the SHA-256 digest of the document version and the
+ * copy flag, so a cached file can never be served for a different document state. Each key ends with the file suffix of its content type, so
+ * the entries can be served with the right type after a restart. A cached file is served byte for byte, which makes strong ETags and range
+ * requests possible. The cache is bounded by {@code ecmr.pdf.cache.max-size-mb} and evicts the least recently used files first. Any I/O
+ * problem is logged and treated as a cache miss.
+ * <p>
+ * A cached file is opened when it is looked up, so it can still be served if it is evicted before the response is written. New documents
+ * are written to the client and the cache at the same time, the client does not wait for the cache.
+ */
+@Component
+@Log4j2
+public class PdfCache {
+
+    private static final String PDF_SUFFIX = ".pdf";
+    private static final String PNG_SUFFIX = ".png";
+    private static final Map<String, String> CONTENT_TYPES = Map.of(PDF_SUFFIX, StreamedFile.APPLICATION_PDF,
+            PNG_SUFFIX, StreamedFile.IMAGE_PNG);
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxSizeBytes;
+    private final boolean memoryMapped;
+    private final Counter hits;
+    private final Counter misses;
+
+    // access ordered, so iteration starts with the least recently used entry
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentSizeBytes;
+
+    public PdfCache(@Value("${ecmr.pdf.cache.enabled:true}") boolean enabled,
+            @Value("${ecmr.pdf.cache.directory:${java.io.tmpdir}/ecmr-pdf-cache}") Path directory,
+            @Value("${ecmr.pdf.cache.max-size-mb:512}") long maxSizeMb,
+            @Value("${ecmr.pdf.cache.memory-mapped:false}") boolean memoryMapped,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+        this.memoryMapped = memoryMapped;
+        this.hits = Counter.builder("ecmr.pdf.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("ecmr.pdf.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("ecmr.pdf.cache.size", this, PdfCache::getCurrentSizeBytes).baseUnit("bytes").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> stream = Files.list(directory)) {
+                files = stream.sorted(Comparator.comparing(PdfCache::lastModified)).toList();
+            }
+            // temporary files are left behind by writes interrupted by a shutdown, they are never completed
+            files.stream().filter(path -> path.getFileName().toString().endsWith(TEMP_FILE_SUFFIX)).forEach(this::deleteQuietly);
+            files = files.stream().filter(path -> getContentType(path.getFileName().toString()) != null).toList();
+            synchronized (this) {
+                for (Path file : files) {
+                    this.addEntry(file.getFileName().toString(), Files.size(file));
+                }
+                this.evict();
+            }
+            log.info("PDF cache in {} holds {} documents ({} bytes)", directory, entries.size(), currentSizeBytes);
+        } catch (IOException e) {
+            log.warn("Could not initialise PDF cache in {}", directory, e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param version A string that changes whenever the rendered document would change
+     */
+    public String key(String version, boolean isCopy) {
+        return digest(version) + (isCopy ? "-copy" : "-original") + PDF_SUFFIX;
+    }
+
+    /**
+     * @param version A string that changes whenever the rendered document would change
+     * @param width The width of the preview image in pixels
+     */
+    public String previewKey(String version, int width, boolean isCopy) {
+        return digest(version) + (isCopy ? "-copy" : "-original") + "-preview-" + width + PNG_SUFFIX;
+    }
+
+    /**
+     * Whether the document is cached, without counting as a use of the entry.
+     */
+    public synchronized boolean contains(String key) {
+        return enabled && entries.containsKey(key);
+    }
+
+    public Optional<StreamedFile> get(String key, String filename) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Long size;
+        synchronized (this) {
+            size = entries.get(key);
+        }
+        if (size == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(this.resolve(key), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            this.remove(key);
+            misses.increment();
+            return Optional.empty();
+        } catch (IOException e) {
+            log.warn("Could not read cached PDF {}", key, e);
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(new StreamedFile(filename, getContentType(key), size, new CachedContent(channel)));
+    }
+
+    /**
+     * Returns a PDF that writes the content of the given PDF to the client and to the cache at the same time. The cached file is only added
+     * once the content has been written completely, and a document that cannot be cached is still written to the client.
+     */
+    public StreamedFile writeThrough(String key, StreamedFile pdfFile) {
+        if (!enabled) {
+            return pdfFile;
+        }
+        return new StreamedFile(pdfFile.getFilename(), pdfFile.getContentType(), null, outputStream -> {
+            Path tempFile;
+            try {
+                tempFile = Files.createTempFile(directory, key, TEMP_FILE_SUFFIX);
+            } catch (IOException e) {
+                log.warn("Could not write PDF {} to cache", key, e);
+                pdfFile.writeTo(outputStream);
+                return;
+            }
+            CachingOutputStream cachingOutputStream = new CachingOutputStream(outputStream, key, tempFile);
+            try {
+                pdfFile.writeTo(cachingOutputStream);
+            } catch (IOException | RuntimeException e) {
+                cachingOutputStream.abandon(null);
+                throw e;
+            }
+            cachingOutputStream.complete();
+        });
+    }
+
+    public synchronized long getCurrentSizeBytes() {
+        return currentSizeBytes;
+    }
+
+    private void add(String key, Path tempFile, long size) throws IOException {
+        Files.move(tempFile, this.resolve(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        synchronized (this) {
+            this.addEntry(key, size);
+            this.evict();
+        }
+    }
+
+    private void addEntry(String key, long size) {
+        Long previous = entries.put(key, size);
+        currentSizeBytes += size - (previous == null ? 0 : previous);
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (currentSizeBytes > maxSizeBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            currentSizeBytes -= eldest.getValue();
+            this.delete(eldest.getKey());
+        }
+    }
+
+    private synchronized void remove(String key) {
+        Long size = entries.remove(key);
+        if (size != null) {
+            currentSizeBytes -= size;
+        }
+        this.delete(key);
+    }
+
+    private void delete(String key) {
+        this.deleteQuietly(this.resolve(key));
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete cached PDF {}", file, e);
+        }
+    }
+
+    private Path resolve(String key) {
+        return directory.resolve(key);
+    }
+
+    /**
+     * @return The content type of the cache entry, or {@code null} if the file is not a cache entry
+     */
+    private static String getContentType(String key) {
+        int separator = key.lastIndexOf('.');
+        return separator < 0 ? null : CONTENT_TYPES.get(key.substring(separator));
+    }
+
+    /**
+     * The content of a cached file, opened when it was looked up. It is closed once written, or by {@link #discard()} if it is not needed.
+     */
+    private final class CachedContent implements StreamedFile.Content {
+        private final FileChannel channel;
+
+        private CachedContent(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void writeTo(OutputStream outputStream) throws IOException {
+            this.writeTo(outputStream, 0, channel.size());
+        }
+
+        /**
+         * Reads only the requested bytes, from {@code start} on.
+         */
+        @Override
+        public void writeTo(OutputStream outputStream, long start, long length) throws IOException {
+            try (channel) {
+                WritableByteChannel target = Channels.newChannel(outputStream);
+                if (memoryMapped) {
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+                    while (buffer.hasRemaining()) {
+                        target.write(buffer);
+                    }
+                    return;
+                }
+                channel.position(start);
+                ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(length, READ_BUFFER_SIZE));
+                long remaining = length;
+                while (remaining > 0) {
+                    buffer.clear().limit((int) Math.min(remaining, buffer.capacity()));
+                    if (channel.read(buffer) < 0) {
+                        throw new EOFException("Cached file ended " + remaining + " bytes before the end of the requested range");
+                    }
+                    buffer.flip();
+                    remaining -= buffer.remaining();
+                    while (buffer.hasRemaining()) {
+                        target.write(buffer);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void discard() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Could not close cached PDF", e);
+            }
+        }
+    }
+
+    /**
+     * Passes the content on to the client and copies it to a temporary file, which becomes the cached file once the content is complete. If
+     * the copy fails or grows beyond the size of the cache, only the client is served.
+     */
+    private final class CachingOutputStream extends FilterOutputStream {
+        private final String key;
+        private final Path tempFile;
+        private OutputStream cacheStream;
+        private long size;
+
+        private CachingOutputStream(OutputStream outputStream, String key, Path tempFile) {
+            super(outputStream);
+            this.key = key;
+            this.tempFile = tempFile;
+            try {
+                this.cacheStream = new BufferedOutputStream(Files.newOutputStream(tempFile));
+            } catch (IOException e) {
+                this.abandon(e);
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            this.copy(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            this.copy(b, off, len);
+        }
+
+        private void copy(byte[] b, int off, int len) {
+            if (cacheStream == null) {
+                return;
+            }
+            size += len;
+            if (size > maxSizeBytes) {
+                this.abandon(null);
+                return;
+            }
+            try {
+                cacheStream.write(b, off, len);
+            } catch (IOException e) {
+                this.abandon(e);
+            }
+        }
+
+        private void complete() {
+            if (cacheStream == null) {
+                return;
+            }
+            try {
+                cacheStream.close();
+                cacheStream = null;
+                PdfCache.this.add(key, tempFile, size);
+            } catch (IOException e) {
+                this.abandon(e);
+            }
+        }
+
+        /**
+         * @param e The cause if the cache could not be written, {@code null} if the document is just not cached
+         */
+        private void abandon(IOException e) {
+            if (e != null) {
+                log.warn("Could not write PDF {} to cache", key, e);
+            }
+            if (cacheStream != null) {
+                try {
+                    cacheStream.close();
+                } catch (IOException closeException) {
+                    log.debug("Could not close cache file {}", tempFile, closeException);
+                }
+                cacheStream = null;
+            }
+            PdfCache.this.deleteQuietly(tempFile);
+        }
+    }
+
+    private static String digest(String version) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(version.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.domain.services.pdf;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.openlogisticsfoundation.ecmr.domain.exceptions.RateLimitException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import net.sf.jasperreports.engine.JRException;
+
+/**
+ * Bulkhead for filling eCMR reports. Filling is the CPU and memory heavy part of the rendering, so it runs on a dedicated pool of
+ * {@code ecmr.pdf.render.concurrency} threads and at most {@code ecmr.pdf.render.queue-depth} further tasks may wait for a thread. Interactive
+ * requests are rejected with a {@link RateLimitException} once the queue is full, background work such as the ZIP export or PDF jobs waits
+ * for a free slot instead.
+ */
+@Component
+public class PdfRenderExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final int concurrency;
+    private final Semaphore admissions;
+    private final Duration retryAfter;
+    private final Timer waitTimer;
+    private final Counter rejections;
+
+    public PdfRenderExecutor(@Value("${ecmr.pdf.render.concurrency:0}") int concurrency,
+            @Value("${ecmr.pdf.render.queue-depth:50}") int queueDepth,
+            @Value("${ecmr.pdf.render.retry-after:PT5S}") Duration retryAfter,
+            MeterRegistry meterRegistry) {
+        int threads = concurrency > 0 ? concurrency : Runtime.getRuntime().availableProcessors();
+        // the queue itself is unbounded, admission is limited by the semaphore so background work can wait instead of being rejected
+        this.concurrency = threads;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                Thread.ofPlatform().name("ecmr-pdf-render-", 0).daemon().factory());
+        this.admissions = new Semaphore(threads + queueDepth);
+        this.retryAfter = retryAfter;
+        this.waitTimer = Timer.builder("ecmr.pdf.render.wait").description("Time rendering tasks waited for a free rendering thread")
+                .register(meterRegistry);
+        this.rejections = Counter.builder("ecmr.pdf.render.rejections").description("Rendering requests rejected because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("ecmr.pdf.render.queue", executor, e -> e.getQueue().size()).description("Rendering tasks waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("ecmr.pdf.render.active", executor, ThreadPoolExecutor::getActiveCount).description("Rendering tasks currently running")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return The number of rendering threads, i.e. the number of reports that are filled at the same time
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Runs the task on the rendering pool and waits for its result.
+     *
+     * @param task The rendering task
+     * @param waitForCapacity Whether to wait for a free slot instead of failing when the queue is full
+     * @return The result of the task
+     * @throws RateLimitException If the queue is full and {@code waitForCapacity} is not set
+     */
+    public <T> T execute(RenderTask<T> task, boolean waitForCapacity) throws JRException, RateLimitException {
+        return this.await(this.submit(task, waitForCapacity));
+    }
+
+    /**
+     * Queues the task on the rendering pool without waiting for it, so several reports can be filled in parallel. The result is collected
+     * with {@link #await(Future)}.
+     *
+     * @throws RateLimitException If the queue is full and {@code waitForCapacity} is not set
+     */
+    public <T> Future<T> submit(RenderTask<T> task, boolean waitForCapacity) throws JRException, RateLimitException {
+        try {
+            this.admit(waitForCapacity);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JRException("Interrupted while waiting for a rendering slot", e);
+        }
+
+        long submittedAt = System.nanoTime();
+        // the slot is released once the task is done, including tasks that are cancelled before they started
+        FutureTask<T> future = new FutureTask<>(() -> {
+            waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+            return task.call();
+        }) {
+            @Override
+            protected void done() {
+                admissions.release();
+            }
+        };
+        try {
+            executor.execute(future);
+        } catch (RuntimeException e) {
+            future.cancel(false);
+            throw e;
+        }
+        return future;
+    }
+
+    /**
+     * Waits for the result of a task queued with {@link #submit(RenderTask, boolean)}. The task is cancelled if the waiting thread is
+     * interrupted.
+     */
+    public <T> T await(Future<T> future) throws JRException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new JRException("Interrupted while rendering", e);
+        } catch (CancellationException e) {
+            throw new JRException("Rendering was cancelled", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof JRException jrException) {
+                throw jrException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new JRException(cause);
+        }
+    }
+
+    private void admit(boolean waitForCapacity) throws InterruptedException, RateLimitException {
+        if (waitForCapacity) {
+            admissions.acquire();
+        } else if (!admissions.tryAcquire()) {
+            rejections.increment();
+            throw new RateLimitException("Too many PDF rendering requests", retryAfter);
+        }
+    }
+
+    @FunctionalInterface
+    public interface RenderTask<T> {
+        T call() throws JRException;
+    }
+}
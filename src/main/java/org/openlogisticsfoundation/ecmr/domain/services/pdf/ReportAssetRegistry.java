@@ -0,0 +1,248 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.domain.services.pdf;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternUtils;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import net.sf.jasperreports.renderers.Renderable;
+import net.sf.jasperreports.renderers.SimpleDataRenderer;
+
+/**
+ * Holds the static assets of the eCMR report: the CMR logo, the copy watermark and the legal texts. The assets are loaded once at startup and
+ * the same immutable {@link Renderable} instances are shared by all renders. Images are downsampled to their box by the
+ * {@link ReportImageOptimizer} once while loading.
+ * <p>
+ * Texts are bundled per language as {@code reports/texts/<LANGUAGE>_<name>.txt}, a new language is added by adding its files. If
+ * {@code ecmr.pdf.assets.directory} is set, files in its {@code texts} and {@code images} subdirectories override the bundled ones and are
+ * reloaded by {@link #reloadIfChanged()} when they change, so texts can be changed without a redeployment.
+ * <p>
+ * The {@link #getVersion() version} also covers the bundled template, texts and images, so documents rendered by a previous build are not
+ * served from the {@link PdfCache} after a deployment.
+ */
+@Component
+@Log4j2
+public class ReportAssetRegistry {
+
+    public static final String LOGO = "cmrLogo.png";
+    public static final String WATERMARK = "Copy-Wasserzeichen-DIN4.png";
+
+    private static final String TEXTS_PATTERN = "classpath:reports/texts/*.txt";
+    private static final String[] BUNDLED_PATTERNS = { "classpath:reports/**", "classpath:images/*" };
+    private static final String IMAGES_LOCATION = "classpath:/images/";
+    private static final String TEXT_SUFFIX = ".txt";
+    // sizes of the image boxes in reports/ecmr.jrxml, in points
+    private static final float LOGO_WIDTH = 553;
+    private static final float LOGO_HEIGHT = 100;
+    private static final float WATERMARK_WIDTH = 555;
+    private static final float WATERMARK_HEIGHT = 766;
+
+    private final ResourcePatternResolver resourcePatternResolver;
+    private final ReportImageOptimizer reportImageOptimizer;
+    private final Path directory;
+
+    private String buildVersion;
+    private volatile Assets assets;
+
+    public ReportAssetRegistry(ResourceLoader resourceLoader, ReportImageOptimizer reportImageOptimizer,
+            @Value("${ecmr.pdf.assets.directory:}") String directory) {
+        this.resourcePatternResolver = ResourcePatternUtils.getResourcePatternResolver(resourceLoader);
+        this.reportImageOptimizer = reportImageOptimizer;
+        this.directory = directory == null || directory.isBlank() ? null : Path.of(directory);
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            this.buildVersion = this.digestBundledAssets();
+            this.assets = this.load(this.fingerprint());
+            log.info("Loaded report assets, texts in {}", assets.texts.keySet());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load report assets", e);
+        }
+    }
+
+    /**
+     * Reloads the assets if a file in {@code ecmr.pdf.assets.directory} has been added, removed or modified. If the new assets cannot be loaded
+     * the previous ones stay in use.
+     */
+    public void reloadIfChanged() {
+        if (directory == null) {
+            return;
+        }
+        try {
+            long fingerprint = this.fingerprint();
+            if (fingerprint == assets.version) {
+                return;
+            }
+            this.assets = this.load(fingerprint);
+            log.info("Reloaded report assets from {}, texts in {}", directory, assets.texts.keySet());
+        } catch (IOException e) {
+            log.warn("Could not reload report assets from {}, keeping the previous ones", directory, e);
+        }
+    }
+
+    /**
+     * Changes whenever a build bundles a different template or different assets, or the assets are reloaded with different content, and is
+     * stable across restarts otherwise, so it can be part of the version of a rendered document.
+     */
+    public String getVersion() {
+        return buildVersion + "-" + assets.version;
+    }
+
+    public Renderable getLogo() {
+        return assets.logo;
+    }
+
+    public Renderable getWatermark() {
+        return assets.watermark;
+    }
+
+    public Set<String> getLanguages() {
+        return assets.texts.keySet();
+    }
+
+    public String getText(String language, String name) throws IOException {
+        String text = assets.texts.getOrDefault(language.toUpperCase(Locale.ROOT), Map.of()).get(name);
+        if (text == null) {
+            throw new IOException("No report text " + name + " for language " + language);
+        }
+        return text;
+    }
+
+    private Assets load(long version) throws IOException {
+        Map<String, Map<String, String>> texts = new HashMap<>();
+        for (Resource resource : resourcePatternResolver.getResources(TEXTS_PATTERN)) {
+            try (InputStream inputStream = resource.getInputStream()) {
+                putText(texts, resource.getFilename(), inputStream);
+            }
+        }
+        for (Path file : this.listDirectory("texts")) {
+            try (InputStream inputStream = Files.newInputStream(file)) {
+                putText(texts, file.getFileName().toString(), inputStream);
+            }
+        }
+        Map<String, Map<String, String>> immutableTexts = texts.entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, entry -> Map.copyOf(entry.getValue())));
+        return new Assets(version, immutableTexts, this.loadImage(LOGO, LOGO_WIDTH, LOGO_HEIGHT),
+                this.loadImage(WATERMARK, WATERMARK_WIDTH, WATERMARK_HEIGHT));
+    }
+
+    private Renderable loadImage(String name, float width, float height) throws IOException {
+        return SimpleDataRenderer.getInstance(reportImageOptimizer.fit(this.readImage(name), width, height));
+    }
+
+    private byte[] readImage(String name) throws IOException {
+        if (directory != null) {
+            Path file = directory.resolve("images").resolve(name);
+            if (Files.isRegularFile(file)) {
+                return Files.readAllBytes(file);
+            }
+        }
+        try (InputStream inputStream = resourcePatternResolver.getResource(IMAGES_LOCATION + name).getInputStream()) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    private static void putText(Map<String, Map<String, String>> texts, String filename, InputStream inputStream) {
+        int separator = filename == null ? -1 : filename.indexOf('_');
+        if (separator <= 0 || !filename.endsWith(TEXT_SUFFIX)) {
+            log.warn("Ignoring report text {}, expected <LANGUAGE>_<name>.txt", filename);
+            return;
+        }
+        String language = filename.substring(0, separator).toUpperCase(Locale.ROOT);
+        String name = filename.substring(separator + 1, filename.length() - TEXT_SUFFIX.length());
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        texts.computeIfAbsent(language, key -> new HashMap<>()).put(name, reader.lines().collect(Collectors.joining()));
+    }
+
+    private List<Path> listDirectory(String subdirectory) throws IOException {
+        if (directory == null || !Files.isDirectory(directory.resolve(subdirectory))) {
+            return List.of();
+        }
+        try (Stream<Path> stream = Files.list(directory.resolve(subdirectory))) {
+            return stream.filter(Files::isRegularFile).sorted().toList();
+        }
+    }
+
+    private long fingerprint() throws IOException {
+        long fingerprint = 1;
+        for (Path file : Stream.concat(this.listDirectory("texts").stream(), this.listDirectory("images").stream()).toList()) {
+            fingerprint = 31 * fingerprint + file.hashCode();
+            fingerprint = 31 * fingerprint + Files.getLastModifiedTime(file).toMillis();
+            fingerprint = 31 * fingerprint + Files.size(file);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Digest of the bundled report resources and the version of the application, which identifies the build the documents are rendered with.
+     */
+    private String digestBundledAssets() throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        String applicationVersion = ReportAssetRegistry.class.getPackage().getImplementationVersion();
+        digest.update(String.valueOf(applicationVersion).getBytes(StandardCharsets.UTF_8));
+        List<Resource> resources = new ArrayList<>();
+        for (String pattern : BUNDLED_PATTERNS) {
+            resources.addAll(Arrays.asList(resourcePatternResolver.getResources(pattern)));
+        }
+        resources.sort(Comparator.comparing(resource -> String.valueOf(resource.getFilename())));
+        for (Resource resource : resources) {
+            if (!resource.isReadable() || resource.getFilename() == null || resource.getFilename().isEmpty()) {
+                continue;
+            }
+            digest.update(resource.getFilename().getBytes(StandardCharsets.UTF_8));
+            try (InputStream inputStream = resource.getInputStream()) {
+                digest.update(inputStream.readAllBytes());
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest(), 0, 8);
+    }
+
+    @AllArgsConstructor
+    private static final class Assets {
+        private final long version;
+        private final Map<String, Map<String, String>> texts;
+        private final Renderable logo;
+        private final Renderable watermark;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.domain.services.pdf;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Normalises images before they are embedded into a PDF. Images larger than their box at {@code ecmr.pdf.images.dpi} are downsampled to that
+ * resolution and re-encoded as PNG, smaller images are kept as they are. Images that cannot be decoded are passed through unchanged.
+ */
+@Component
+@Log4j2
+public class ReportImageOptimizer {
+
+    private static final float POINTS_PER_INCH = 72f;
+
+    private final int dpi;
+
+    public ReportImageOptimizer(@Value("${ecmr.pdf.images.dpi:150}") int dpi) {
+        this.dpi = dpi;
+    }
+
+    /**
+     * @param widthPoints Width of the box the image is drawn into, in points
+     * @param heightPoints Height of the box the image is drawn into, in points
+     */
+    public byte[] fit(byte[] imageBytes, float widthPoints, float heightPoints) {
+        if (dpi <= 0) {
+            return imageBytes;
+        }
+        try {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(imageBytes));
+            if (image == null) {
+                return imageBytes;
+            }
+            double scale = Math.min(widthPoints / POINTS_PER_INCH * dpi / image.getWidth(), heightPoints / POINTS_PER_INCH * dpi / image.getHeight());
+            if (scale >= 1) {
+                return imageBytes;
+            }
+            int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+            int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+            BufferedImage scaled = new BufferedImage(width, height, image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = scaled.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+            graphics.dispose();
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            ImageIO.write(scaled, "png", outputStream);
+            byte[] optimised = outputStream.toByteArray();
+            log.debug("Downsampled image from {}x{} ({} bytes) to {}x{} ({} bytes)", image.getWidth(), image.getHeight(), imageBytes.length, width,
+                    height, optimised.length);
+            return optimised;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not optimise image, embedding it unchanged", e);
+            return imageBytes;
+        }
+    }
+}
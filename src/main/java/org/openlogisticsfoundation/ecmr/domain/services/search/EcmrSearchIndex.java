@@ -0,0 +1,391 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.domain.services.search;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.ngram.NGramTokenFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.facet.FacetResult;
+import org.apache.lucene.facet.Facets;
+import org.apache.lucene.facet.FacetsCollectorManager;
+import org.apache.lucene.facet.FacetsConfig;
+import org.apache.lucene.facet.LabelAndValue;
+import org.apache.lucene.facet.sortedset.DefaultSortedSetDocValuesReaderState;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetCounts;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.DisjunctionMaxQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermInSetQuery;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.openlogisticsfoundation.ecmr.api.model.EcmrStatus;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrSearchHit;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrTransportType;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrType;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrMemberEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.ItemEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.LogisticsShippingMarksCustomBarcodeEntity;
+import org.openlogisticsfoundation.ecmr.web.models.EcmrSearchResultModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Embedded Lucene index of the searchable texts of the eCMRs, stored in {@code ecmr.search.index.directory} or in memory if the directory is
+ * empty. Every text is indexed as words, which match whole words and word starts, and as trigrams, which match any substring of at least
+ * three characters. Each document also holds the groups the eCMR is visible to, so that searches are filtered by the groups of the user like
+ * the my-ecmrs list.
+ */
+@Component
+public class EcmrSearchIndex {
+    private static final String ID = "ecmrId";
+    private static final String GROUP = "group";
+    private static final String TYPE = "type";
+    private static final String STATUS = "status";
+    private static final String TRANSPORT_TYPE = "transportType";
+    private static final String REFERENCE = "reference";
+    private static final String COMPANY = "company";
+    private static final String CITY = "city";
+    private static final String LICENSE_PLATE = "licensePlate";
+    private static final String GOODS = "goods";
+    private static final String BARCODE = "barcode";
+    private static final String SENDER_COMPANY_NAME = "senderCompanyName";
+    private static final String CONSIGNEE_COMPANY_NAME = "consigneeCompanyName";
+    private static final String TRIGRAMS = "_trigrams";
+    private static final Map<String, Float> SEARCH_FIELD_BOOSTS = new LinkedHashMap<>();
+
+    static {
+        SEARCH_FIELD_BOOSTS.put(REFERENCE, 4f);
+        SEARCH_FIELD_BOOSTS.put(LICENSE_PLATE, 4f);
+        SEARCH_FIELD_BOOSTS.put(BARCODE, 4f);
+        SEARCH_FIELD_BOOSTS.put(COMPANY, 2f);
+        SEARCH_FIELD_BOOSTS.put(CITY, 1.5f);
+        SEARCH_FIELD_BOOSTS.put(GOODS, 1f);
+    }
+
+    private final Analyzer wordAnalyzer = new TextAnalyzer(false);
+    private final Analyzer trigramAnalyzer = new TextAnalyzer(true);
+    private final FacetsConfig facetsConfig = new FacetsConfig();
+    private final Analyzer analyzer;
+    private final Path path;
+    private final Directory directory;
+    private final IndexWriter indexWriter;
+    private final SearcherManager searcherManager;
+    private DefaultSortedSetDocValuesReaderState facetsState;
+
+    public EcmrSearchIndex(@Value("${ecmr.search.index.directory:}") String directory) throws IOException {
+        this.path = directory.isBlank() ? null : Files.createDirectories(Path.of(directory)).toAbsolutePath();
+        this.directory = path == null ? new ByteBuffersDirectory() : FSDirectory.open(path);
+        Map<String, Analyzer> trigramFields = new LinkedHashMap<>();
+        SEARCH_FIELD_BOOSTS.keySet().forEach(field -> trigramFields.put(field + TRIGRAMS, trigramAnalyzer));
+        this.analyzer = new PerFieldAnalyzerWrapper(wordAnalyzer, trigramFields);
+        this.indexWriter = new IndexWriter(this.directory, new IndexWriterConfig(analyzer));
+        this.searcherManager = new SearcherManager(indexWriter, null);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        searcherManager.close();
+        indexWriter.close();
+        directory.close();
+    }
+
+    public boolean isEmpty() {
+        return indexWriter.getDocStats().numDocs == 0;
+    }
+
+    /**
+     * Adds or replaces the document of the eCMR. eCMRs that are not visible to any group are removed instead.
+     */
+    public void update(EcmrEntity ecmr, Collection<Long> groupIds) throws IOException {
+        this.update(indexWriter, ecmr, groupIds);
+    }
+
+    private void update(IndexWriter writer, EcmrEntity ecmr, Collection<Long> groupIds) throws IOException {
+        Term id = new Term(ID, ecmr.getEcmrId().toString());
+        if (groupIds.isEmpty()) {
+            writer.deleteDocuments(id);
+            return;
+        }
+        Document document = new Document();
+        document.add(new StringField(ID, ecmr.getEcmrId().toString(), Field.Store.YES));
+        groupIds.forEach(groupId -> document.add(new StringField(GROUP, groupId.toString(), Field.Store.NO)));
+        addKeyword(document, TYPE, ecmr.getType().name());
+        addKeyword(document, STATUS, ecmr.getEcmrStatus().name());
+        EcmrTransportType transportType = getTransportType(ecmr);
+        if (transportType != null) {
+            addKeyword(document, TRANSPORT_TYPE, transportType.name());
+        }
+
+        addText(document, REFERENCE, ecmr.getReferenceIdentificationNumber());
+        addText(document, LICENSE_PLATE, ecmr.getCarrierInformation().getCarrierLicensePlate());
+        for (EcmrMemberEntity member : List.of(ecmr.getSenderInformation(), ecmr.getConsigneeInformation(), ecmr.getCarrierInformation(),
+                ecmr.getSuccessiveCarrierInformation())) {
+            addText(document, COMPANY, member.getCompanyName());
+            addText(document, CITY, member.getCity());
+        }
+        addText(document, CITY, ecmr.getTakingOverTheGoods().getTakingOverTheGoodsPlace());
+        addText(document, CITY, ecmr.getDeliveryOfTheGoods().getLogisticsLocationCity());
+        for (ItemEntity item : ecmr.getItemList() == null ? List.<ItemEntity>of() : ecmr.getItemList()) {
+            addText(document, GOODS, item.getTransportCargoIdentification());
+            addText(document, GOODS, item.getLogisticsShippingMarksMarking());
+            if (item.getLogisticsShippingMarksCustomBarcodeList() != null) {
+                for (LogisticsShippingMarksCustomBarcodeEntity barcode : item.getLogisticsShippingMarksCustomBarcodeList()) {
+                    addText(document, BARCODE, barcode.getBarcode());
+                }
+            }
+        }
+
+        addStored(document, REFERENCE, ecmr.getReferenceIdentificationNumber());
+        addStored(document, SENDER_COMPANY_NAME, ecmr.getSenderInformation().getCompanyName());
+        addStored(document, CONSIGNEE_COMPANY_NAME, ecmr.getConsigneeInformation().getCompanyName());
+        addStored(document, LICENSE_PLATE, ecmr.getCarrierInformation().getCarrierLicensePlate());
+        writer.updateDocument(id, facetsConfig.build(document));
+    }
+
+    public void delete(UUID ecmrId) throws IOException {
+        indexWriter.deleteDocuments(new Term(ID, ecmrId.toString()));
+    }
+
+    /**
+     * Builds a new index next to this one and replaces all documents with it in a single commit, so that searches see the complete old index
+     * until the new one is complete. If building fails, the index is left unchanged. Must not run concurrently with other changes.
+     *
+     * @return The result of the builder, e.g. the number of indexed eCMRs
+     */
+    public <T> T replaceAll(IndexBuilder<T> builder) throws IOException {
+        Path rebuildPath = path == null ? null : Files.createTempDirectory(path.getParent(), path.getFileName() + "-rebuild-");
+        try (Directory rebuildDirectory = rebuildPath == null ? new ByteBuffersDirectory() : FSDirectory.open(rebuildPath)) {
+            T result;
+            // the directory is locked by the writer, so it has to be closed before its segments can be added
+            try (IndexWriter rebuildWriter = new IndexWriter(rebuildDirectory, new IndexWriterConfig(analyzer))) {
+                result = builder.build((ecmr, groupIds) -> this.update(rebuildWriter, ecmr, groupIds));
+            }
+            indexWriter.deleteAll();
+            indexWriter.addIndexes(rebuildDirectory);
+            this.commit();
+            return result;
+        } finally {
+            if (rebuildPath != null) {
+                try (Stream<Path> files = Files.list(rebuildPath)) {
+                    for (Path file : files.toList()) {
+                        Files.delete(file);
+                    }
+                }
+                Files.delete(rebuildPath);
+            }
+        }
+    }
+
+    /**
+     * Makes the changes durable and visible to searches.
+     */
+    public void commit() throws IOException {
+        indexWriter.commit();
+        searcherManager.maybeRefresh();
+    }
+
+    /**
+     * Finds the eCMRs visible to the groups in which every word of the text occurs as a word, word start or substring of a searchable field.
+     * Exact matches rank before substring matches, and matches in reference numbers, license plates and barcodes before matches in names and
+     * goods. The facets count all matching eCMRs.
+     *
+     * @param type   Only eCMRs of this type, or all types if null
+     * @param status Only eCMRs with this status, or all if null
+     */
+    public EcmrSearchResultModel search(String text, Collection<Long> groupIds, EcmrType type, EcmrStatus status, int limit)
+            throws IOException {
+        Query query = this.buildQuery(text, groupIds, type, status);
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            FacetsCollectorManager.FacetsResult result = FacetsCollectorManager.search(searcher, query, limit, new FacetsCollectorManager());
+            long total = result.topDocs().totalHits.value;
+            List<EcmrSearchHit> hits = new ArrayList<>();
+            StoredFields storedFields = searcher.storedFields();
+            for (ScoreDoc scoreDoc : result.topDocs().scoreDocs) {
+                Document document = storedFields.document(scoreDoc.doc);
+                hits.add(new EcmrSearchHit(UUID.fromString(document.get(ID)), scoreDoc.score, EcmrType.valueOf(document.get(TYPE)),
+                        EcmrStatus.valueOf(document.get(STATUS)), document.get(REFERENCE), document.get(SENDER_COMPANY_NAME),
+                        document.get(CONSIGNEE_COMPANY_NAME), document.get(LICENSE_PLATE)));
+            }
+            // the facets field does not exist before the first document was indexed
+            Facets facets = total == 0 ? null
+                    : new SortedSetDocValuesFacetCounts(this.getFacetsState(searcher.getIndexReader()), result.facetsCollector());
+            return new EcmrSearchResultModel(total, hits, countFacet(facets, TYPE, EcmrType.class), countFacet(facets, STATUS, EcmrStatus.class),
+                    countFacet(facets, TRANSPORT_TYPE, EcmrTransportType.class));
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    private Query buildQuery(String text, Collection<Long> groupIds, EcmrType type, EcmrStatus status) throws IOException {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        Set<String> words = analyze(wordAnalyzer, text);
+        if (words.isEmpty()) {
+            return new MatchNoDocsQuery("no words in the search text");
+        }
+        for (String word : words) {
+            List<Query> fieldQueries = new ArrayList<>();
+            for (Map.Entry<String, Float> field : SEARCH_FIELD_BOOSTS.entrySet()) {
+                fieldQueries.add(new BoostQuery(new PrefixQuery(new Term(field.getKey(), word)), 2 * field.getValue()));
+                Set<String> trigrams = analyze(trigramAnalyzer, word);
+                if (!trigrams.isEmpty()) {
+                    BooleanQuery.Builder trigramQuery = new BooleanQuery.Builder();
+                    trigrams.forEach(trigram -> trigramQuery.add(new TermQuery(new Term(field.getKey() + TRIGRAMS, trigram)),
+                            BooleanClause.Occur.MUST));
+                    fieldQueries.add(new BoostQuery(trigramQuery.build(), field.getValue()));
+                }
+            }
+            query.add(new DisjunctionMaxQuery(fieldQueries, 0.1f), BooleanClause.Occur.MUST);
+        }
+        query.add(new TermInSetQuery(GROUP, groupIds.stream().map(groupId -> new BytesRef(groupId.toString())).toList()),
+                BooleanClause.Occur.FILTER);
+        if (type != null) {
+            query.add(new TermQuery(new Term(TYPE, type.name())), BooleanClause.Occur.FILTER);
+        }
+        if (status != null) {
+            query.add(new TermQuery(new Term(STATUS, status.name())), BooleanClause.Occur.FILTER);
+        }
+        return query.build();
+    }
+
+    private synchronized DefaultSortedSetDocValuesReaderState getFacetsState(IndexReader reader) throws IOException {
+        if (facetsState == null || facetsState.getReader() != reader) {
+            facetsState = new DefaultSortedSetDocValuesReaderState(reader, facetsConfig);
+        }
+        return facetsState;
+    }
+
+    private static <E extends Enum<E>> Map<E, Long> countFacet(Facets facets, String dimension, Class<E> type) throws IOException {
+        Map<E, Long> counts = new EnumMap<>(type);
+        FacetResult result = facets == null ? null : facets.getTopChildren(type.getEnumConstants().length, dimension);
+        if (result != null) {
+            for (LabelAndValue labelAndValue : result.labelValues) {
+                counts.put(Enum.valueOf(type, labelAndValue.label), labelAndValue.value.longValue());
+            }
+        }
+        return counts;
+    }
+
+    private static Set<String> analyze(Analyzer analyzer, String text) throws IOException {
+        Set<String> terms = new LinkedHashSet<>();
+        try (TokenStream tokenStream = analyzer.tokenStream("", text)) {
+            CharTermAttribute term = tokenStream.addAttribute(CharTermAttribute.class);
+            tokenStream.reset();
+            while (tokenStream.incrementToken()) {
+                terms.add(term.toString());
+            }
+            tokenStream.end();
+        }
+        return terms;
+    }
+
+    private static EcmrTransportType getTransportType(EcmrEntity ecmr) {
+        String senderCountryCode = ecmr.getSenderInformation().getCountryCode();
+        String consigneeCountryCode = ecmr.getConsigneeInformation().getCountryCode();
+        if (senderCountryCode == null || consigneeCountryCode == null) {
+            return null;
+        }
+        return senderCountryCode.equals(consigneeCountryCode) ? EcmrTransportType.National : EcmrTransportType.International;
+    }
+
+    private static void addKeyword(Document document, String field, String value) {
+        document.add(new StringField(field, value, Field.Store.YES));
+        document.add(new SortedSetDocValuesFacetField(field, value));
+    }
+
+    private static void addText(Document document, String field, String value) {
+        if (value == null || value.isBlank()) {
+            return;
+        }
+        document.add(new TextField(field, value, Field.Store.NO));
+        document.add(new TextField(field + TRIGRAMS, value, Field.Store.NO));
+    }
+
+    private static void addStored(Document document, String field, String value) {
+        if (value != null) {
+            document.add(new StoredField(field, value));
+        }
+    }
+
+    /**
+     * Splits into lower-cased words without accents, optionally into the trigrams of the words. Words shorter than three characters have no
+     * trigrams.
+     */
+    private static class TextAnalyzer extends Analyzer {
+        private final boolean trigrams;
+
+        private TextAnalyzer(boolean trigrams) {
+            this.trigrams = trigrams;
+        }
+
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            Tokenizer tokenizer = new StandardTokenizer();
+            TokenStream tokenStream = new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer));
+            if (trigrams) {
+                tokenStream = new NGramTokenFilter(tokenStream, 3, 3, false);
+            }
+            return new TokenStreamComponents(tokenizer, tokenStream);
+        }
+    }
+
+    @FunctionalInterface
+    public interface IndexBuilder<T> {
+        T build(IndexUpdater updater) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface IndexUpdater {
+        void update(EcmrEntity ecmr, Collection<Long> groupIds) throws IOException;
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.domain.services.search;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import org.openlogisticsfoundation.ecmr.api.model.EcmrStatus;
+import org.openlogisticsfoundation.ecmr.domain.models.InternalOrExternalUser;
+import org.openlogisticsfoundation.ecmr.domain.services.TransactionHelper;
+import org.openlogisticsfoundation.ecmr.domain.services.statuschange.EcmrStatusChanged;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrVisibilityProjection;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.EcmrRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.EcmrVisibilityRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Keeps the search index in sync with the eCMRs. Changes are indexed after the changing transaction has committed, on a single background
+ * thread, so searches see them shortly after the commit. The index is rebuilt from the database on startup if it is empty, which is also the
+ * way to recover a lost or outdated index.
+ */
+@Component
+@Log4j2
+public class EcmrSearchIndexer implements EcmrStatusChanged {
+    private static final int BATCH_SIZE = 500;
+
+    private final EcmrSearchIndex ecmrSearchIndex;
+    private final EcmrRepository ecmrRepository;
+    private final EcmrVisibilityRepository ecmrVisibilityRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean rebuildOnStartup;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("ecmr-search-indexer").daemon().factory());
+
+    public EcmrSearchIndexer(EcmrSearchIndex ecmrSearchIndex, EcmrRepository ecmrRepository,
+            EcmrVisibilityRepository ecmrVisibilityRepository, PlatformTransactionManager transactionManager,
+            @Value("${ecmr.search.index.rebuild-on-startup:false}") boolean rebuildOnStartup) {
+        this.ecmrSearchIndex = ecmrSearchIndex;
+        this.ecmrRepository = ecmrRepository;
+        this.ecmrVisibilityRepository = ecmrVisibilityRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (rebuildOnStartup || ecmrSearchIndex.isEmpty()) {
+            executor.execute(this::rebuild);
+        }
+    }
+
+    @Override
+    public void onEcmrStatusChange(EcmrStatus previousStatus, EcmrEntity ecmrEntity, InternalOrExternalUser user) {
+        this.ecmrsChanged(List.of(ecmrEntity.getId()));
+    }
+
+    /**
+     * Re-indexes the eCMRs with the current texts and visibility, once the current transaction has committed.
+     */
+    public void ecmrsChanged(Collection<Long> ecmrEntityIds) {
+        if (ecmrEntityIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(ecmrEntityIds);
+        this.afterCommit(() -> {
+            this.index(ids, ecmrSearchIndex::update);
+            ecmrSearchIndex.commit();
+        });
+    }
+
+    /**
+     * Removes the eCMR from the index, once the current transaction has committed.
+     */
+    public void ecmrDeleted(UUID ecmrId) {
+        this.afterCommit(() -> {
+            ecmrSearchIndex.delete(ecmrId);
+            ecmrSearchIndex.commit();
+        });
+    }
+
+    /**
+     * Replaces the index with the documents of all eCMRs, read in batches of {@value #BATCH_SIZE}. The new documents become visible at once
+     * when all of them are indexed, until then searches use the old index.
+     */
+    public void rebuild() {
+        try {
+            log.info("Rebuilding the eCMR search index");
+            int count = ecmrSearchIndex.replaceAll(updater -> {
+                long afterId = 0;
+                int indexed = 0;
+                List<Long> ids;
+                while (!(ids = ecmrRepository.findIdsAfter(afterId, PageRequest.of(0, BATCH_SIZE))).isEmpty()) {
+                    this.index(ids, updater);
+                    afterId = ids.getLast();
+                    indexed += ids.size();
+                }
+                return indexed;
+            });
+            log.info("Rebuilt the eCMR search index with {} eCMRs", count);
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not rebuild the eCMR search index", e);
+        }
+    }
+
+    private void index(List<Long> ecmrEntityIds, EcmrSearchIndex.IndexUpdater updater) throws IOException {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Long, List<Long>> groupIdsByEcmrId = ecmrVisibilityRepository.findProjectionsByEcmrIds(ecmrEntityIds).stream()
+                        .collect(Collectors.groupingBy(EcmrVisibilityProjection::getEcmrId,
+                                Collectors.mapping(EcmrVisibilityProjection::getGroupId, Collectors.toList())));
+                for (EcmrEntity ecmr : ecmrRepository.findAllByIdIn(ecmrEntityIds)) {
+                    try {
+                        updater.update(ecmr, groupIdsByEcmrId.getOrDefault(ecmr.getId(), List.of()));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void afterCommit(IndexTask task) {
+        TransactionHelper.executeAfterCommit(executor, () -> {
+            try {
+                task.run();
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not update the eCMR search index", e);
+            }
+        });
+    }
+
+    private interface IndexTask {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.domain.services.search;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import org.openlogisticsfoundation.ecmr.api.model.EcmrStatus;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.ValidationException;
+import org.openlogisticsfoundation.ecmr.domain.models.AuthenticatedUser;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrType;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.UserToGroupRepository;
+import org.openlogisticsfoundation.ecmr.web.models.EcmrSearchResultModel;
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class EcmrSearchService {
+    private static final int MAX_TEXT_LENGTH = 100;
+    private static final int MAX_LIMIT = 100;
+
+    private final EcmrSearchIndex ecmrSearchIndex;
+    private final UserToGroupRepository userToGroupRepository;
+
+    /**
+     * Searches the eCMRs visible to the groups of the user, see {@link EcmrSearchIndex#search}. Changes become searchable shortly after they
+     * were saved.
+     */
+    public EcmrSearchResultModel searchEcmrsForUser(AuthenticatedUser authenticatedUser, String text, EcmrType type, EcmrStatus status,
+            int limit) throws ValidationException {
+        if (text == null || text.isBlank()) {
+            throw new ValidationException("Search text must not be empty");
+        }
+        if (text.length() > MAX_TEXT_LENGTH) {
+            throw new ValidationException("Search text must not be longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ValidationException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        List<Long> usersGroupIds = userToGroupRepository.findGroupIdsByUserId(authenticatedUser.getUser().getId());
+        try {
+            return ecmrSearchIndex.search(text, usersGroupIds, type, status, limit);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
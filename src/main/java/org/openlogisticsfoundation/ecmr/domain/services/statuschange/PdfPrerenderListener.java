@@ -0,0 +1,78 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.domain.services.statuschange;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.openlogisticsfoundation.ecmr.api.model.EcmrStatus;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.RateLimitException;
+import org.openlogisticsfoundation.ecmr.domain.models.InternalOrExternalUser;
+import org.openlogisticsfoundation.ecmr.domain.services.EcmrPdfService;
+import org.openlogisticsfoundation.ecmr.domain.services.TransactionHelper;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Renders the PDFs of an eCMR into the PDF cache as soon as it has been sealed, so the first download after a seal is served from the cache.
+ * Rendering starts after the sealing transaction has committed and runs on a single background thread. It is skipped when the rendering
+ * bulkhead is saturated, interactive downloads take precedence.
+ */
+@Component
+@Log4j2
+public class PdfPrerenderListener implements EcmrStatusChanged {
+
+    private static final Set<EcmrStatus> PRERENDERED_STATUSES = EnumSet.of(EcmrStatus.LOADING, EcmrStatus.IN_TRANSPORT, EcmrStatus.DELIVERED);
+
+    private final EcmrPdfService ecmrPdfService;
+    private final boolean enabled;
+    private final ThreadPoolExecutor executor;
+
+    public PdfPrerenderListener(EcmrPdfService ecmrPdfService,
+            @Value("${ecmr.pdf.prerender.enabled:true}") boolean enabled,
+            @Value("${ecmr.pdf.prerender.queue-size:1000}") int queueSize) {
+        this.ecmrPdfService = ecmrPdfService;
+        this.enabled = enabled;
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(queueSize),
+                Thread.ofPlatform().name("ecmr-pdf-prerender-", 0).daemon().factory(),
+                (runnable, executor) -> log.warn("PDF pre-rendering queue is full, skipping eCMR"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void onEcmrStatusChange(EcmrStatus previousStatus, EcmrEntity ecmrEntity, InternalOrExternalUser user) {
+        if (!enabled || !PRERENDERED_STATUSES.contains(ecmrEntity.getEcmrStatus())) {
+            return;
+        }
+        UUID ecmrId = ecmrEntity.getEcmrId();
+        TransactionHelper.executeAfterCommit(executor, () -> this.prerender(ecmrId));
+    }
+
+    private void prerender(UUID ecmrId) {
+        try {
+            ecmrPdfService.prerenderSealedDocument(ecmrId);
+        } catch (RateLimitException e) {
+            log.debug("Skipped pre-rendering PDFs of eCMR {}: {}", ecmrId, e.getMessage());
+        } catch (Exception e) {
+            log.warn("Could not pre-render PDFs of eCMR {}", ecmrId, e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.persistence.entities;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * The decoded signature image of the consignee. It is kept out of the {@link EcmrEntity} graph, so it is only read by the requests that
+ * actually need the image.
+ */
+@Entity
+@Table(name = "CONSIGNEE_SIGNATURE")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsigneeSignatureEntity extends BaseEntity {
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "ecmr_id")
+    private EcmrEntity ecmr;
+
+    private String userName;
+
+    private Instant timestamp;
+
+    @Column(nullable = false)
+    private String contentType;
+
+    @Column(nullable = false)
+    private byte[] data;
+}
@@ -0,0 +1,17 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.persistence.entities;
+
+import java.time.Instant;
+
+public interface ConsigneeSignatureProjection {
+    Long getId();
+    String getUserName();
+    Instant getTimestamp();
+    String getContentType();
+}
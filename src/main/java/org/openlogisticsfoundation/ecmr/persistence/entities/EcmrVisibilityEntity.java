@@ -0,0 +1,41 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.persistence.entities;
+
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrRole;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Role of a group on an eCMR that is assigned to the group or to one of its descendants, derived from the group closure and the eCMR
+ * assignments. Maintained by {@link org.openlogisticsfoundation.ecmr.domain.services.EcmrVisibilityService}.
+ */
+@Entity
+@Table(name = "ECMR_VISIBILITY")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EcmrVisibilityEntity extends BaseEntity {
+    @ManyToOne(optional = false)
+    private GroupEntity group;
+    @ManyToOne(optional = false)
+    private EcmrEntity ecmr;
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private EcmrRole role;
+}
@@ -0,0 +1,13 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.persistence.entities;
+
+public interface EcmrVisibilityProjection {
+    Long getEcmrId();
+    Long getGroupId();
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.persistence.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Pair of a group and one of its descendants, including the group itself with depth 0. Maintained by
+ * {@link org.openlogisticsfoundation.ecmr.domain.services.EcmrVisibilityService}.
+ */
+@Entity
+@Table(name = "GROUP_CLOSURE")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupClosureEntity extends BaseEntity {
+    @ManyToOne(optional = false)
+    private GroupEntity ancestor;
+    @ManyToOne(optional = false)
+    private GroupEntity descendant;
+    private int depth;
+}
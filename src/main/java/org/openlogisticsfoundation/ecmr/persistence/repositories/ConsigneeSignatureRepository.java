@@ -0,0 +1,36 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.persistence.repositories;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import org.openlogisticsfoundation.ecmr.persistence.entities.ConsigneeSignatureEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.ConsigneeSignatureProjection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ConsigneeSignatureRepository extends JpaRepository<ConsigneeSignatureEntity, Long> {
+
+    @Query("SELECT signature FROM ConsigneeSignatureEntity signature WHERE signature.ecmr.ecmrId = :ecmrId")
+    Optional<ConsigneeSignatureEntity> findByEcmrId(UUID ecmrId);
+
+    @Query("SELECT signature.id AS id, signature.userName AS userName, signature.timestamp AS timestamp, signature.contentType AS contentType "
+            + "FROM ConsigneeSignatureEntity signature WHERE signature.ecmr.ecmrId = :ecmrId")
+    Optional<ConsigneeSignatureProjection> findProjectionByEcmrId(UUID ecmrId);
+
+    @Query("SELECT signature.data FROM ConsigneeSignatureEntity signature WHERE signature.id = :id")
+    Optional<byte[]> findDataById(Long id);
+
+    @Modifying
+    @Query("DELETE FROM ConsigneeSignatureEntity signature WHERE signature.ecmr.id = :ecmrEntityId")
+    void deleteByEcmrEntityId(Long ecmrEntityId);
+}
@@ -22,8 +22,6 @@
 public interface EcmrAssignmentRepository extends JpaRepository<EcmrAssignmentEntity, Long> {
     void deleteByEcmr_EcmrId(UUID ecmrId);
 
-    List<EcmrAssignmentEntity> findByEcmr_EcmrIdAndGroup_IdIn(UUID ecmrId, List<Long> groupIds);
-
     @Query("SELECT e FROM EcmrAssignmentEntity e WHERE e.ecmr.ecmrId = :ecmrId AND e.externalUser.userToken = :externalUserToken AND e.externalUser.tan = :externalUserTan AND e.externalUser.isActive = true")
     List<EcmrAssignmentEntity> findByExternalUser(@Param("ecmrId") UUID ecmrId, @Param("externalUserToken") String externalUserToken, @Param("externalUserTan") String externalUserTan);
 
@@ -31,6 +29,15 @@ public interface EcmrAssignmentRepository extends JpaRepository<EcmrAssignmentEn
 
     List<EcmrAssignmentEntity> findByEcmr_EcmrIdAndGroup_idInAndRole(UUID ecmrId, List<Long> groupIds, EcmrRole role);
 
+    /**
+     * Assignments of the eCMR with the role to the groups of the user or their descendants.
+     */
+    @Query("SELECT e FROM EcmrAssignmentEntity e WHERE e.ecmr.ecmrId = :ecmrId AND e.role = :role AND e.group.id IN "
+            + "(SELECT gc.descendant.id FROM GroupClosureEntity gc WHERE gc.ancestor.id IN "
+            + "(SELECT ug.group.id FROM UserToGroupEntity ug WHERE ug.user.id = :userId))")
+    List<EcmrAssignmentEntity> findByEcmrIdAndRoleInGroupsOfUser(@Param("ecmrId") UUID ecmrId, @Param("userId") long userId,
+            @Param("role") EcmrRole role);
+
     List<EcmrAssignmentEntity> findByEcmr_EcmrId(UUID ecmrId);
 
     int countByEcmr_EcmrIdAndExternalUser_CreationTimestampGreaterThan(UUID ecmrId, Instant creationTimestamp);
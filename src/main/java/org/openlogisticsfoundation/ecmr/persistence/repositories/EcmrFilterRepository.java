@@ -0,0 +1,105 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.persistence.repositories;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrFacetCount;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrSummary;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrType;
+import org.openlogisticsfoundation.ecmr.domain.models.commands.FilterRequestCommand;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrSortKey;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Queries of the my-ecmrs list. Only the filters that are set become part of the query, text filters match case-insensitively on the
+ * lower-cased columns, which are covered by trigram indexes on PostgreSQL. The group ids are the groups of the user, the eCMRs of their
+ * descendants are found through the eCMR visibility.
+ */
+public interface EcmrFilterRepository {
+    /**
+     * Loads the page in two steps: first the ids of the page with SQL LIMIT and OFFSET, then the {@code Ecmr.all} graph of only these eCMRs.
+     * Paging the graph directly would make Hibernate fetch all matching eCMRs with their items and page in memory. Rows with equal sort
+     * values are ordered by id.
+     */
+    Page<EcmrEntity> findAllByTypeAndAssignedGroupIds(EcmrType type, List<Long> groupIds, FilterRequestCommand filter, Pageable pageable);
+
+    /**
+     * Loads a page like {@link #findAllByTypeAndAssignedGroupIds} without counting the matching eCMRs. Whether there is a next page is
+     * determined by fetching one more id than the page size.
+     */
+    Slice<EcmrEntity> findSliceByTypeAndAssignedGroupIds(EcmrType type, List<Long> groupIds, FilterRequestCommand filter, Pageable pageable);
+
+    long countByTypeAndAssignedGroupIds(EcmrType type, List<Long> groupIds, FilterRequestCommand filter);
+
+    /**
+     * Returns the number of matching eCMRs as estimated by the PostgreSQL planner, without executing the query. The estimate is based on the
+     * table statistics and can be far off for selective filters. Empty on other databases.
+     */
+    OptionalLong estimateCountByTypeAndAssignedGroupIds(EcmrType type, List<Long> groupIds, FilterRequestCommand filter);
+
+    /**
+     * Counts the eCMRs of all types matching the filter in one query, grouped by type, status and transport type.
+     */
+    List<EcmrFacetCount> countFacetsByAssignedGroupIds(List<Long> groupIds, FilterRequestCommand filter);
+
+    Page<Long> findIdsByTypeAndAssignedGroupIds(EcmrType type, List<Long> groupIds, FilterRequestCommand filter, Pageable pageable);
+
+    /**
+     * Selects the ids of the first eCMRs matching the filter, in the order of the sort and the id, without counting the matching eCMRs.
+     */
+    List<UUID> findEcmrIdsByTypeAndAssignedGroupIds(EcmrType type, List<Long> groupIds, FilterRequestCommand filter, Sort sort, int limit);
+
+    /**
+     * Selects only the list columns of the eCMRs matching the filter. Rows with equal sort values are ordered by id.
+     */
+    Page<EcmrSummary> findSummariesByTypeAndAssignedGroupIds(EcmrType type, List<Long> groupIds, FilterRequestCommand filter,
+            Pageable pageable);
+
+    /**
+     * Streams the list columns of all eCMRs matching the filter with a forward-only, read-only cursor that fetches {@code fetchSize} rows at a
+     * time. Rows with equal sort values are ordered by id. Has to be consumed and closed within the transaction.
+     */
+    Stream<EcmrSummary> streamSummariesByTypeAndAssignedGroupIds(EcmrType type, List<Long> groupIds, FilterRequestCommand filter, Sort sort,
+            int fetchSize);
+
+    /**
+     * Selects the list columns of the eCMRs of any type with an item carrying the barcode, ordered by id. The barcode has to match exactly,
+     * so that the lookup is served by the barcode index.
+     */
+    List<EcmrSummary> findSummariesByBarcodeAndAssignedGroupIds(String barcode, List<Long> groupIds);
+
+    /**
+     * Selects the ids of the eCMRs of the type whose carrier license plate without spaces and in upper case equals the given one and whose
+     * goods arrive or depart at the place of taking over within {@code [from, to)}, ordered by creation and id.
+     *
+     * @param licensePlate The license plate without spaces and in upper case
+     */
+    List<UUID> findEcmrIdsByLicensePlateAndTakingOverBetween(EcmrType type, List<Long> groupIds, String licensePlate, Instant from,
+            Instant to);
+
+    /**
+     * Seeks the ids and sort values of the next eCMRs matching the filter, ordered by the sort field and the id. Null values of the sort
+     * field are ordered after all others, as PostgreSQL does by default.
+     *
+     * @param sortField  The entity path of the sort field
+     * @param afterValue The sort value of the last eCMR of the previous page
+     * @param afterId    The id of the last eCMR of the previous page, or null for the first page
+     * @param limit      The maximum number of results
+     */
+    List<EcmrSortKey> findSortKeysByTypeAndAssignedGroupIds(EcmrType type, List<Long> groupIds, FilterRequestCommand filter, String sortField,
+            Sort.Direction direction, Object afterValue, Long afterId, int limit);
+}
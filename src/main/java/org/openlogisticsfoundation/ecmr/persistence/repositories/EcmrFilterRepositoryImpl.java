@@ -0,0 +1,355 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.persistence.repositories;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.HibernateHints;
+
+import org.openlogisticsfoundation.ecmr.api.model.EcmrStatus;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrFacetCount;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrTransportType;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrSummary;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrType;
+import org.openlogisticsfoundation.ecmr.domain.models.commands.FilterRequestCommand;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrSortKey;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+
+public class EcmrFilterRepositoryImpl implements EcmrFilterRepository {
+
+    private static final String SUMMARY_SELECTION = "new " + EcmrSummary.class.getName() + "(e.ecmrId, e.type, e.ecmrStatus, "
+            + "e.referenceIdentificationNumber, e.senderInformation.companyName, e.senderInformation.countryCode, "
+            + "e.consigneeInformation.companyName, e.consigneeInformation.postcode, e.consigneeInformation.countryCode, "
+            + "e.carrierInformation.companyName, e.carrierInformation.postcode, e.carrierInformation.carrierLicensePlate, "
+            + "e.createdAt, e.createdBy, e.editedAt, e.editedBy)";
+    private static final String TRANSPORT_TYPE = "CASE "
+            + "WHEN e.senderInformation.countryCode = e.consigneeInformation.countryCode THEN 'National' "
+            + "WHEN e.senderInformation.countryCode != e.consigneeInformation.countryCode THEN 'International' END";
+    private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<EcmrEntity> findAllByTypeAndAssignedGroupIds(EcmrType type, List<Long> groupIds, FilterRequestCommand filter,
+            Pageable pageable) {
+        Page<Long> idPage = findIdsByTypeAndAssignedGroupIds(type, groupIds, filter, pageable);
+        return new PageImpl<>(loadInOrder(idPage.getContent()), pageable, idPage.getTotalElements());
+    }
+
+    @Override
+    public Slice<EcmrEntity> findSliceByTypeAndAssignedGroupIds(EcmrType type, List<Long> groupIds, FilterRequestCommand filter,
+            Pageable pageable) {
+        FilterConditions conditions = new FilterConditions(type, groupIds, filter);
+        TypedQuery<Long> query = conditions.bind(
+                entityManager.createQuery(sortedQuery("e.id", conditions, pageable.getSort()), Long.class));
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(loadInOrder(query.getResultList()), pageable, false);
+        }
+        List<Long> ids = query.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize() + 1).getResultList();
+        boolean hasNext = ids.size() > pageable.getPageSize();
+        return new SliceImpl<>(loadInOrder(hasNext ? ids.subList(0, pageable.getPageSize()) : ids), pageable, hasNext);
+    }
+
+    @Override
+    public long countByTypeAndAssignedGroupIds(EcmrType type, List<Long> groupIds, FilterRequestCommand filter) {
+        return count(new FilterConditions(type, groupIds, filter));
+    }
+
+    @Override
+    public OptionalLong estimateCountByTypeAndAssignedGroupIds(EcmrType type, List<Long> groupIds, FilterRequestCommand filter) {
+        if (!(entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class).getJdbcServices()
+                .getDialect() instanceof PostgreSQLDialect)) {
+            return OptionalLong.empty();
+        }
+        if (groupIds.isEmpty()) {
+            return OptionalLong.of(0);
+        }
+        FilterConditions conditions = new FilterConditions(type, groupIds, filter);
+        Query query = entityManager.createNativeQuery("EXPLAIN SELECT 1 " + conditions.nativeFromWhere());
+        conditions.nativeParameters.forEach(query::setParameter);
+        // the first line of the plan is the top node, which estimates the rows of the whole query
+        Matcher matcher = PLAN_ROWS.matcher((String) query.getResultList().getFirst());
+        return matcher.find() ? OptionalLong.of(Long.parseLong(matcher.group(1))) : OptionalLong.empty();
+    }
+
+    @Override
+    public List<EcmrFacetCount> countFacetsByAssignedGroupIds(List<Long> groupIds, FilterRequestCommand filter) {
+        FilterConditions conditions = new FilterConditions(null, groupIds, filter);
+        String jpql = "SELECT e.type AS type, e.ecmrStatus AS status, " + TRANSPORT_TYPE + " AS transportType, count(e) AS total "
+                + "FROM EcmrEntity e " + conditions.where + " GROUP BY e.type, e.ecmrStatus, " + TRANSPORT_TYPE;
+        return conditions.bind(entityManager.createQuery(jpql, Tuple.class)).getResultList().stream()
+                .map(tuple -> {
+                    String transportType = tuple.get("transportType", String.class);
+                    return new EcmrFacetCount(tuple.get("type", EcmrType.class), tuple.get("status", EcmrStatus.class),
+                            transportType == null ? null : EcmrTransportType.valueOf(transportType), tuple.get("total", Long.class));
+                })
+                .toList();
+    }
+
+    @Override
+    public Page<Long> findIdsByTypeAndAssignedGroupIds(EcmrType type, List<Long> groupIds, FilterRequestCommand filter, Pageable pageable) {
+        return findPage("e.id", Long.class, type, groupIds, filter, pageable);
+    }
+
+    @Override
+    public List<UUID> findEcmrIdsByTypeAndAssignedGroupIds(EcmrType type, List<Long> groupIds, FilterRequestCommand filter, Sort sort,
+            int limit) {
+        FilterConditions conditions = new FilterConditions(type, groupIds, filter);
+        return conditions.bind(entityManager.createQuery(sortedQuery("e.ecmrId", conditions, sort), UUID.class))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Page<EcmrSummary> findSummariesByTypeAndAssignedGroupIds(EcmrType type, List<Long> groupIds, FilterRequestCommand filter,
+            Pageable pageable) {
+        return findPage(SUMMARY_SELECTION, EcmrSummary.class, type, groupIds, filter, pageable);
+    }
+
+    @Override
+    public Stream<EcmrSummary> streamSummariesByTypeAndAssignedGroupIds(EcmrType type, List<Long> groupIds, FilterRequestCommand filter,
+            Sort sort, int fetchSize) {
+        FilterConditions conditions = new FilterConditions(type, groupIds, filter);
+        // the summaries are not entities, so the persistence context does not grow with the rows read
+        return conditions.bind(entityManager.createQuery(sortedQuery(SUMMARY_SELECTION, conditions, sort), EcmrSummary.class))
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public List<EcmrSummary> findSummariesByBarcodeAndAssignedGroupIds(String barcode, List<Long> groupIds) {
+        return entityManager.createQuery("SELECT " + SUMMARY_SELECTION + " FROM EcmrEntity e "
+                        + "WHERE EXISTS (SELECT 1 FROM e.itemList i JOIN i.logisticsShippingMarksCustomBarcodeList b "
+                        + "WHERE b.barcode = :barcode) "
+                        + "AND e.id IN (SELECT v.ecmr.id FROM EcmrVisibilityEntity v WHERE v.group.id IN :groupIds) "
+                        + "ORDER BY e.id", EcmrSummary.class)
+                .setParameter("barcode", barcode)
+                .setParameter("groupIds", groupIds)
+                .getResultList();
+    }
+
+    @Override
+    public List<UUID> findEcmrIdsByLicensePlateAndTakingOverBetween(EcmrType type, List<Long> groupIds, String licensePlate, Instant from,
+            Instant to) {
+        return entityManager.createQuery("SELECT e.ecmrId FROM EcmrEntity e JOIN e.takingOverTheGoods t "
+                        + "WHERE e.type = :type "
+                        + "AND upper(replace(e.carrierInformation.carrierLicensePlate, ' ', '')) = :licensePlate "
+                        + "AND ((t.logisticsTimeOfArrivalDateTime >= :from AND t.logisticsTimeOfArrivalDateTime < :to) "
+                        + "OR (t.logisticsTimeOfDepartureDateTime >= :from AND t.logisticsTimeOfDepartureDateTime < :to)) "
+                        + "AND e.id IN (SELECT v.ecmr.id FROM EcmrVisibilityEntity v WHERE v.group.id IN :groupIds) "
+                        + "ORDER BY e.createdAt, e.id", UUID.class)
+                .setParameter("type", type)
+                .setParameter("licensePlate", licensePlate)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setParameter("groupIds", groupIds)
+                .getResultList();
+    }
+
+    @Override
+    public List<EcmrSortKey> findSortKeysByTypeAndAssignedGroupIds(EcmrType type, List<Long> groupIds, FilterRequestCommand filter,
+            String sortField, Sort.Direction direction, Object afterValue, Long afterId, int limit) {
+        FilterConditions conditions = new FilterConditions(type, groupIds, filter);
+        String sortPath = "e." + sortField;
+        StringBuilder jpql = new StringBuilder("SELECT e.id AS id, ").append(sortPath).append(" AS sortValue FROM EcmrEntity e ")
+                .append(conditions.where);
+        if (afterId != null) {
+            jpql.append(" AND ").append(seekCondition(sortPath, direction, afterValue != null));
+        }
+        jpql.append(direction.isAscending()
+                ? " ORDER BY " + sortPath + " ASC NULLS LAST, e.id ASC"
+                : " ORDER BY " + sortPath + " DESC NULLS FIRST, e.id DESC");
+
+        TypedQuery<Tuple> query = conditions.bind(entityManager.createQuery(jpql.toString(), Tuple.class))
+                .setMaxResults(limit);
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+            if (afterValue != null) {
+                query.setParameter("afterValue", afterValue);
+            }
+        }
+        return query.getResultList().stream()
+                .map(tuple -> new EcmrSortKey(tuple.get("id", Long.class), tuple.get("sortValue")))
+                .toList();
+    }
+
+    /**
+     * Loads the {@code Ecmr.all} graph of the eCMRs with the ids, in the order of the ids.
+     */
+    private List<EcmrEntity> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, EcmrEntity> ecmrsById = entityManager.createQuery("SELECT e FROM EcmrEntity e WHERE e.id IN :ids", EcmrEntity.class)
+                .setParameter("ids", ids)
+                .setHint("jakarta.persistence.fetchgraph", entityManager.getEntityGraph("Ecmr.all"))
+                .getResultStream()
+                .collect(Collectors.toMap(EcmrEntity::getId, Function.identity()));
+        return ids.stream().map(ecmrsById::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Selects the requested page of the eCMRs matching the filter with SQL LIMIT and OFFSET, ordered by the sort of the page and the id. The
+     * matching eCMRs are only counted if the total can not be derived from the page itself.
+     */
+    private <T> Page<T> findPage(String selection, Class<T> resultType, EcmrType type, List<Long> groupIds, FilterRequestCommand filter,
+            Pageable pageable) {
+        FilterConditions conditions = new FilterConditions(type, groupIds, filter);
+        TypedQuery<T> query = conditions.bind(
+                entityManager.createQuery(sortedQuery(selection, conditions, pageable.getSort()), resultType));
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(conditions));
+    }
+
+    private static String sortedQuery(String selection, FilterConditions conditions, Sort sort) {
+        return QueryUtils.applySorting("SELECT " + selection + " FROM EcmrEntity e " + conditions.where, sort.and(Sort.by("id")),
+                "e");
+    }
+
+    private long count(FilterConditions conditions) {
+        return conditions.bind(entityManager.createQuery("SELECT count(e) FROM EcmrEntity e " + conditions.where, Long.class)).getSingleResult();
+    }
+
+    /**
+     * Rows after the position (afterValue, afterId) in the order (sort field, id), where null sort values come after all others.
+     */
+    private static String seekCondition(String sortPath, Sort.Direction direction, boolean hasAfterValue) {
+        if (direction.isAscending()) {
+            return hasAfterValue
+                    ? "((" + sortPath + ", e.id) > (:afterValue, :afterId) OR " + sortPath + " IS NULL)"
+                    : "(" + sortPath + " IS NULL AND e.id > :afterId)";
+        }
+        return hasAfterValue
+                ? "(" + sortPath + ", e.id) < (:afterValue, :afterId)"
+                : "((" + sortPath + " IS NULL AND e.id < :afterId) OR " + sortPath + " IS NOT NULL)";
+    }
+
+    /**
+     * WHERE clause on the eCMRs {@code e} of the given type, or of all types if null, with one condition per filter that is set. The group ids
+     * are the direct groups of the user. The eCMRs assigned to their descendant groups are not expanded here, they come through the
+     * {@code ecmr_visibility} table, which holds a row for every ancestor of an assigned group. Leaving out unset filters instead of
+     * {@code :filter IS NULL OR ...} keeps every condition sargable, so that the planner can use the trigram indexes also for prepared
+     * statements with generic plans. The same conditions are also rendered as SQL for the row estimate of the planner.
+     */
+    private static class FilterConditions {
+        private static final Map<String, String> NATIVE_JOINS = Map.of(
+                "s", "JOIN sender_information s ON s.id = e.sender_information_id ",
+                "c", "JOIN consignee_information c ON c.id = e.consignee_information_id ",
+                "ca", "JOIN carrier_information ca ON ca.id = e.carrier_information_id ");
+
+        private final StringBuilder where = new StringBuilder(
+                "WHERE e.id IN (SELECT v.ecmr.id FROM EcmrVisibilityEntity v WHERE v.group.id IN :groupIds) ");
+        private final Map<String, Object> parameters = new HashMap<>();
+        private final StringBuilder nativeWhere = new StringBuilder(
+                "WHERE e.id IN (SELECT v.ecmr_id FROM ecmr_visibility v WHERE v.group_id IN (:groupIds)) ");
+        private final Set<String> nativeJoins = new LinkedHashSet<>();
+        private final Map<String, Object> nativeParameters = new HashMap<>();
+
+        FilterConditions(EcmrType type, List<Long> groupIds, FilterRequestCommand filter) {
+            parameters.put("groupIds", groupIds);
+            nativeParameters.put("groupIds", groupIds);
+            if (type != null) {
+                where.append("AND e.type = :type ");
+                parameters.put("type", type);
+                nativeWhere.append("AND e.type = :type ");
+                nativeParameters.put("type", type.ordinal());
+            }
+            contains("referenceId", "e.referenceIdentificationNumber", "e.reference_identification_number", filter.getReferenceId());
+            contains("from", "e.senderInformation.companyName", "s.company_name", filter.getFrom());
+            contains("to", "e.consigneeInformation.companyName", "c.company_name", filter.getTo());
+            if (filter.getStatus() != null) {
+                where.append("AND e.ecmrStatus = :ecmrStatus ");
+                parameters.put("ecmrStatus", filter.getStatus());
+                nativeWhere.append("AND e.ecmr_status = :ecmrStatus ");
+                nativeParameters.put("ecmrStatus", filter.getStatus().ordinal());
+            }
+            contains("licensePlate", "e.carrierInformation.carrierLicensePlate", "ca.carrier_license_plate", filter.getLicensePlate());
+            contains("carrierName", "e.carrierInformation.companyName", "ca.company_name", filter.getCarrierName());
+            contains("carrierPostCode", "e.carrierInformation.postcode", "ca.postcode", filter.getCarrierPostCode());
+            contains("consigneePostCode", "e.consigneeInformation.postcode", "c.postcode", filter.getConsigneePostCode());
+            contains("lastEditor", "e.editedBy", "e.edited_by", filter.getLastEditor());
+            if (filter.getTransportType() == EcmrTransportType.National) {
+                where.append("AND e.senderInformation.countryCode = e.consigneeInformation.countryCode ");
+                nativeJoin("s.country_code");
+                nativeJoin("c.country_code");
+                nativeWhere.append("AND s.country_code = c.country_code ");
+            } else if (filter.getTransportType() == EcmrTransportType.International) {
+                where.append("AND e.senderInformation.countryCode != e.consigneeInformation.countryCode ");
+                nativeJoin("s.country_code");
+                nativeJoin("c.country_code");
+                nativeWhere.append("AND s.country_code != c.country_code ");
+            }
+        }
+
+        private void contains(String name, String path, String column, String value) {
+            if (value == null) {
+                return;
+            }
+            String pattern = "%" + escapeLike(value.toLowerCase(Locale.ROOT)) + "%";
+            where.append("AND lower(").append(path).append(") LIKE :").append(name).append(" ESCAPE '\\' ");
+            parameters.put(name, pattern);
+            nativeJoin(column);
+            nativeWhere.append("AND lower(").append(column).append(") LIKE :").append(name).append(" ESCAPE '\\' ");
+            nativeParameters.put(name, pattern);
+        }
+
+        private void nativeJoin(String column) {
+            String join = NATIVE_JOINS.get(column.substring(0, column.indexOf('.')));
+            if (join != null) {
+                nativeJoins.add(join);
+            }
+        }
+
+        private static String escapeLike(String value) {
+            return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        }
+
+        String nativeFromWhere() {
+            return "FROM ecmr e " + String.join("", nativeJoins) + nativeWhere;
+        }
+
+        <Q extends Query> Q bind(Q query) {
+            parameters.forEach(query::setParameter);
+            return query;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.persistence.repositories;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrRole;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrVisibilityEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrVisibilityProjection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EcmrVisibilityRepository extends JpaRepository<EcmrVisibilityEntity, Long> {
+    String ECMRS_ASSIGNED_IN_SUBTREE = "SELECT a.ecmr_id FROM ecmr_assignment a JOIN group_closure s ON s.descendant_id = a.group_id "
+            + "WHERE s.ancestor_id = :groupId";
+    String INSERT_FROM_ASSIGNMENTS = "INSERT INTO ecmr_visibility (group_id, ecmr_id, role) "
+            + "SELECT DISTINCT gc.ancestor_id, ea.ecmr_id, ea.role FROM ecmr_assignment ea JOIN group_closure gc ON gc.descendant_id = ea.group_id ";
+
+    @Query("SELECT DISTINCT v.role FROM EcmrVisibilityEntity v WHERE v.ecmr.ecmrId = :ecmrId "
+            + "AND v.group.id IN (SELECT ug.group.id FROM UserToGroupEntity ug WHERE ug.user.id = :userId)")
+    List<EcmrRole> findRolesByEcmrIdAndUserId(@Param("ecmrId") UUID ecmrId, @Param("userId") long userId);
+
+    @Query("SELECT DISTINCT v.ecmr.id AS ecmrId, v.group.id AS groupId FROM EcmrVisibilityEntity v WHERE v.ecmr.id IN :ecmrIds")
+    List<EcmrVisibilityProjection> findProjectionsByEcmrIds(@Param("ecmrIds") Collection<Long> ecmrIds);
+
+    @Query("SELECT DISTINCT v.ecmr.id FROM EcmrVisibilityEntity v WHERE v.group.id = :groupId")
+    List<Long> findEcmrIdsByGroupId(@Param("groupId") long groupId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM ecmr_visibility WHERE ecmr_id IN (:ecmrIds)", nativeQuery = true)
+    void deleteByEcmrIds(@Param("ecmrIds") Collection<Long> ecmrIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = INSERT_FROM_ASSIGNMENTS + "WHERE ea.ecmr_id IN (:ecmrIds)", nativeQuery = true)
+    void insertByEcmrIds(@Param("ecmrIds") Collection<Long> ecmrIds);
+
+    /**
+     * Deletes the visibility of all eCMRs that are assigned to the group or one of its descendants.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM ecmr_visibility WHERE ecmr_id IN (" + ECMRS_ASSIGNED_IN_SUBTREE + ")", nativeQuery = true)
+    void deleteByAssignmentsInSubtree(@Param("groupId") long groupId);
+
+    /**
+     * Inserts the visibility of all eCMRs that are assigned to the group or one of its descendants.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = INSERT_FROM_ASSIGNMENTS + "WHERE ea.ecmr_id IN (" + ECMRS_ASSIGNED_IN_SUBTREE + ")", nativeQuery = true)
+    void insertByAssignmentsInSubtree(@Param("groupId") long groupId);
+}
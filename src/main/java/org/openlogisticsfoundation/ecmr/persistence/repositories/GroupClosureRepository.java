@@ -0,0 +1,45 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.persistence.repositories;
+
+import org.openlogisticsfoundation.ecmr.persistence.entities.GroupClosureEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface GroupClosureRepository extends JpaRepository<GroupClosureEntity, Long> {
+    boolean existsByAncestor_IdAndDescendant_Id(long ancestorId, long descendantId);
+
+    /**
+     * Adds the ancestors of the parent, including the parent itself, as ancestors of a new group.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO group_closure (ancestor_id, descendant_id, depth) "
+            + "SELECT gc.ancestor_id, :groupId, gc.depth + 1 FROM group_closure gc WHERE gc.descendant_id = :parentId", nativeQuery = true)
+    void insertAncestorsOfNewGroup(@Param("groupId") long groupId, @Param("parentId") long parentId);
+
+    /**
+     * Removes the links between the subtree of the group and the former ancestors of the group, the subtree itself is kept.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM group_closure WHERE descendant_id IN (SELECT s.descendant_id FROM group_closure s WHERE s.ancestor_id = :groupId) "
+            + "AND ancestor_id NOT IN (SELECT s.descendant_id FROM group_closure s WHERE s.ancestor_id = :groupId)", nativeQuery = true)
+    void detachSubtree(@Param("groupId") long groupId);
+
+    /**
+     * Links the subtree of the group to the new parent and all of its ancestors.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO group_closure (ancestor_id, descendant_id, depth) "
+            + "SELECT a.ancestor_id, s.descendant_id, a.depth + s.depth + 1 FROM group_closure a, group_closure s "
+            + "WHERE a.descendant_id = :parentId AND s.ancestor_id = :groupId", nativeQuery = true)
+    void attachSubtree(@Param("groupId") long groupId, @Param("parentId") long parentId);
+}
@@ -26,6 +26,9 @@ public interface UserToGroupRepository extends JpaRepository<UserToGroupEntity,
     @Query("SELECT u.group FROM UserToGroupEntity u WHERE u.user.id = :userId")
     List<GroupEntity> findGroupsByUserId(@Param("userId") long userId);
 
+    @Query("SELECT u.group.id FROM UserToGroupEntity u WHERE u.user.id = :userId")
+    List<Long> findGroupIdsByUserId(@Param("userId") long userId);
+
     void deleteByUserIdAndGroupId(long userId, long groupId);
 
     boolean existsByGroupId(long groupId);
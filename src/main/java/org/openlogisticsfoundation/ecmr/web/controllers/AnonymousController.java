@@ -9,6 +9,7 @@
 
 package org.openlogisticsfoundation.ecmr.web.controllers;
 
+import static org.openlogisticsfoundation.ecmr.web.controllers.PdfHelper.clientHasEtag;
 import static org.openlogisticsfoundation.ecmr.web.controllers.PdfHelper.createPdfResponse;
 
 import java.util.List;
@@ -30,7 +31,7 @@
 import org.openlogisticsfoundation.ecmr.domain.models.EcmrShareResponse;
 import org.openlogisticsfoundation.ecmr.domain.models.ExternalUser;
 import org.openlogisticsfoundation.ecmr.domain.models.InternalOrExternalUser;
-import org.openlogisticsfoundation.ecmr.domain.models.PdfFile;
+import org.openlogisticsfoundation.ecmr.domain.models.StreamedFile;
 import org.openlogisticsfoundation.ecmr.domain.models.SealedDocumentWithoutEcmr;
 import org.openlogisticsfoundation.ecmr.domain.models.commands.EcmrCommand;
 import org.openlogisticsfoundation.ecmr.domain.models.commands.ExternalUserRegistrationCommand;
@@ -42,6 +43,7 @@
 import org.openlogisticsfoundation.ecmr.domain.services.ExternalUserService;
 import org.openlogisticsfoundation.ecmr.domain.services.SealedDocumentService;
 import org.openlogisticsfoundation.ecmr.domain.services.tan.MessageProviderException;
+import org.openlogisticsfoundation.ecmr.web.exceptions.TooManyRequestsException;
 import org.openlogisticsfoundation.ecmr.web.mappers.EcmrWebMapper;
 import org.openlogisticsfoundation.ecmr.web.mappers.ExternalUserWebMapper;
 import org.openlogisticsfoundation.ecmr.web.models.EcmrShareModel;
@@ -62,6 +64,7 @@
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
@@ -252,6 +255,7 @@ public ResponseEntity<EcmrModel> getEcmrWith(@PathVariable(value = "ecmrId") UUI
             responses = {
                     @ApiResponse(description = "Updated ECMR model",
                             content = @Content(mediaType = "application/json", schema = @Schema(implementation = EcmrModel.class))),
+                    @ApiResponse(description = "Invalid consignee signature", responseCode = "400"),
                     @ApiResponse(description = "ECMR not found", responseCode = "404"),
                     @ApiResponse(description = "No permission", responseCode = "403"),
                     @ApiResponse(description = "External user not found", responseCode = "401")
@@ -269,6 +273,8 @@ public ResponseEntity<EcmrModel> updateEcmr(@RequestParam(name = "userToken") @V
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
         } catch (NoPermissionException e) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, e.getMessage());
+        } catch (ValidationException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         } catch (ExternalUserNotFoundException | ExternalUserInvalidTanException e) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, e.getMessage());
         }
@@ -416,6 +422,7 @@ public ResponseEntity<EcmrShareResponse> shareEcmr(@PathVariable(value = "ecmrId
      * @param ecmrId The UUID of the ECMR.
      * @param userToken Unique token of the external user
      * @param tan The TAN for validation.
+     * @param request The request, for conditional and range requests
      * @return The ECMR PDF file as a StreamingResponseBody.
      */
     @GetMapping("/ecmr/{ecmrId}/pdf")
@@ -430,17 +437,23 @@ public ResponseEntity<EcmrShareResponse> shareEcmr(@PathVariable(value = "ecmrId
             responses = {
                     @ApiResponse(description = "ECMR PDF file",
                             content = @Content(mediaType = "application/pdf")),
+                    @ApiResponse(description = "Requested range of the PDF file", responseCode = "206"),
+                    @ApiResponse(description = "PDF file not modified", responseCode = "304"),
                     @ApiResponse(description = "No permission", responseCode = "403"),
+                    @ApiResponse(description = "Requested range not satisfiable", responseCode = "416"),
+                    @ApiResponse(description = "Too many PDF rendering requests", responseCode = "429"),
                     @ApiResponse(description = "PDF creation error", responseCode = "500"),
                     @ApiResponse(description = "ECMR not found", responseCode = "404"),
                     @ApiResponse(description = "External user not found", responseCode = "401")
             })
     public ResponseEntity<StreamingResponseBody> downloadEcmrPdfFile(@PathVariable("ecmrId") UUID ecmrId,
-            @RequestParam(name = "userToken") @Valid @NotNull String userToken, @RequestParam(name = "tan") @Valid @NotNull String tan) {
+            @RequestParam(name = "userToken") @Valid @NotNull String userToken, @RequestParam(name = "tan") @Valid @NotNull String tan,
+            WebRequest request) {
         try {
             ExternalUser externalUser = this.authenticationService.getExternalUser(ecmrId, userToken, tan);
-            PdfFile ecmrReport = this.ecmrPdfService.createJasperReportForEcmr(ecmrId, new InternalOrExternalUser(externalUser), true);
-            return createPdfResponse(ecmrReport);
+            StreamedFile ecmrReport = this.ecmrPdfService.createJasperReportForEcmr(ecmrId, new InternalOrExternalUser(externalUser), true,
+                    clientHasEtag(request));
+            return createPdfResponse(ecmrReport, request);
         } catch (NoPermissionException e) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, e.getMessage());
         } catch (PdfCreationException e) {
@@ -449,6 +462,8 @@ public ResponseEntity<StreamingResponseBody> downloadEcmrPdfFile(@PathVariable("
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
         } catch (ExternalUserNotFoundException | ExternalUserInvalidTanException e) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, e.getMessage());
+        } catch (RateLimitException e) {
+            throw new TooManyRequestsException(e);
         }
     }
 
@@ -457,6 +472,7 @@ public ResponseEntity<StreamingResponseBody> downloadEcmrPdfFile(@PathVariable("
      *
      * @param id The UUID of the ECMR.
      * @param shareToken The token used for sharing the ECMR.
+     * @param request The request, for conditional and range requests
      * @return The ECMR PDF file as a StreamingResponseBody.
      */
     @GetMapping("/ecmr/{ecmrId}/share-pdf")
@@ -470,21 +486,27 @@ public ResponseEntity<StreamingResponseBody> downloadEcmrPdfFile(@PathVariable("
             responses = {
                     @ApiResponse(description = "ECMR PDF file",
                             content = @Content(mediaType = "application/pdf")),
+                    @ApiResponse(description = "Requested range of the PDF file", responseCode = "206"),
+                    @ApiResponse(description = "PDF file not modified", responseCode = "304"),
                     @ApiResponse(description = "No permission", responseCode = "403"),
+                    @ApiResponse(description = "Requested range not satisfiable", responseCode = "416"),
+                    @ApiResponse(description = "Too many PDF rendering requests", responseCode = "429"),
                     @ApiResponse(description = "PDF creation error", responseCode = "500"),
                     @ApiResponse(description = "ECMR not found", responseCode = "404")
             })
     public ResponseEntity<StreamingResponseBody> downloadEcmrPdfFileShare(@PathVariable("ecmrId") UUID id,
-            @RequestParam @Valid @NotNull String shareToken) {
+            @RequestParam @Valid @NotNull String shareToken, WebRequest request) {
         try {
-            PdfFile ecmrReport = this.ecmrPdfService.createJasperReportForEcmr(id, shareToken, true);
-            return createPdfResponse(ecmrReport);
+            StreamedFile ecmrReport = this.ecmrPdfService.createJasperReportForEcmr(id, shareToken, true, clientHasEtag(request));
+            return createPdfResponse(ecmrReport, request);
         } catch (NoPermissionException e) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, e.getMessage());
         } catch (PdfCreationException e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
         } catch (EcmrNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (RateLimitException e) {
+            throw new TooManyRequestsException(e);
         }
     }
 
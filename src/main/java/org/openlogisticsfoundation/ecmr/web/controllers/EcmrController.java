@@ -8,45 +8,66 @@
 
 package org.openlogisticsfoundation.ecmr.web.controllers;
 
+import static org.openlogisticsfoundation.ecmr.web.controllers.PdfHelper.clientHasEtag;
+import static org.openlogisticsfoundation.ecmr.web.controllers.PdfHelper.createImageResponse;
 import static org.openlogisticsfoundation.ecmr.web.controllers.PdfHelper.createPdfResponse;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
 import org.apache.commons.lang3.NotImplementedException;
 import org.openlogisticsfoundation.ecmr.api.model.EcmrModel;
+import org.openlogisticsfoundation.ecmr.api.model.EcmrStatus;
 import org.openlogisticsfoundation.ecmr.domain.exceptions.EcmrNotFoundException;
 import org.openlogisticsfoundation.ecmr.domain.exceptions.GroupNotFoundException;
 import org.openlogisticsfoundation.ecmr.domain.exceptions.NoPermissionException;
 import org.openlogisticsfoundation.ecmr.domain.exceptions.PdfCreationException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.RateLimitException;
 import org.openlogisticsfoundation.ecmr.domain.exceptions.SealAlreadyPresentException;
 import org.openlogisticsfoundation.ecmr.domain.exceptions.UserNotFoundException;
 import org.openlogisticsfoundation.ecmr.domain.exceptions.ValidationException;
 import org.openlogisticsfoundation.ecmr.domain.models.AuthenticatedUser;
+import org.openlogisticsfoundation.ecmr.domain.models.CountMode;
 import org.openlogisticsfoundation.ecmr.domain.models.EcmrAssignment;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrExportFormat;
 import org.openlogisticsfoundation.ecmr.domain.models.EcmrRole;
 import org.openlogisticsfoundation.ecmr.domain.models.EcmrShareResponse;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrSummary;
 import org.openlogisticsfoundation.ecmr.domain.models.EcmrType;
 import org.openlogisticsfoundation.ecmr.domain.models.InternalOrExternalUser;
-import org.openlogisticsfoundation.ecmr.domain.models.PdfFile;
+import org.openlogisticsfoundation.ecmr.domain.models.StreamedFile;
 import org.openlogisticsfoundation.ecmr.domain.models.SortingField;
 import org.openlogisticsfoundation.ecmr.domain.models.SortingOrder;
 import org.openlogisticsfoundation.ecmr.domain.models.commands.EcmrCommand;
+import org.openlogisticsfoundation.ecmr.domain.models.commands.FilterRequestCommand;
+import org.openlogisticsfoundation.ecmr.domain.services.ConsigneeSignatureService;
+import org.openlogisticsfoundation.ecmr.domain.services.EcmrBulkPdfService;
 import org.openlogisticsfoundation.ecmr.domain.services.EcmrCreationService;
 import org.openlogisticsfoundation.ecmr.domain.services.EcmrDeleteService;
+import org.openlogisticsfoundation.ecmr.domain.services.EcmrExportService;
 import org.openlogisticsfoundation.ecmr.domain.services.EcmrPdfService;
 import org.openlogisticsfoundation.ecmr.domain.services.EcmrSealService;
 import org.openlogisticsfoundation.ecmr.domain.services.EcmrService;
 import org.openlogisticsfoundation.ecmr.domain.services.EcmrShareService;
 import org.openlogisticsfoundation.ecmr.domain.services.EcmrUpdateService;
+import org.openlogisticsfoundation.ecmr.domain.services.search.EcmrSearchService;
 import org.openlogisticsfoundation.ecmr.web.exceptions.AuthenticationException;
+import org.openlogisticsfoundation.ecmr.web.exceptions.TooManyRequestsException;
 import org.openlogisticsfoundation.ecmr.web.mappers.EcmrWebMapper;
+import org.openlogisticsfoundation.ecmr.web.models.EcmrCursorPageModel;
+import org.openlogisticsfoundation.ecmr.web.models.EcmrFacetsModel;
 import org.openlogisticsfoundation.ecmr.web.models.EcmrPageModel;
+import org.openlogisticsfoundation.ecmr.web.models.EcmrSearchResultModel;
 import org.openlogisticsfoundation.ecmr.web.models.EcmrShareModel;
+import org.openlogisticsfoundation.ecmr.web.models.EcmrSummaryPageModel;
 import org.openlogisticsfoundation.ecmr.web.models.EcmrShareWithGroupModel;
 import org.openlogisticsfoundation.ecmr.web.models.FilterRequestModel;
+import org.openlogisticsfoundation.ecmr.web.models.LoadSheetRequestModel;
 import org.openlogisticsfoundation.ecmr.web.models.SealModel;
 import org.openlogisticsfoundation.ecmr.web.services.AuthenticationService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -62,15 +83,19 @@
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 
@@ -80,6 +105,7 @@
 public class EcmrController {
 
     private final EcmrService ecmrService;
+    private final EcmrExportService ecmrExportService;
     private final EcmrUpdateService ecmrUpdateService;
     private final EcmrCreationService ecmrCreationService;
     private final EcmrWebMapper ecmrWebMapper;
@@ -88,6 +114,9 @@ public class EcmrController {
     private final EcmrSealService ecmrSealService;
     private final EcmrDeleteService ecmrDeleteService;
     private final EcmrPdfService ecmrPdfService;
+    private final EcmrBulkPdfService ecmrBulkPdfService;
+    private final ConsigneeSignatureService consigneeSignatureService;
+    private final EcmrSearchService ecmrSearchService;
 
     /**
      * Retrieves a paginated list of eCMRs for the authenticated user
@@ -97,6 +126,7 @@ public class EcmrController {
      * @param size               The size of the paginated list
      * @param sortBy             The column name used for sorting the results
      * @param sortingOrder       The sorting order (ASC/DESC)
+     * @param countMode          How the totals are determined, NONE only tells whether there is a next page
      * @param filterRequestModel The filter criteria for eCMRs
      * @return A paginated list of eCMRs
      */
@@ -119,15 +149,343 @@ public ResponseEntity<EcmrPageModel> getMyEcmrs(@RequestParam(required = false,
             @RequestParam(name = "size", defaultValue = "10", required = false) int size,
             @RequestParam(name = "sortBy", defaultValue = "creationDate", required = false) SortingField sortBy,
             @RequestParam(name = "sortingOrder", defaultValue = "ASC", required = false) SortingOrder sortingOrder,
+            @RequestParam(name = "countMode", defaultValue = "EXACT", required = false) CountMode countMode,
             @RequestBody FilterRequestModel filterRequestModel
     )
             throws AuthenticationException {
         AuthenticatedUser authenticatedUser = this.authenticationService.getAuthenticatedUser();
-        EcmrPageModel pageModel = this.ecmrService.getEcmrsForUser(authenticatedUser, type, page, size, sortBy, sortingOrder,
+        EcmrPageModel pageModel = this.ecmrService.getEcmrsForUser(authenticatedUser, type, page, size, sortBy, sortingOrder, countMode,
                 ecmrWebMapper.map(filterRequestModel));
         return ResponseEntity.ok(pageModel);
     }
 
+    /**
+     * Retrieves a paginated list of the columns shown in the eCMR list for the authenticated user, without the full eCMRs
+     *
+     * @param type               The type of eCMRs
+     * @param page               The page number for pagination
+     * @param size               The size of the paginated list
+     * @param sortBy             The column name used for sorting the results
+     * @param sortingOrder       The sorting order (ASC/DESC)
+     * @param filterRequestModel The filter criteria for eCMRs
+     * @return A paginated list of eCMR summaries
+     */
+    @PostMapping("/my-ecmrs/summary")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(
+            tags = "ECMR",
+            summary = "Retrieve My eCMR Summaries",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true, content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = FilterRequestModel.class))),
+            responses = {
+                    @ApiResponse(description = "Paginated list of eCMR summaries",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = EcmrSummaryPageModel.class)))
+            })
+    public ResponseEntity<EcmrSummaryPageModel> getMyEcmrSummaries(@RequestParam(required = false, defaultValue = "ECMR") EcmrType type,
+            @RequestParam(name = "page", defaultValue = "0", required = false) int page,
+            @RequestParam(name = "size", defaultValue = "10", required = false) int size,
+            @RequestParam(name = "sortBy", defaultValue = "creationDate", required = false) SortingField sortBy,
+            @RequestParam(name = "sortingOrder", defaultValue = "ASC", required = false) SortingOrder sortingOrder,
+            @RequestBody FilterRequestModel filterRequestModel
+    )
+            throws AuthenticationException {
+        AuthenticatedUser authenticatedUser = this.authenticationService.getAuthenticatedUser();
+        EcmrSummaryPageModel pageModel = this.ecmrService.getEcmrSummariesForUser(authenticatedUser, type, page, size, sortBy, sortingOrder,
+                ecmrWebMapper.map(filterRequestModel));
+        return ResponseEntity.ok(pageModel);
+    }
+
+    /**
+     * Counts the eCMRs of the authenticated user per type, status and national/international transport
+     *
+     * @param cached             Whether counts of the same filter from the last seconds may be returned
+     * @param filterRequestModel The filter criteria for eCMRs, the type, status and transport type are ignored
+     * @return The counts per facet and per combination of facets
+     */
+    @PostMapping("/my-ecmrs/facets")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(
+            tags = "ECMR",
+            summary = "Count My eCMRs per Type, Status and Transport Type",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true, content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = FilterRequestModel.class))),
+            responses = {
+                    @ApiResponse(description = "eCMR counts per facet",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = EcmrFacetsModel.class)))
+            })
+    public ResponseEntity<EcmrFacetsModel> getMyEcmrFacets(@RequestParam(name = "cached", defaultValue = "false", required = false) boolean cached,
+            @RequestBody FilterRequestModel filterRequestModel
+    )
+            throws AuthenticationException {
+        AuthenticatedUser authenticatedUser = this.authenticationService.getAuthenticatedUser();
+        EcmrFacetsModel facetsModel = this.ecmrService.getEcmrFacetsForUser(authenticatedUser, cached, ecmrWebMapper.map(filterRequestModel));
+        return ResponseEntity.ok(facetsModel);
+    }
+
+    /**
+     * Exports the list columns of all eCMRs of the authenticated user matching the filter. The file is written while the eCMRs are read,
+     * without paging and without counting them first.
+     *
+     * @param type               The type of eCMRs
+     * @param sortBy             The column name used for sorting the results
+     * @param sortingOrder       The sorting order (ASC/DESC)
+     * @param format             The file format, CSV or NDJSON with one eCMR per line
+     * @param filterRequestModel The filter criteria for eCMRs
+     * @return The eCMR list as a StreamingResponseBody.
+     */
+    @PostMapping("/my-ecmrs/export")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(
+            tags = "ECMR",
+            summary = "Export My eCMRs",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true, content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = FilterRequestModel.class))),
+            responses = {
+                    @ApiResponse(description = "CSV or NDJSON file of the eCMR list",
+                            content = {
+                                    @Content(mediaType = "text/csv"),
+                                    @Content(mediaType = "application/x-ndjson")
+                            })
+            })
+    public ResponseEntity<StreamingResponseBody> exportMyEcmrs(@RequestParam(required = false, defaultValue = "ECMR") EcmrType type,
+            @RequestParam(name = "sortBy", defaultValue = "creationDate", required = false) SortingField sortBy,
+            @RequestParam(name = "sortingOrder", defaultValue = "ASC", required = false) SortingOrder sortingOrder,
+            @RequestParam(name = "format", defaultValue = "CSV", required = false) EcmrExportFormat format,
+            @RequestBody FilterRequestModel filterRequestModel
+    )
+            throws AuthenticationException {
+        AuthenticatedUser authenticatedUser = this.authenticationService.getAuthenticatedUser();
+        FilterRequestCommand filterRequestCommand = ecmrWebMapper.map(filterRequestModel);
+        StreamingResponseBody body = outputStream -> this.ecmrExportService.exportEcmrSummariesForUser(authenticatedUser, type, sortBy,
+                sortingOrder, format, filterRequestCommand, outputStream);
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.parseMediaType(format.getMediaType()), StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"ecmrs." + format.getFileExtension() + "\"")
+                .body(body);
+    }
+
+    /**
+     * Retrieves the eCMRs of the authenticated user page by page with keyset pagination, following the cursor returned with each page
+     *
+     * @param type               The type of eCMRs
+     * @param cursor             The cursor of the previous page, omitted for the first page
+     * @param size               The size of the paginated list
+     * @param sortBy             The column name used for sorting the results
+     * @param sortingOrder       The sorting order (ASC/DESC)
+     * @param filterRequestModel The filter criteria for eCMRs
+     * @return The page of eCMRs and the cursor of the next page, if there is one
+     */
+    @PostMapping("/my-ecmrs/cursor")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(
+            tags = "ECMR",
+            summary = "Retrieve My eCMRs by Cursor",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true, content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = FilterRequestModel.class))),
+            responses = {
+                    @ApiResponse(description = "Page of eCMRs with the cursor of the next page",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = EcmrCursorPageModel.class))),
+                    @ApiResponse(description = "Invalid cursor or page size", responseCode = "400")
+            })
+    public ResponseEntity<EcmrCursorPageModel> getMyEcmrsByCursor(@RequestParam(required = false, defaultValue = "ECMR") EcmrType type,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "10", required = false) int size,
+            @RequestParam(name = "sortBy", defaultValue = "creationDate", required = false) SortingField sortBy,
+            @RequestParam(name = "sortingOrder", defaultValue = "ASC", required = false) SortingOrder sortingOrder,
+            @RequestBody FilterRequestModel filterRequestModel
+    )
+            throws AuthenticationException {
+        AuthenticatedUser authenticatedUser = this.authenticationService.getAuthenticatedUser();
+        try {
+            EcmrCursorPageModel pageModel = this.ecmrService.getEcmrsForUserAfter(authenticatedUser, type, cursor, size, sortBy, sortingOrder,
+                    ecmrWebMapper.map(filterRequestModel));
+            return ResponseEntity.ok(pageModel);
+        } catch (ValidationException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Searches the eCMRs of the authenticated user for words or parts of words in the reference number, license plate, barcodes, company
+     * names, cities and goods, best matches first
+     *
+     * @param q      The search text, every word of it has to match
+     * @param type   The type of eCMRs, or all types if omitted
+     * @param status The status of the eCMRs, or all if omitted
+     * @param limit  The maximum number of hits, at most 100
+     * @return The best hits, the number of all hits and their counts per type, status and transport type
+     */
+    @GetMapping("/search")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(
+            tags = "ECMR",
+            summary = "Search My eCMRs",
+            responses = {
+                    @ApiResponse(description = "Ranked eCMR hits with facet counts",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = EcmrSearchResultModel.class))),
+                    @ApiResponse(description = "Empty or too long search text or invalid limit", responseCode = "400")
+            })
+    public ResponseEntity<EcmrSearchResultModel> searchMyEcmrs(@RequestParam(name = "q") String q,
+            @RequestParam(name = "type", required = false) EcmrType type,
+            @RequestParam(name = "status", required = false) EcmrStatus status,
+            @RequestParam(name = "limit", defaultValue = "20", required = false) int limit
+    )
+            throws AuthenticationException {
+        AuthenticatedUser authenticatedUser = this.authenticationService.getAuthenticatedUser();
+        try {
+            return ResponseEntity.ok(this.ecmrSearchService.searchEcmrsForUser(authenticatedUser, q, type, status, limit));
+        } catch (ValidationException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Resolves a scanned shipping mark barcode to the eCMRs of the authenticated user with an item carrying it
+     *
+     * @param barcode The barcode, matched exactly
+     * @return The list columns of the eCMRs, usually one, empty if no eCMR of the user has the barcode
+     */
+    @GetMapping("/by-barcode")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(
+            tags = "ECMR",
+            summary = "Find My eCMRs by Barcode",
+            responses = {
+                    @ApiResponse(description = "eCMRs with the barcode",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    array = @ArraySchema(schema = @Schema(implementation = EcmrSummary.class)))),
+                    @ApiResponse(description = "Empty barcode", responseCode = "400")
+            })
+    public ResponseEntity<List<EcmrSummary>> getMyEcmrsByBarcode(@RequestParam(name = "barcode") String barcode)
+            throws AuthenticationException {
+        AuthenticatedUser authenticatedUser = this.authenticationService.getAuthenticatedUser();
+        try {
+            return ResponseEntity.ok(this.ecmrService.getEcmrSummariesByBarcodeForUser(authenticatedUser, barcode));
+        } catch (ValidationException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Downloads the PDFs of all eCMRs of the authenticated user matching the filter as one ZIP archive, for at most
+     * {@value EcmrBulkPdfService#ARCHIVE_MAX_DOCUMENTS} eCMRs
+     *
+     * @param type               The type of eCMRs
+     * @param sortBy             The column name used for ordering the archive entries
+     * @param sortingOrder       The sorting order (ASC/DESC)
+     * @param filterRequestModel The filter criteria for eCMRs
+     * @return A ZIP archive containing one PDF per eCMR
+     */
+    @PostMapping("/my-ecmrs/pdf")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(
+            tags = "ECMR",
+            summary = "Download My eCMRs as PDF archive",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true, content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = FilterRequestModel.class))),
+            responses = {
+                    @ApiResponse(description = "ZIP archive with the PDF files of the eCMRs",
+                            content = @Content(
+                                    mediaType = "application/zip")),
+                    @ApiResponse(description = "Too many eCMRs match the filter", responseCode = "400"),
+                    @ApiResponse(description = "Unauthorized access", responseCode = "401"),
+                    @ApiResponse(description = "Too many PDF archive exports", responseCode = "429")
+            })
+    public ResponseEntity<StreamingResponseBody> downloadMyEcmrsPdfArchive(
+            @RequestParam(required = false, defaultValue = "ECMR") EcmrType type,
+            @RequestParam(name = "sortBy", defaultValue = "creationDate", required = false) SortingField sortBy,
+            @RequestParam(name = "sortingOrder", defaultValue = "ASC", required = false) SortingOrder sortingOrder,
+            @RequestBody FilterRequestModel filterRequestModel) {
+        try {
+            AuthenticatedUser authenticatedUser = authenticationService.getAuthenticatedUser(true);
+            // one more than allowed, so that a too large export is rejected instead of cut off
+            List<UUID> ecmrIds = this.ecmrService.getEcmrIdsForUser(authenticatedUser, type, sortBy, sortingOrder,
+                    ecmrWebMapper.map(filterRequestModel), EcmrBulkPdfService.ARCHIVE_MAX_DOCUMENTS + 1);
+            StreamedFile archive = this.ecmrBulkPdfService.createPdfArchive(ecmrIds, new InternalOrExternalUser(authenticatedUser.getUser()), true);
+            return ResponseEntity.ok().contentType(MediaType.parseMediaType(archive.getContentType()))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + archive.getFilename() + "\"")
+                    .body(archive::writeTo);
+        } catch (AuthenticationException e) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, e.getMessage());
+        } catch (ValidationException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (RateLimitException e) {
+            throw new TooManyRequestsException(e);
+        }
+    }
+
+    /**
+     * Downloads one PDF containing the copies of several eCMRs, e.g. as load sheet for all consignments picked up by a truck
+     *
+     * @param loadSheetRequestModel Either the ids of the eCMRs, or the license plate of the truck and the day the goods are taken over
+     * @param request The request, for conditional requests
+     * @return The merged PDF file, in the order of the ids or by creation of the eCMRs
+     */
+    @PostMapping("/load-sheet")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(
+            tags = "ECMR",
+            summary = "Download load sheet PDF",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true, content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = LoadSheetRequestModel.class))),
+            responses = {
+                    @ApiResponse(description = "PDF file with the copies of the eCMRs",
+                            content = @Content(
+                                    mediaType = "application/pdf")),
+                    @ApiResponse(description = "No or too many eCMRs selected", responseCode = "400"),
+                    @ApiResponse(description = "Unauthorized access", responseCode = "401"),
+                    @ApiResponse(description = "Forbidden access", responseCode = "403"),
+                    @ApiResponse(description = "eCMR not found", responseCode = "404"),
+                    @ApiResponse(description = "Too many PDF rendering requests", responseCode = "429"),
+                    @ApiResponse(description = "Error creating PDF", responseCode = "500")
+            })
+    public ResponseEntity<StreamingResponseBody> downloadLoadSheet(@RequestBody LoadSheetRequestModel loadSheetRequestModel, WebRequest request) {
+        try {
+            AuthenticatedUser authenticatedUser = authenticationService.getAuthenticatedUser(true);
+            List<UUID> ecmrIds;
+            String name;
+            if (loadSheetRequestModel.getEcmrIds() != null && !loadSheetRequestModel.getEcmrIds().isEmpty()) {
+                ecmrIds = loadSheetRequestModel.getEcmrIds();
+                name = String.valueOf(LocalDate.now());
+            } else if (loadSheetRequestModel.getLicensePlate() != null && loadSheetRequestModel.getDate() != null) {
+                ecmrIds = this.ecmrService.getEcmrIdsForLoadSheet(authenticatedUser, loadSheetRequestModel.getLicensePlate(),
+                        loadSheetRequestModel.getDate());
+                name = loadSheetRequestModel.getLicensePlate() + "-" + loadSheetRequestModel.getDate();
+            } else {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Either ecmrIds or licensePlate and date are required");
+            }
+            StreamedFile loadSheet = this.ecmrPdfService.createLoadSheet(ecmrIds, new InternalOrExternalUser(authenticatedUser.getUser()), name);
+            return createPdfResponse(loadSheet, request);
+        } catch (AuthenticationException e) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, e.getMessage());
+        } catch (ValidationException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (NoPermissionException e) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, e.getMessage());
+        } catch (PdfCreationException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+        } catch (EcmrNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (RateLimitException e) {
+            throw new TooManyRequestsException(e);
+        }
+    }
+
     /**
      * Retrieves a specific eCMR by ID
      *
@@ -457,6 +815,7 @@ public ResponseEntity<EcmrModel> importEcmr(@PathVariable(value = "ecmrId") UUID
      * Downloads the PDF file of the eCMR
      *
      * @param id The ID of the eCMR
+     * @param request The request, for conditional and range requests
      * @return The PDF file of the eCMR
      */
     @GetMapping("/{ecmrId}/pdf")
@@ -471,16 +830,70 @@ public ResponseEntity<EcmrModel> importEcmr(@PathVariable(value = "ecmrId") UUID
                     @ApiResponse(description = "PDF file of the eCMR",
                             content = @Content(
                                     mediaType = "application/pdf")),
+                    @ApiResponse(description = "Requested range of the PDF file", responseCode = "206"),
+                    @ApiResponse(description = "PDF file not modified", responseCode = "304"),
                     @ApiResponse(description = "Unauthorized access", responseCode = "401"),
                     @ApiResponse(description = "Forbidden access", responseCode = "403"),
                     @ApiResponse(description = "eCMR not found", responseCode = "404"),
+                    @ApiResponse(description = "Requested range not satisfiable", responseCode = "416"),
+                    @ApiResponse(description = "Too many PDF rendering requests", responseCode = "429"),
                     @ApiResponse(description = "Error creating PDF", responseCode = "500")
             })
-    public ResponseEntity<StreamingResponseBody> downloadEcmrPdfFile(@PathVariable("ecmrId") UUID id) {
+    public ResponseEntity<StreamingResponseBody> downloadEcmrPdfFile(@PathVariable("ecmrId") UUID id, WebRequest request) {
+        try {
+            AuthenticatedUser authenticatedUser = authenticationService.getAuthenticatedUser(true);
+            StreamedFile ecmrReport = this.ecmrPdfService.createJasperReportForEcmr(id, new InternalOrExternalUser(authenticatedUser.getUser()), true,
+                    clientHasEtag(request));
+            return createPdfResponse(ecmrReport, request);
+        } catch (AuthenticationException e) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, e.getMessage());
+        } catch (NoPermissionException e) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, e.getMessage());
+        } catch (PdfCreationException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+        } catch (EcmrNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (RateLimitException e) {
+            throw new TooManyRequestsException(e);
+        }
+    }
+
+    /**
+     * Renders the first page of the eCMR as PNG image, e.g. for list views
+     *
+     * @param id The ID of the eCMR
+     * @param width The width of the image in pixels
+     * @param request The request, for conditional requests
+     * @return The preview image of the eCMR
+     */
+    @GetMapping("/{ecmrId}/preview")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(
+            tags = "ECMR",
+            summary = "Get eCMR Preview Image",
+            parameters = {
+                    @Parameter(name = "ecmrId", description = "UUID of the eCMR", required = true, schema = @Schema(type = "string", format = "uuid")),
+                    @Parameter(name = "width", description = "Width of the image in pixels", schema = @Schema(type = "integer", minimum = "64", maximum = "1200", defaultValue = "300"))
+            },
+            responses = {
+                    @ApiResponse(description = "Preview image of the first page of the eCMR",
+                            content = @Content(
+                                    mediaType = "image/png")),
+                    @ApiResponse(description = "Preview image not modified", responseCode = "304"),
+                    @ApiResponse(description = "Invalid width", responseCode = "400"),
+                    @ApiResponse(description = "Unauthorized access", responseCode = "401"),
+                    @ApiResponse(description = "Forbidden access", responseCode = "403"),
+                    @ApiResponse(description = "eCMR not found", responseCode = "404"),
+                    @ApiResponse(description = "Too many PDF rendering requests", responseCode = "429"),
+                    @ApiResponse(description = "Error creating preview", responseCode = "500")
+            })
+    public ResponseEntity<StreamingResponseBody> getEcmrPreview(@PathVariable("ecmrId") UUID id,
+            @RequestParam(name = "width", defaultValue = "300") @Min(64) @Max(1200) int width, WebRequest request) {
         try {
             AuthenticatedUser authenticatedUser = authenticationService.getAuthenticatedUser(true);
-            PdfFile ecmrReport = this.ecmrPdfService.createJasperReportForEcmr(id, new InternalOrExternalUser(authenticatedUser.getUser()), true);
-            return createPdfResponse(ecmrReport);
+            StreamedFile preview = this.ecmrPdfService.createPreviewForEcmr(id, new InternalOrExternalUser(authenticatedUser.getUser()), width, true,
+                    clientHasEtag(request));
+            return createImageResponse(preview, request);
         } catch (AuthenticationException e) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, e.getMessage());
         } catch (NoPermissionException e) {
@@ -489,6 +902,47 @@ public ResponseEntity<StreamingResponseBody> downloadEcmrPdfFile(@PathVariable("
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
         } catch (EcmrNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (RateLimitException e) {
+            throw new TooManyRequestsException(e);
+        }
+    }
+
+    /**
+     * Downloads the signature image of the consignee
+     *
+     * @param id The ID of the eCMR
+     * @param request The request, for conditional requests
+     * @return The signature image as it was signed by the consignee
+     */
+    @GetMapping("/{ecmrId}/consignee-signature")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(
+            tags = "ECMR",
+            summary = "Get Consignee Signature Image",
+            parameters = {
+                    @Parameter(name = "ecmrId", description = "UUID of the eCMR", required = true, schema = @Schema(type = "string", format = "uuid"))
+            },
+            responses = {
+                    @ApiResponse(description = "Signature image of the consignee",
+                            content = @Content(
+                                    mediaType = "image/*")),
+                    @ApiResponse(description = "Signature image not modified", responseCode = "304"),
+                    @ApiResponse(description = "Unauthorized access", responseCode = "401"),
+                    @ApiResponse(description = "Forbidden access", responseCode = "403"),
+                    @ApiResponse(description = "eCMR or signature not found", responseCode = "404")
+            })
+    public ResponseEntity<StreamingResponseBody> getConsigneeSignature(@PathVariable("ecmrId") UUID id, WebRequest request) {
+        try {
+            AuthenticatedUser authenticatedUser = authenticationService.getAuthenticatedUser(true);
+            StreamedFile signature = this.consigneeSignatureService.getSignatureImage(id, new InternalOrExternalUser(authenticatedUser.getUser()))
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "The eCMR has no consignee signature"));
+            return createImageResponse(signature, request);
+        } catch (AuthenticationException e) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, e.getMessage());
+        } catch (NoPermissionException e) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, e.getMessage());
+        } catch (EcmrNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
         }
     }
 
@@ -511,6 +965,7 @@ public ResponseEntity<StreamingResponseBody> downloadEcmrPdfFile(@PathVariable("
                             content = @Content(
                                     mediaType = MediaType.APPLICATION_JSON_VALUE,
                                     schema = @Schema(implementation = EcmrModel.class))),
+                    @ApiResponse(description = "Invalid consignee signature", responseCode = "400"),
                     @ApiResponse(description = "eCMR not found", responseCode = "404"),
                     @ApiResponse(description = "Unauthorized access", responseCode = "401"),
                     @ApiResponse(description = "Forbidden access", responseCode = "403")
@@ -528,6 +983,8 @@ public ResponseEntity<EcmrModel> updateEcmr(@RequestBody @Valid EcmrModel ecmrMo
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, e.getMessage());
         } catch (NoPermissionException e) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, e.getMessage());
+        } catch (ValidationException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
     }
 
@@ -7,31 +7,152 @@
  */
 package org.openlogisticsfoundation.ecmr.web.controllers;
 
-import java.io.ByteArrayInputStream;
-import java.io.InputStream;
+import java.io.BufferedOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
 
-import org.openlogisticsfoundation.ecmr.domain.models.PdfFile;
+import org.openlogisticsfoundation.ecmr.domain.models.StreamedFile;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 public class PdfHelper {
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final String WEAK_PREFIX = "W/";
+    private static final CacheControl IMAGE_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
     private PdfHelper() {}
 
-    static ResponseEntity<StreamingResponseBody> createPdfResponse(PdfFile pdfFile) {
-        StreamingResponseBody streamingResponseBody = outputStream -> {
-            try (InputStream inputStream = new ByteArrayInputStream(pdfFile.getData())) {
-                inputStream.transferTo(outputStream);
+    /**
+     * Whether the client already has the version with the given ETag according to {@code If-None-Match}, so that a document does not have to
+     * be rendered just to be answered with 304.
+     */
+    static Predicate<String> clientHasEtag(WebRequest request) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        return etag -> matchesAny(ifNoneMatch, etag);
+    }
+
+    /**
+     * Answers {@code If-None-Match} with 304 if the PDF has an ETag. A single byte range is served with 206 if the length of the PDF is known,
+     * which means it is written identically every time, and an {@code If-Range} header matches its strong ETag.
+     */
+    static ResponseEntity<StreamingResponseBody> createPdfResponse(StreamedFile pdfFile, WebRequest request) {
+        String etag = pdfFile.getEtag();
+        if (etag != null && matchesAny(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            pdfFile.discard();
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        Long contentLength = pdfFile.getContentLength();
+        HttpRange range = contentLength != null ? getRequestedRange(request, etag) : null;
+        if (range != null) {
+            long start = range.getRangeStart(contentLength);
+            long end = range.getRangeEnd(contentLength);
+            if (start >= contentLength || start > end) {
+                pdfFile.discard();
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + contentLength).build();
+            }
+            return createResponseBuilder(ResponseEntity.status(HttpStatus.PARTIAL_CONTENT), pdfFile)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + contentLength)
+                    .contentLength(end - start + 1)
+                    .body(createBody(outputStream -> pdfFile.writeTo(outputStream, start, end - start + 1)));
+        }
+
+        // without a known length the response is sent with chunked transfer encoding
+        ResponseEntity.BodyBuilder responseBuilder = createResponseBuilder(ResponseEntity.ok(), pdfFile);
+        if (contentLength != null) {
+            responseBuilder.contentLength(contentLength);
+        }
+        return responseBuilder.body(createBody(pdfFile::writeTo));
+    }
+
+    /**
+     * Serves an image, e.g. a preview, inline with its own content type. Browsers have to revalidate it with its ETag, so a list of previews
+     * costs one 304 per row once they are cached. The content is only written if the image has changed.
+     */
+    static ResponseEntity<StreamingResponseBody> createImageResponse(StreamedFile image, WebRequest request) {
+        String etag = image.getEtag();
+        if (etag != null && matchesAny(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            image.discard();
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(IMAGE_CACHE_CONTROL).build();
+        }
+
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.ok().contentType(MediaType.parseMediaType(image.getContentType()))
+                .cacheControl(IMAGE_CACHE_CONTROL)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\""+ image.getFilename() + "\"");
+        if (etag != null) {
+            responseBuilder.eTag(etag);
+        }
+        if (image.getContentLength() != null) {
+            responseBuilder.contentLength(image.getContentLength());
+        }
+        return responseBuilder.body(createBody(image::writeTo));
+    }
+
+    private static ResponseEntity.BodyBuilder createResponseBuilder(ResponseEntity.BodyBuilder responseBuilder, StreamedFile pdfFile) {
+        if (pdfFile.getEtag() != null) {
+            responseBuilder.eTag(pdfFile.getEtag());
+        }
+        return responseBuilder.contentType(MediaType.parseMediaType(pdfFile.getContentType()))
+                .header(HttpHeaders.ACCEPT_RANGES, pdfFile.getContentLength() != null ? "bytes" : "none")
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\""+ pdfFile.getFilename() + "\"");
+    }
+
+    private static StreamingResponseBody createBody(StreamedFile.Content content) {
+        return outputStream -> {
+            try {
+                BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(outputStream, BUFFER_SIZE);
+                content.writeTo(bufferedOutputStream);
+                bufferedOutputStream.flush();
             } catch (Exception e) {
                 throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
             }
         };
+    }
+
+    /**
+     * @return The single requested range, or {@code null} if the whole document is to be sent because there is no valid single range or the
+     *         {@code If-Range} condition does not hold
+     */
+    private static HttpRange getRequestedRange(WebRequest request, String etag) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && (etag == null || etag.startsWith(WEAK_PREFIX) || !ifRange.trim().equals(etag))) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Weak comparison as required for {@code If-None-Match}.
+     */
+    private static boolean matchesAny(String header, String etag) {
+        if (header == null) {
+            return false;
+        }
+        String opaqueTag = stripWeakPrefix(etag);
+        return Arrays.stream(header.split(","))
+                .map(String::trim)
+                .anyMatch(candidate -> candidate.equals("*") || stripWeakPrefix(candidate).equals(opaqueTag));
+    }
 
-        return ResponseEntity.ok().contentLength(pdfFile.getData().length).contentType(MediaType.APPLICATION_PDF)
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\""+ pdfFile.getFilename() + "\"")
-                .body(streamingResponseBody);
+    private static String stripWeakPrefix(String etag) {
+        return etag.startsWith(WEAK_PREFIX) ? etag.substring(WEAK_PREFIX.length()) : etag;
     }
 }
@@ -0,0 +1,174 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.web.controllers;
+
+import static org.openlogisticsfoundation.ecmr.web.controllers.PdfHelper.createPdfResponse;
+
+import java.util.UUID;
+
+import org.openlogisticsfoundation.ecmr.domain.exceptions.EcmrNotFoundException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.NoPermissionException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.PdfJobNotCompletedException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.PdfJobNotFoundException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.RateLimitException;
+import org.openlogisticsfoundation.ecmr.domain.models.AuthenticatedUser;
+import org.openlogisticsfoundation.ecmr.domain.models.InternalOrExternalUser;
+import org.openlogisticsfoundation.ecmr.domain.models.StreamedFile;
+import org.openlogisticsfoundation.ecmr.domain.models.PdfJob;
+import org.openlogisticsfoundation.ecmr.domain.services.PdfJobService;
+import org.openlogisticsfoundation.ecmr.web.exceptions.AuthenticationException;
+import org.openlogisticsfoundation.ecmr.web.exceptions.TooManyRequestsException;
+import org.openlogisticsfoundation.ecmr.web.services.AuthenticationService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/pdf-jobs")
+@RequiredArgsConstructor
+public class PdfJobController {
+
+    private final AuthenticationService authenticationService;
+    private final PdfJobService pdfJobService;
+
+    /**
+     * Starts rendering the PDF of an eCMR in the background
+     *
+     * @param ecmrId The ID of the eCMR
+     * @return The created job
+     */
+    @PostMapping
+    @PreAuthorize("isAuthenticated()")
+    @Operation(
+            tags = "PDF Job",
+            summary = "Create PDF Job",
+            parameters = {
+                    @Parameter(name = "ecmrId", description = "UUID of the eCMR to render", required = true, schema = @Schema(type = "string", format = "uuid"))
+            },
+            responses = {
+                    @ApiResponse(description = "The created PDF job", responseCode = "202",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = PdfJob.class))),
+                    @ApiResponse(description = "Unauthorized access", responseCode = "401"),
+                    @ApiResponse(description = "Forbidden access", responseCode = "403"),
+                    @ApiResponse(description = "eCMR not found", responseCode = "404"),
+                    @ApiResponse(description = "Too many pending PDF jobs", responseCode = "429")
+            })
+    public ResponseEntity<PdfJob> createPdfJob(@RequestParam("ecmrId") UUID ecmrId) {
+        try {
+            AuthenticatedUser authenticatedUser = authenticationService.getAuthenticatedUser(true);
+            PdfJob pdfJob = this.pdfJobService.createJob(ecmrId, new InternalOrExternalUser(authenticatedUser.getUser()));
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(pdfJob);
+        } catch (AuthenticationException e) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, e.getMessage());
+        } catch (NoPermissionException e) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, e.getMessage());
+        } catch (EcmrNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (RateLimitException e) {
+            throw new TooManyRequestsException(e);
+        }
+    }
+
+    /**
+     * Retrieves the status of a PDF job
+     *
+     * @param jobId The ID of the job
+     * @return The requested job
+     */
+    @GetMapping("/{jobId}")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(
+            tags = "PDF Job",
+            summary = "Retrieve PDF Job",
+            parameters = {
+                    @Parameter(name = "jobId", description = "UUID of the PDF job", required = true, schema = @Schema(type = "string", format = "uuid"))
+            },
+            responses = {
+                    @ApiResponse(description = "The requested PDF job",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = PdfJob.class))),
+                    @ApiResponse(description = "Unauthorized access", responseCode = "401"),
+                    @ApiResponse(description = "Forbidden access", responseCode = "403"),
+                    @ApiResponse(description = "PDF job not found", responseCode = "404")
+            })
+    public ResponseEntity<PdfJob> getPdfJob(@PathVariable("jobId") UUID jobId) {
+        try {
+            AuthenticatedUser authenticatedUser = authenticationService.getAuthenticatedUser(true);
+            return ResponseEntity.ok(this.pdfJobService.getJob(jobId, new InternalOrExternalUser(authenticatedUser.getUser())));
+        } catch (AuthenticationException e) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, e.getMessage());
+        } catch (NoPermissionException e) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, e.getMessage());
+        } catch (PdfJobNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    /**
+     * Downloads the PDF rendered by a completed job
+     *
+     * @param jobId The ID of the job
+     * @param request The request, for range requests
+     * @return The PDF file of the eCMR
+     */
+    @GetMapping("/{jobId}/result")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(
+            tags = "PDF Job",
+            summary = "Download PDF Job Result",
+            parameters = {
+                    @Parameter(name = "jobId", description = "UUID of the PDF job", required = true, schema = @Schema(type = "string", format = "uuid"))
+            },
+            responses = {
+                    @ApiResponse(description = "PDF file of the eCMR",
+                            content = @Content(
+                                    mediaType = "application/pdf")),
+                    @ApiResponse(description = "Requested range of the PDF file", responseCode = "206"),
+                    @ApiResponse(description = "Unauthorized access", responseCode = "401"),
+                    @ApiResponse(description = "Forbidden access", responseCode = "403"),
+                    @ApiResponse(description = "PDF job not found", responseCode = "404"),
+                    @ApiResponse(description = "PDF job has not completed", responseCode = "409"),
+                    @ApiResponse(description = "Requested range not satisfiable", responseCode = "416")
+            })
+    public ResponseEntity<StreamingResponseBody> downloadPdfJobResult(@PathVariable("jobId") UUID jobId, WebRequest request) {
+        try {
+            AuthenticatedUser authenticatedUser = authenticationService.getAuthenticatedUser(true);
+            StreamedFile pdfFile = this.pdfJobService.getJobResult(jobId, new InternalOrExternalUser(authenticatedUser.getUser()));
+            return createPdfResponse(pdfFile, request);
+        } catch (AuthenticationException e) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, e.getMessage());
+        } catch (NoPermissionException e) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, e.getMessage());
+        } catch (PdfJobNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (PdfJobNotCompletedException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+}
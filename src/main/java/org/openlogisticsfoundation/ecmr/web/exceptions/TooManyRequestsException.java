@@ -0,0 +1,32 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.web.exceptions;
+
+import org.openlogisticsfoundation.ecmr.domain.exceptions.RateLimitException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Answers a {@link RateLimitException} with 429 and, if the domain knows when to try again, a {@code Retry-After} header.
+ */
+public class TooManyRequestsException extends ResponseStatusException {
+    private final HttpHeaders headers = new HttpHeaders();
+
+    public TooManyRequestsException(RateLimitException e) {
+        super(HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+        if (e.getRetryAfter() != null) {
+            headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())));
+        }
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+}
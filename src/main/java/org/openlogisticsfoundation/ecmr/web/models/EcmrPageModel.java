@@ -11,6 +11,7 @@
 import java.util.List;
 
 import org.openlogisticsfoundation.ecmr.api.model.EcmrModel;
+import org.openlogisticsfoundation.ecmr.domain.models.CountMode;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -18,7 +19,12 @@
 @AllArgsConstructor
 @Getter
 public class EcmrPageModel {
-    private int totalPages;
-    private long totalElements;
+    /** Null if the count mode is {@link CountMode#NONE} */
+    private Integer totalPages;
+    /** Null if the count mode is {@link CountMode#NONE} */
+    private Long totalElements;
     private List<EcmrModel> ecmrs;
+    private boolean hasNext;
+    /** The count mode used for the totals, {@link CountMode#EXACT} if {@link CountMode#APPROXIMATE} is not supported by the database */
+    private CountMode countMode;
 }
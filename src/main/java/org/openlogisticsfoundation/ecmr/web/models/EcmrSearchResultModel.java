@@ -0,0 +1,31 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.web.models;
+
+import java.util.List;
+import java.util.Map;
+
+import org.openlogisticsfoundation.ecmr.api.model.EcmrStatus;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrSearchHit;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrTransportType;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrType;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class EcmrSearchResultModel {
+    private long total;
+    /** The best matching eCMRs, ordered by relevance */
+    private List<EcmrSearchHit> hits;
+    private Map<EcmrType, Long> types;
+    private Map<EcmrStatus, Long> statuses;
+    private Map<EcmrTransportType, Long> transportTypes;
+}
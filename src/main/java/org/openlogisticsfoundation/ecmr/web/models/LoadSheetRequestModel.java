@@ -0,0 +1,26 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+package org.openlogisticsfoundation.ecmr.web.models;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Selects the eCMRs of a load sheet, either by their ids or by the license plate of the truck and the day the goods are taken over.
+ */
+@AllArgsConstructor
+@Getter
+public class LoadSheetRequestModel {
+    private List<UUID> ecmrIds;
+    private String licensePlate;
+    private LocalDate date;
+}
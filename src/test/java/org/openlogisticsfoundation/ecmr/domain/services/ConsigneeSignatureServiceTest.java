@@ -0,0 +1,122 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.domain.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.openlogisticsfoundation.ecmr.api.model.signature.Signature;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.ValidationException;
+import org.openlogisticsfoundation.ecmr.persistence.entities.ConsigneeSignatureEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrEntity;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.ConsigneeSignatureRepository;
+
+public class ConsigneeSignatureServiceTest {
+
+    private static final byte[] IMAGE = new byte[] { 1, 2, 3 };
+
+    private final ConsigneeSignatureRepository consigneeSignatureRepository = mock(ConsigneeSignatureRepository.class);
+    private final ConsigneeSignatureService consigneeSignatureService = new ConsigneeSignatureService(consigneeSignatureRepository,
+            mock(EcmrService.class), mock(AuthorisationService.class));
+    private final EcmrEntity ecmrEntity = new EcmrEntity();
+
+    @BeforeEach
+    public void setUp() {
+        when(consigneeSignatureRepository.findByEcmrId(ecmrEntity.getEcmrId())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    public void testSaveSignature_Decoded() throws ValidationException {
+        // Arrange
+        Signature signature = createSignature("data:image/PNG;base64," + Base64.getEncoder().encodeToString(IMAGE));
+
+        // Act
+        consigneeSignatureService.saveSignature(ecmrEntity, signature);
+
+        // Assert
+        ArgumentCaptor<ConsigneeSignatureEntity> captor = ArgumentCaptor.forClass(ConsigneeSignatureEntity.class);
+        verify(consigneeSignatureRepository).save(captor.capture());
+        assertEquals("image/png", captor.getValue().getContentType());
+        assertEquals("consignee", captor.getValue().getUserName());
+        assertArrayEquals(IMAGE, captor.getValue().getData());
+    }
+
+    @Test
+    public void testSaveSignature_InvalidDataUrl() {
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> consigneeSignatureService.saveSignature(ecmrEntity, createSignature("not a data url")));
+        assertThrows(ValidationException.class,
+                () -> consigneeSignatureService.saveSignature(ecmrEntity, createSignature("data:text/plain;base64,AQID")));
+        assertThrows(ValidationException.class,
+                () -> consigneeSignatureService.saveSignature(ecmrEntity, createSignature("data:image/png,AQID")));
+        assertThrows(ValidationException.class,
+                () -> consigneeSignatureService.saveSignature(ecmrEntity, createSignature("data:image/png;base64,%%%")));
+        verify(consigneeSignatureRepository, never()).save(any());
+    }
+
+    @Test
+    public void testSaveSignature_WithoutImageKeepsStored() throws ValidationException {
+        // Act
+        consigneeSignatureService.saveSignature(ecmrEntity, createSignature(null));
+        consigneeSignatureService.saveSignature(ecmrEntity, null);
+
+        // Assert
+        verify(consigneeSignatureRepository, never()).findByEcmrId(any());
+        verify(consigneeSignatureRepository, never()).save(any());
+    }
+
+    @Test
+    public void testSaveSignature_UnchangedImageNotRewritten() throws ValidationException {
+        // Arrange
+        ConsigneeSignatureEntity stored = new ConsigneeSignatureEntity(ecmrEntity, "consignee", Instant.EPOCH, "image/png", IMAGE);
+        when(consigneeSignatureRepository.findByEcmrId(ecmrEntity.getEcmrId())).thenReturn(Optional.of(stored));
+
+        // Act
+        consigneeSignatureService.saveSignature(ecmrEntity, createSignature("data:image/png;base64," + Base64.getEncoder().encodeToString(IMAGE)));
+
+        // Assert
+        verify(consigneeSignatureRepository, never()).delete(any());
+        verify(consigneeSignatureRepository, never()).save(any());
+    }
+
+    @Test
+    public void testSaveSignature_ChangedImageReplaced() throws ValidationException {
+        // Arrange
+        ConsigneeSignatureEntity stored = new ConsigneeSignatureEntity(ecmrEntity, "consignee", Instant.EPOCH, "image/png", new byte[] { 4 });
+        when(consigneeSignatureRepository.findByEcmrId(ecmrEntity.getEcmrId())).thenReturn(Optional.of(stored));
+
+        // Act
+        consigneeSignatureService.saveSignature(ecmrEntity, createSignature("data:image/png;base64," + Base64.getEncoder().encodeToString(IMAGE)));
+
+        // Assert
+        verify(consigneeSignatureRepository).delete(stored);
+        verify(consigneeSignatureRepository).save(any(ConsigneeSignatureEntity.class));
+    }
+
+    private static Signature createSignature(String data) {
+        Signature signature = new Signature();
+        signature.setUserName("consignee");
+        signature.setTimestamp(Instant.EPOCH);
+        signature.setData(data);
+        return signature;
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.domain.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.EcmrNotFoundException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.RateLimitException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.ValidationException;
+import org.openlogisticsfoundation.ecmr.domain.models.InternalOrExternalUser;
+import org.openlogisticsfoundation.ecmr.domain.models.StreamedFile;
+
+public class EcmrBulkPdfServiceTest {
+
+    private final EcmrPdfService ecmrPdfService = mock(EcmrPdfService.class);
+    private final InternalOrExternalUser user = mock(InternalOrExternalUser.class);
+    private EcmrBulkPdfService ecmrBulkPdfService;
+
+    @AfterEach
+    public void tearDown() {
+        ecmrBulkPdfService.shutdown();
+    }
+
+    @Test
+    public void testCreatePdfArchive_EntriesInOrderOfIds() throws Exception {
+        // Arrange
+        ecmrBulkPdfService = new EcmrBulkPdfService(ecmrPdfService, 4, 4, 1);
+        UUID slow = UUID.randomUUID();
+        UUID fast = UUID.randomUUID();
+        this.mockPdf(slow, "eCMR-slow.pdf", 200);
+        this.mockPdf(fast, "eCMR-fast.pdf", 0);
+
+        // Act
+        Map<String, byte[]> entries = this.writeArchive(List.of(slow, fast));
+
+        // Assert
+        assertEquals(List.of("eCMR-slow.pdf", "eCMR-fast.pdf"), new ArrayList<>(entries.keySet()));
+        assertArrayEquals("eCMR-slow.pdf".getBytes(StandardCharsets.UTF_8), entries.get("eCMR-slow.pdf"));
+    }
+
+    @Test
+    public void testCreatePdfArchive_DuplicateFilenames() throws Exception {
+        // Arrange
+        ecmrBulkPdfService = new EcmrBulkPdfService(ecmrPdfService, 2, 2, 1);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        this.mockPdf(first, "eCMR-REF.pdf", 0);
+        this.mockPdf(second, "eCMR-REF.pdf", 0);
+
+        // Act
+        Map<String, byte[]> entries = this.writeArchive(List.of(first, second));
+
+        // Assert
+        assertEquals(List.of("eCMR-REF.pdf", "eCMR-REF-" + second + ".pdf"), new ArrayList<>(entries.keySet()));
+    }
+
+    @Test
+    public void testCreatePdfArchive_FailedEcmrsListedInErrors() throws Exception {
+        // Arrange
+        ecmrBulkPdfService = new EcmrBulkPdfService(ecmrPdfService, 2, 2, 1);
+        UUID missing = UUID.randomUUID();
+        UUID existing = UUID.randomUUID();
+        when(ecmrPdfService.createJasperReportForEcmr(eq(missing), any(InternalOrExternalUser.class), eq(true), eq(true)))
+                .thenThrow(new EcmrNotFoundException(missing));
+        this.mockPdf(existing, "eCMR-existing.pdf", 0);
+
+        // Act
+        Map<String, byte[]> entries = this.writeArchive(List.of(missing, existing));
+
+        // Assert
+        assertEquals(List.of("eCMR-existing.pdf", "errors.txt"), new ArrayList<>(entries.keySet()));
+        assertTrue(new String(entries.get("errors.txt"), StandardCharsets.UTF_8).startsWith(missing + ": "));
+    }
+
+    @Test
+    public void testCreatePdfArchive_WindowBoundsRenderings() throws Exception {
+        // Arrange
+        ecmrBulkPdfService = new EcmrBulkPdfService(ecmrPdfService, 4, 2, 1);
+        List<UUID> ids = IntStream.range(0, 8).mapToObj(i -> UUID.randomUUID()).toList();
+        AtomicInteger running = new AtomicInteger();
+        List<Integer> concurrency = Collections.synchronizedList(new ArrayList<>());
+        for (UUID id : ids) {
+            when(ecmrPdfService.createJasperReportForEcmr(eq(id), any(InternalOrExternalUser.class), eq(true), eq(true))).thenAnswer(invocation -> {
+                concurrency.add(running.incrementAndGet());
+                Thread.sleep(20);
+                running.decrementAndGet();
+                return new StreamedFile("eCMR-" + id + ".pdf", StreamedFile.APPLICATION_PDF, new byte[] { 1 });
+            });
+        }
+
+        // Act
+        Map<String, byte[]> entries = this.writeArchive(ids);
+
+        // Assert
+        assertEquals(8, entries.size());
+        assertTrue(concurrency.stream().allMatch(count -> count <= 2), concurrency.toString());
+    }
+
+    @Test
+    public void testCreatePdfArchive_TooManyEcmrs() {
+        // Arrange
+        ecmrBulkPdfService = new EcmrBulkPdfService(ecmrPdfService, 1, 1, 1);
+        List<UUID> ids = IntStream.rangeClosed(0, EcmrBulkPdfService.ARCHIVE_MAX_DOCUMENTS).mapToObj(i -> UUID.randomUUID()).toList();
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> ecmrBulkPdfService.createPdfArchive(ids, user, true));
+    }
+
+    @Test
+    public void testCreatePdfArchive_TooManyArchives() throws Exception {
+        // Arrange
+        ecmrBulkPdfService = new EcmrBulkPdfService(ecmrPdfService, 1, 1, 1);
+        StreamedFile archive = ecmrBulkPdfService.createPdfArchive(List.of(), user, true);
+
+        // Act & Assert
+        assertThrows(RateLimitException.class, () -> ecmrBulkPdfService.createPdfArchive(List.of(), user, true));
+        archive.discard();
+        ecmrBulkPdfService.createPdfArchive(List.of(), user, true).writeTo(new ByteArrayOutputStream());
+        ecmrBulkPdfService.createPdfArchive(List.of(), user, true).discard();
+    }
+
+    private void mockPdf(UUID ecmrId, String filename, long delayMillis) throws Exception {
+        when(ecmrPdfService.createJasperReportForEcmr(eq(ecmrId), any(InternalOrExternalUser.class), eq(true), eq(true))).thenAnswer(invocation -> {
+            Thread.sleep(delayMillis);
+            return new StreamedFile(filename, StreamedFile.APPLICATION_PDF, filename.getBytes(StandardCharsets.UTF_8));
+        });
+    }
+
+    private Map<String, byte[]> writeArchive(List<UUID> ecmrIds) throws ValidationException, RateLimitException, IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ecmrBulkPdfService.createPdfArchive(ecmrIds, user, true).writeTo(outputStream);
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                entries.put(entry.getName(), zipInputStream.readAllBytes());
+            }
+        }
+        return entries;
+    }
+}
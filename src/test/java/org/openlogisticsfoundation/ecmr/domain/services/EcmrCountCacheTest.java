@@ -0,0 +1,109 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.domain.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrFacetCount;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrType;
+import org.openlogisticsfoundation.ecmr.domain.models.commands.FilterRequestCommand;
+
+public class EcmrCountCacheTest {
+
+    private final FilterRequestCommand filter = new FilterRequestCommand(null, null, null, null, null, null, null, null, null, null);
+    private final AtomicLong counted = new AtomicLong();
+
+    @Test
+    public void testGetCount_CachedPerUserTypeAndFilter() {
+        // Arrange
+        EcmrCountCache ecmrCountCache = new EcmrCountCache(Duration.ofHours(1), 10);
+        FilterRequestCommand equalFilter = new FilterRequestCommand(null, null, null, null, null, null, null, null, null, null);
+        FilterRequestCommand otherFilter = new FilterRequestCommand("reference", null, null, null, null, null, null, null, null, null);
+
+        // Act
+        ecmrCountCache.getCount(1, EcmrType.ECMR, filter, counted::incrementAndGet);
+        long cached = ecmrCountCache.getCount(1, EcmrType.ECMR, equalFilter, counted::incrementAndGet);
+        ecmrCountCache.getCount(2, EcmrType.ECMR, filter, counted::incrementAndGet);
+        ecmrCountCache.getCount(1, EcmrType.TEMPLATE, filter, counted::incrementAndGet);
+        ecmrCountCache.getCount(1, EcmrType.ECMR, otherFilter, counted::incrementAndGet);
+        List<EcmrFacetCount> facetCounts = ecmrCountCache.getFacetCounts(1, filter, List::of);
+
+        // Assert
+        assertEquals(1, cached);
+        assertEquals(4, counted.get());
+        assertEquals(List.of(), facetCounts);
+        assertEquals(5, ecmrCountCache.size());
+    }
+
+    @Test
+    public void testGetCount_ExpiredCountRecounted() throws InterruptedException {
+        // Arrange
+        EcmrCountCache ecmrCountCache = new EcmrCountCache(Duration.ZERO, 10);
+        ecmrCountCache.getCount(1, EcmrType.ECMR, filter, counted::incrementAndGet);
+        Thread.sleep(10);
+
+        // Act
+        long count = ecmrCountCache.getCount(1, EcmrType.ECMR, filter, counted::incrementAndGet);
+
+        // Assert
+        assertEquals(2, count);
+        assertEquals(1, ecmrCountCache.size());
+    }
+
+    @Test
+    public void testRemoveExpiredCounts() throws InterruptedException {
+        // Arrange
+        EcmrCountCache ecmrCountCache = new EcmrCountCache(Duration.ZERO, 10);
+        ecmrCountCache.getCount(1, EcmrType.ECMR, filter, counted::incrementAndGet);
+        ecmrCountCache.getCount(2, EcmrType.ECMR, filter, counted::incrementAndGet);
+        Thread.sleep(10);
+
+        // Act
+        ecmrCountCache.removeExpiredCounts();
+
+        // Assert
+        assertEquals(0, ecmrCountCache.size());
+    }
+
+    @Test
+    public void testGetCount_LeastRecentlyUsedEvicted() {
+        // Arrange
+        EcmrCountCache ecmrCountCache = new EcmrCountCache(Duration.ofHours(1), 2);
+        ecmrCountCache.getCount(1, EcmrType.ECMR, filter, counted::incrementAndGet);
+        ecmrCountCache.getCount(2, EcmrType.ECMR, filter, counted::incrementAndGet);
+        ecmrCountCache.getCount(1, EcmrType.ECMR, filter, counted::incrementAndGet);
+
+        // Act
+        ecmrCountCache.getCount(3, EcmrType.ECMR, filter, counted::incrementAndGet);
+
+        // Assert
+        assertEquals(2, ecmrCountCache.size());
+        assertEquals(1, ecmrCountCache.getCount(1, EcmrType.ECMR, filter, counted::incrementAndGet));
+        assertEquals(4, ecmrCountCache.getCount(2, EcmrType.ECMR, filter, counted::incrementAndGet));
+    }
+
+    @Test
+    public void testGetCount_Disabled() {
+        // Arrange
+        EcmrCountCache ecmrCountCache = new EcmrCountCache(Duration.ofHours(1), 0);
+
+        // Act
+        ecmrCountCache.getCount(1, EcmrType.ECMR, filter, counted::incrementAndGet);
+        ecmrCountCache.getCount(1, EcmrType.ECMR, filter, counted::incrementAndGet);
+
+        // Assert
+        assertEquals(2, counted.get());
+        assertEquals(0, ecmrCountCache.size());
+    }
+}
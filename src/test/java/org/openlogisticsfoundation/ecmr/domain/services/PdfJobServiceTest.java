@@ -0,0 +1,193 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.domain.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.NoPermissionException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.PdfCreationException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.PdfJobNotCompletedException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.PdfJobNotFoundException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.RateLimitException;
+import org.openlogisticsfoundation.ecmr.domain.models.CountryCode;
+import org.openlogisticsfoundation.ecmr.domain.models.InternalOrExternalUser;
+import org.openlogisticsfoundation.ecmr.domain.models.PdfJob;
+import org.openlogisticsfoundation.ecmr.domain.models.PdfJobStatus;
+import org.openlogisticsfoundation.ecmr.domain.models.StreamedFile;
+import org.openlogisticsfoundation.ecmr.domain.models.User;
+import org.openlogisticsfoundation.ecmr.domain.models.UserRole;
+
+public class PdfJobServiceTest {
+
+    private static final byte[] PDF = new byte[] { 1, 2, 3 };
+
+    private final EcmrPdfService ecmrPdfService = mock(EcmrPdfService.class);
+    private final EcmrService ecmrService = mock(EcmrService.class);
+    private final AuthorisationService authorisationService = mock(AuthorisationService.class);
+    private final InternalOrExternalUser owner = createUser(1);
+    private final InternalOrExternalUser otherOwner = createUser(2);
+    private final UUID ecmrId = UUID.randomUUID();
+    private final CountDownLatch rendering = new CountDownLatch(1);
+    private PdfJobService pdfJobService;
+
+    @TempDir
+    private Path spoolDirectory;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        when(ecmrService.existsByEcmrId(ecmrId)).thenReturn(true);
+        when(ecmrPdfService.createJasperReportForEcmr(eq(ecmrId), any(InternalOrExternalUser.class), eq(true), eq(true))).thenAnswer(invocation -> {
+            rendering.await();
+            return new StreamedFile("eCMR-REF.pdf", StreamedFile.APPLICATION_PDF, PDF);
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        rendering.countDown();
+        pdfJobService.shutdown();
+    }
+
+    @Test
+    public void testCreateJob_PendingJobsPerOwnerLimited() throws Exception {
+        // Arrange
+        pdfJobService = this.createPdfJobService(Duration.ofHours(1), 10, 2);
+        pdfJobService.createJob(ecmrId, owner);
+        pdfJobService.createJob(ecmrId, owner);
+
+        // Act & Assert
+        assertThrows(RateLimitException.class, () -> pdfJobService.createJob(ecmrId, owner));
+        pdfJobService.createJob(ecmrId, otherOwner);
+    }
+
+    @Test
+    public void testCreateJob_PendingJobsLimited() throws Exception {
+        // Arrange
+        pdfJobService = this.createPdfJobService(Duration.ofHours(1), 2, 2);
+        pdfJobService.createJob(ecmrId, owner);
+        pdfJobService.createJob(ecmrId, otherOwner);
+
+        // Act & Assert
+        assertThrows(RateLimitException.class, () -> pdfJobService.createJob(ecmrId, createUser(3)));
+    }
+
+    @Test
+    public void testGetJobResult_Completed() throws Exception {
+        // Arrange
+        pdfJobService = this.createPdfJobService(Duration.ofHours(1), 10, 2);
+        PdfJob job = pdfJobService.createJob(ecmrId, owner);
+        assertThrows(PdfJobNotCompletedException.class, () -> pdfJobService.getJobResult(job.getJobId(), owner));
+        rendering.countDown();
+        this.awaitStatus(job.getJobId(), PdfJobStatus.COMPLETED);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        StreamedFile pdfFile = pdfJobService.getJobResult(job.getJobId(), owner);
+        pdfFile.writeTo(outputStream);
+
+        // Assert
+        assertEquals("eCMR-REF.pdf", pdfFile.getFilename());
+        assertEquals(PDF.length, pdfFile.getContentLength());
+        assertArrayEquals(PDF, outputStream.toByteArray());
+        // a finished job no longer counts as pending
+        pdfJobService.createJob(ecmrId, owner);
+        pdfJobService.createJob(ecmrId, owner);
+    }
+
+    @Test
+    public void testGetJob_OtherOwner() throws Exception {
+        // Arrange
+        pdfJobService = this.createPdfJobService(Duration.ofHours(1), 10, 2);
+        PdfJob job = pdfJobService.createJob(ecmrId, owner);
+
+        // Act & Assert
+        assertThrows(NoPermissionException.class, () -> pdfJobService.getJob(job.getJobId(), otherOwner));
+        assertThrows(NoPermissionException.class, () -> pdfJobService.getJobResult(job.getJobId(), otherOwner));
+        assertThrows(PdfJobNotFoundException.class, () -> pdfJobService.getJob(UUID.randomUUID(), owner));
+    }
+
+    @Test
+    public void testGetJob_FailedWithGenericMessage() throws Exception {
+        // Arrange
+        pdfJobService = this.createPdfJobService(Duration.ofHours(1), 10, 2);
+        UUID failingEcmrId = UUID.randomUUID();
+        when(ecmrService.existsByEcmrId(failingEcmrId)).thenReturn(true);
+        when(ecmrPdfService.createJasperReportForEcmr(eq(failingEcmrId), any(InternalOrExternalUser.class), eq(true), eq(true)))
+                .thenThrow(new PdfCreationException("Error generating report: /internal/path"));
+
+        // Act
+        PdfJob job = pdfJobService.createJob(failingEcmrId, owner);
+
+        // Assert
+        PdfJob failedJob = this.awaitStatus(job.getJobId(), PdfJobStatus.FAILED);
+        assertFalse(failedJob.getErrorMessage().contains("/internal/path"));
+    }
+
+    @Test
+    public void testRemoveExpiredJobs() throws Exception {
+        // Arrange
+        pdfJobService = this.createPdfJobService(Duration.ZERO, 10, 2);
+        rendering.countDown();
+        PdfJob job = pdfJobService.createJob(ecmrId, owner);
+        this.awaitStatus(job.getJobId(), PdfJobStatus.COMPLETED);
+        Thread.sleep(10);
+
+        // Act
+        pdfJobService.removeExpiredJobs();
+
+        // Assert
+        assertThrows(PdfJobNotFoundException.class, () -> pdfJobService.getJob(job.getJobId(), owner));
+        try (Stream<Path> files = Files.list(spoolDirectory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private PdfJobService createPdfJobService(Duration timeToLive, int maxPending, int maxPendingPerOwner) throws IOException {
+        PdfJobService service = new PdfJobService(ecmrPdfService, ecmrService, authorisationService, spoolDirectory, timeToLive, 1, maxPending,
+                maxPendingPerOwner, Duration.ofSeconds(5));
+        service.init();
+        return service;
+    }
+
+    private PdfJob awaitStatus(UUID jobId, PdfJobStatus status) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        PdfJob job;
+        while ((job = pdfJobService.getJob(jobId, owner)).getStatus() != status) {
+            assertTrue(System.nanoTime() < deadline, "Job is still " + job.getStatus());
+            Thread.sleep(10);
+        }
+        return job;
+    }
+
+    private static InternalOrExternalUser createUser(long id) {
+        return new InternalOrExternalUser(new User(id, "first", "last", CountryCode.DE, "user" + id + "@test.de", null, UserRole.User, null, false,
+                false));
+    }
+}
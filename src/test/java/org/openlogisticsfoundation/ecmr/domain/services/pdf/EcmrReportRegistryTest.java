@@ -0,0 +1,95 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.domain.services.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
+
+public class EcmrReportRegistryTest {
+
+    private static final Pattern PAGE = Pattern.compile("/Type\\s*/Page\\b");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final EcmrReportRegistry ecmrReportRegistry = new EcmrReportRegistry(false, false, meterRegistry);
+
+    @Test
+    public void testGetReport_CompiledOnce() throws JRException {
+        // Act
+        JasperReport first = ecmrReportRegistry.getReport();
+        JasperReport second = ecmrReportRegistry.getReport();
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(1, meterRegistry.get("ecmr.pdf.compile").timer().count());
+    }
+
+    @Test
+    public void testExportToPdf_Merged() throws JRException {
+        // Arrange
+        JasperPrint first = ecmrReportRegistry.fill(fillParameters());
+        JasperPrint second = ecmrReportRegistry.fill(fillParameters());
+        ByteArrayOutputStream single = new ByteArrayOutputStream();
+        ByteArrayOutputStream merged = new ByteArrayOutputStream();
+
+        // Act
+        long singleSize = ecmrReportRegistry.exportToPdf(first, true, single);
+        long mergedSize = ecmrReportRegistry.exportToPdf(List.of(first, second), true, merged);
+
+        // Assert
+        assertEquals(single.size(), singleSize);
+        assertEquals(merged.size(), mergedSize);
+        assertEquals(first.getPages().size(), countPages(single));
+        assertEquals(first.getPages().size() + second.getPages().size(), countPages(merged));
+    }
+
+    @Test
+    public void testExportFirstPageToPng() throws JRException, IOException {
+        // Arrange
+        JasperPrint jasperPrint = ecmrReportRegistry.fill(fillParameters());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        ecmrReportRegistry.exportFirstPageToPng(jasperPrint, 200, true, outputStream);
+
+        // Assert
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(outputStream.toByteArray()));
+        assertEquals(200, image.getWidth());
+        assertEquals(Math.round(jasperPrint.getPageHeight() * 200f / jasperPrint.getPageWidth()), image.getHeight());
+    }
+
+    static Map<String, Object> fillParameters() {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("items", new JRBeanCollectionDataSource(List.of()));
+        return parameters;
+    }
+
+    private static long countPages(ByteArrayOutputStream pdf) {
+        return PAGE.matcher(pdf.toString(StandardCharsets.ISO_8859_1)).results().count();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.domain.services.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperPrint;
+
+public class FilledReportCacheTest {
+
+    private static final Pattern IMAGE = Pattern.compile("/Subtype\\s*/Image\\b");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void testGet_LeastRecentlyUsedEvicted() {
+        // Arrange
+        FilledReportCache filledReportCache = new FilledReportCache(2, meterRegistry);
+        JasperPrint first = new JasperPrint();
+        filledReportCache.put("first", first);
+        filledReportCache.put("second", new JasperPrint());
+        filledReportCache.get("first");
+
+        // Act
+        filledReportCache.put("third", new JasperPrint());
+
+        // Assert
+        assertSame(first, filledReportCache.get("first").orElseThrow());
+        assertTrue(filledReportCache.get("second").isEmpty());
+        assertTrue(filledReportCache.get("third").isPresent());
+        assertEquals(2, filledReportCache.size());
+        assertEquals(3, meterRegistry.get("ecmr.pdf.fill-cache.requests").tag("result", "hit").counter().count());
+        assertEquals(1, meterRegistry.get("ecmr.pdf.fill-cache.requests").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    public void testPut_WithoutVersionNotCached() {
+        // Arrange
+        FilledReportCache filledReportCache = new FilledReportCache(2, meterRegistry);
+
+        // Act
+        filledReportCache.put(null, new JasperPrint());
+
+        // Assert
+        assertEquals(0, filledReportCache.size());
+        assertTrue(filledReportCache.get(null).isEmpty());
+    }
+
+    @Test
+    public void testPut_Disabled() {
+        // Arrange
+        FilledReportCache filledReportCache = new FilledReportCache(0, meterRegistry);
+
+        // Act
+        filledReportCache.put("version", new JasperPrint());
+
+        // Assert
+        assertTrue(filledReportCache.get("version").isEmpty());
+    }
+
+    @Test
+    public void testGet_OriginalAndCopyFromOneFill() throws JRException {
+        // Arrange
+        EcmrReportRegistry ecmrReportRegistry = new EcmrReportRegistry(false, false, meterRegistry);
+        ReportAssetRegistry reportAssetRegistry = new ReportAssetRegistry(new DefaultResourceLoader(), new ReportImageOptimizer(150), null);
+        reportAssetRegistry.init();
+        Map<String, Object> parameters = EcmrReportRegistryTest.fillParameters();
+        parameters.put("watermark", reportAssetRegistry.getWatermark());
+        FilledReportCache filledReportCache = new FilledReportCache(2, meterRegistry);
+        filledReportCache.put("version", ecmrReportRegistry.fill(parameters));
+        ByteArrayOutputStream original = new ByteArrayOutputStream();
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        // Act
+        ecmrReportRegistry.exportToPdf(filledReportCache.get("version").orElseThrow(), false, original);
+        ecmrReportRegistry.exportToPdf(filledReportCache.get("version").orElseThrow(), true, copy);
+
+        // Assert
+        assertEquals(1, meterRegistry.get("ecmr.pdf.fill").timer().count());
+        assertFalse(IMAGE.matcher(original.toString(StandardCharsets.ISO_8859_1)).find());
+        assertTrue(IMAGE.matcher(copy.toString(StandardCharsets.ISO_8859_1)).find());
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.domain.services.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.openlogisticsfoundation.ecmr.domain.models.StreamedFile;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class PdfCacheTest {
+
+    private static final int MB = 1024 * 1024;
+
+    @TempDir
+    private Path directory;
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    public void testGet_Range(boolean memoryMapped) throws IOException {
+        // Arrange
+        PdfCache pdfCache = this.createPdfCache(1, memoryMapped);
+        byte[] data = new byte[100_000];
+        Arrays.fill(data, 70_000, 70_010, (byte) 7);
+        String key = pdfCache.key("version", true);
+        this.writeThrough(pdfCache, key, data, OutputStream.nullOutputStream());
+        StreamedFile pdfFile = pdfCache.get(key, "test.pdf").orElseThrow();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        pdfFile.writeTo(outputStream, 69_999, 12);
+
+        // Assert
+        assertArrayEquals(Arrays.copyOfRange(data, 69_999, 70_011), outputStream.toByteArray());
+    }
+
+    @Test
+    public void testWriteThrough_CachesCompleteFile() throws IOException {
+        // Arrange
+        PdfCache pdfCache = this.createPdfCache(1, false);
+        byte[] data = new byte[] { 1, 2, 3, 4, 5 };
+        String key = pdfCache.key("version", true);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        this.writeThrough(pdfCache, key, data, outputStream);
+
+        // Assert
+        assertArrayEquals(data, outputStream.toByteArray());
+        assertTrue(pdfCache.contains(key));
+        StreamedFile cached = pdfCache.get(key, "test.pdf").orElseThrow();
+        ByteArrayOutputStream cachedOutputStream = new ByteArrayOutputStream();
+        cached.writeTo(cachedOutputStream);
+        assertEquals(5L, cached.getContentLength());
+        assertEquals(StreamedFile.APPLICATION_PDF, cached.getContentType());
+        assertArrayEquals(data, cachedOutputStream.toByteArray());
+    }
+
+    @Test
+    public void testWriteThrough_FailedWriteNotCached() throws IOException {
+        // Arrange
+        PdfCache pdfCache = this.createPdfCache(1, false);
+        String key = pdfCache.key("version", true);
+        StreamedFile pdfFile = pdfCache.writeThrough(key, new StreamedFile("test.pdf", StreamedFile.APPLICATION_PDF, null, outputStream -> {
+            outputStream.write(new byte[] { 1, 2, 3 });
+            throw new IOException("Export failed");
+        }));
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> pdfFile.writeTo(OutputStream.nullOutputStream()));
+        assertFalse(pdfCache.contains(key));
+        assertEquals(0, pdfCache.getCurrentSizeBytes());
+        assertEquals(List.of(), this.listDirectory());
+    }
+
+    @Test
+    public void testWriteThrough_LargerThanCacheNotCached() throws IOException {
+        // Arrange
+        PdfCache pdfCache = this.createPdfCache(1, false);
+        byte[] data = new byte[2 * MB];
+        String key = pdfCache.key("version", true);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        this.writeThrough(pdfCache, key, data, outputStream);
+
+        // Assert
+        assertEquals(data.length, outputStream.size());
+        assertFalse(pdfCache.contains(key));
+        assertEquals(List.of(), this.listDirectory());
+    }
+
+    @Test
+    public void testWriteThrough_EvictsLeastRecentlyUsed() throws IOException {
+        // Arrange
+        PdfCache pdfCache = this.createPdfCache(1, false);
+        String first = pdfCache.key("first", true);
+        String second = pdfCache.key("second", true);
+        String third = pdfCache.key("third", true);
+        this.writeThrough(pdfCache, first, new byte[MB / 3], OutputStream.nullOutputStream());
+        this.writeThrough(pdfCache, second, new byte[MB / 3], OutputStream.nullOutputStream());
+        pdfCache.get(first, "test.pdf").orElseThrow().discard();
+
+        // Act
+        this.writeThrough(pdfCache, third, new byte[MB / 2], OutputStream.nullOutputStream());
+
+        // Assert
+        assertTrue(pdfCache.contains(first));
+        assertFalse(pdfCache.contains(second));
+        assertTrue(pdfCache.contains(third));
+        assertEquals(MB / 3 + MB / 2, pdfCache.getCurrentSizeBytes());
+        assertEquals(List.of(first, third).stream().sorted().toList(), this.listDirectory());
+    }
+
+    @Test
+    public void testInit_RemovesTemporaryFiles() throws IOException {
+        // Arrange
+        String key = new PdfCache(true, directory, 1, false, new SimpleMeterRegistry()).key("version", false);
+        Files.write(directory.resolve(key), new byte[] { 1, 2, 3 });
+        Files.write(directory.resolve(key + "12345.tmp"), new byte[] { 1 });
+        Files.write(directory.resolve("unrelated.txt"), new byte[] { 1 });
+
+        // Act
+        PdfCache pdfCache = this.createPdfCache(1, false);
+
+        // Assert
+        assertTrue(pdfCache.contains(key));
+        assertEquals(3, pdfCache.getCurrentSizeBytes());
+        assertEquals(List.of(key, "unrelated.txt"), this.listDirectory());
+    }
+
+    @Test
+    public void testKey() {
+        // Arrange
+        PdfCache pdfCache = this.createPdfCache(1, false);
+
+        // Act
+        Set<String> keys = Set.of(pdfCache.key("version", true), pdfCache.key("version", false), pdfCache.key("other version", true),
+                pdfCache.previewKey("version", 200, true), pdfCache.previewKey("version", 400, true));
+
+        // Assert
+        assertEquals(5, keys.size());
+        assertEquals(pdfCache.key("version", true), pdfCache.key("version", true));
+        assertTrue(pdfCache.key("version", true).endsWith(".pdf"));
+        assertTrue(pdfCache.previewKey("version", 200, true).endsWith(".png"));
+    }
+
+    private PdfCache createPdfCache(long maxSizeMb, boolean memoryMapped) {
+        PdfCache pdfCache = new PdfCache(true, directory, maxSizeMb, memoryMapped, new SimpleMeterRegistry());
+        pdfCache.init();
+        return pdfCache;
+    }
+
+    private void writeThrough(PdfCache pdfCache, String key, byte[] data, OutputStream outputStream) throws IOException {
+        pdfCache.writeThrough(key, new StreamedFile("test.pdf", StreamedFile.APPLICATION_PDF, null, stream -> stream.write(data)))
+                .writeTo(outputStream);
+    }
+
+    private List<String> listDirectory() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+}
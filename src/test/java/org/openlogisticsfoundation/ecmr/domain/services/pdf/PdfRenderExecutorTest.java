@@ -0,0 +1,128 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.domain.services.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.RateLimitException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.sf.jasperreports.engine.JRException;
+
+public class PdfRenderExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PdfRenderExecutor pdfRenderExecutor = new PdfRenderExecutor(1, 1, Duration.ofSeconds(5), meterRegistry);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        pdfRenderExecutor.shutdown();
+    }
+
+    @Test
+    public void testSubmit_QueueFull() throws Exception {
+        // Arrange
+        pdfRenderExecutor.submit(this::block, false);
+        pdfRenderExecutor.submit(() -> "queued", false);
+        started.await();
+
+        // Act
+        RateLimitException exception = assertThrows(RateLimitException.class, () -> pdfRenderExecutor.submit(() -> "rejected", false));
+
+        // Assert
+        assertEquals(Duration.ofSeconds(5), exception.getRetryAfter());
+        assertEquals(1, meterRegistry.get("ecmr.pdf.render.rejections").counter().count());
+        assertEquals(1, meterRegistry.get("ecmr.pdf.render.queue").gauge().value());
+        assertEquals(1, meterRegistry.get("ecmr.pdf.render.active").gauge().value());
+    }
+
+    @Test
+    public void testSubmit_WaitForCapacity() throws Exception {
+        // Arrange
+        Future<String> running = pdfRenderExecutor.submit(this::block, false);
+        Future<String> queued = pdfRenderExecutor.submit(() -> "queued", false);
+        started.await();
+        CompletableFuture<String> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pdfRenderExecutor.execute(() -> "waited", true);
+            } catch (JRException | RateLimitException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Act
+        assertThrows(TimeoutException.class, () -> waiting.get(100, TimeUnit.MILLISECONDS));
+        release.countDown();
+
+        // Assert
+        assertEquals("waited", waiting.get(5, TimeUnit.SECONDS));
+        assertEquals("running", pdfRenderExecutor.await(running));
+        assertEquals("queued", pdfRenderExecutor.await(queued));
+        assertEquals(0, meterRegistry.get("ecmr.pdf.render.rejections").counter().count());
+        assertEquals(3, meterRegistry.get("ecmr.pdf.render.wait").timer().count());
+    }
+
+    @Test
+    public void testExecute_FailedTaskReleasesSlot() throws Exception {
+        // Arrange
+        JRException failure = new JRException("Fill failed");
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            assertEquals(failure, assertThrows(JRException.class, () -> pdfRenderExecutor.execute(() -> {
+                throw failure;
+            }, false)));
+        }
+
+        // Assert
+        assertEquals("filled", pdfRenderExecutor.execute(() -> "filled", false));
+    }
+
+    @Test
+    public void testSubmit_CancelledTaskReleasesSlot() throws Exception {
+        // Arrange
+        pdfRenderExecutor.submit(this::block, false);
+        Future<String> queued = pdfRenderExecutor.submit(() -> "queued", false);
+        started.await();
+
+        // Act
+        queued.cancel(false);
+
+        // Assert
+        Future<String> next = pdfRenderExecutor.submit(() -> "next", false);
+        assertFalse(next.isDone());
+        release.countDown();
+        assertEquals("next", pdfRenderExecutor.await(next));
+    }
+
+    private String block() throws JRException {
+        started.countDown();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JRException(e);
+        }
+        return "running";
+    }
+}
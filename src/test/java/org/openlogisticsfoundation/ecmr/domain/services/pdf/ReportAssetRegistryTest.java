@@ -0,0 +1,129 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.domain.services.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.renderers.DataRenderable;
+
+public class ReportAssetRegistryTest {
+
+    @TempDir
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        Files.createDirectories(directory.resolve("texts"));
+        Files.createDirectories(directory.resolve("images"));
+    }
+
+    @Test
+    public void testInit_BundledAssets() throws IOException {
+        // Arrange
+        ReportAssetRegistry reportAssetRegistry = this.createReportAssetRegistry(null);
+
+        // Act
+        reportAssetRegistry.init();
+
+        // Assert
+        assertTrue(reportAssetRegistry.getLanguages().containsAll(Set.of("EN", "DE")));
+        assertFalse(reportAssetRegistry.getText("en", "InternationalTransport").isEmpty());
+        assertThrows(IOException.class, () -> reportAssetRegistry.getText("EN", "Missing"));
+        assertThrows(IOException.class, () -> reportAssetRegistry.getText("XX", "InternationalTransport"));
+    }
+
+    @Test
+    public void testInit_OverridesFromDirectory() throws IOException, JRException {
+        // Arrange
+        byte[] logo = new byte[] { 1, 2, 3 };
+        this.write("texts/EN_InternationalTransport.txt", "Overridden", 1);
+        this.write("texts/FR_NationalTransport.txt", "Transport national", 1);
+        Files.write(directory.resolve("images").resolve(ReportAssetRegistry.LOGO), logo);
+        ReportAssetRegistry reportAssetRegistry = this.createReportAssetRegistry(directory);
+
+        // Act
+        reportAssetRegistry.init();
+
+        // Assert
+        assertEquals("Overridden", reportAssetRegistry.getText("EN", "InternationalTransport"));
+        assertEquals("Transport national", reportAssetRegistry.getText("FR", "NationalTransport"));
+        assertArrayEquals(logo, ((DataRenderable) reportAssetRegistry.getLogo()).getData(DefaultJasperReportsContext.getInstance()));
+    }
+
+    @Test
+    public void testReloadIfChanged_ChangedText() throws IOException {
+        // Arrange
+        this.write("texts/EN_InternationalTransport.txt", "Before", 1);
+        ReportAssetRegistry reportAssetRegistry = this.createReportAssetRegistry(directory);
+        reportAssetRegistry.init();
+        String version = reportAssetRegistry.getVersion();
+        this.write("texts/EN_InternationalTransport.txt", "After", 2);
+
+        // Act
+        reportAssetRegistry.reloadIfChanged();
+
+        // Assert
+        assertEquals("After", reportAssetRegistry.getText("EN", "InternationalTransport"));
+        assertNotEquals(version, reportAssetRegistry.getVersion());
+    }
+
+    @Test
+    public void testReloadIfChanged_Unchanged() throws IOException {
+        // Arrange
+        this.write("texts/EN_InternationalTransport.txt", "Before", 1);
+        ReportAssetRegistry reportAssetRegistry = this.createReportAssetRegistry(directory);
+        reportAssetRegistry.init();
+        String version = reportAssetRegistry.getVersion();
+
+        // Act
+        reportAssetRegistry.reloadIfChanged();
+
+        // Assert
+        assertEquals(version, reportAssetRegistry.getVersion());
+        assertEquals(version, this.createInitializedReportAssetRegistry(directory).getVersion());
+    }
+
+    private ReportAssetRegistry createReportAssetRegistry(Path assetDirectory) {
+        return new ReportAssetRegistry(new DefaultResourceLoader(), new ReportImageOptimizer(0),
+                assetDirectory == null ? null : assetDirectory.toString());
+    }
+
+    private ReportAssetRegistry createInitializedReportAssetRegistry(Path assetDirectory) {
+        ReportAssetRegistry reportAssetRegistry = this.createReportAssetRegistry(assetDirectory);
+        reportAssetRegistry.init();
+        return reportAssetRegistry;
+    }
+
+    private void write(String name, String content, long modifiedSeconds) throws IOException {
+        Path file = directory.resolve(name);
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        // explicit modification times, so a rewrite within the resolution of the file system is still detected
+        Files.setLastModifiedTime(file, FileTime.from(Instant.ofEpochSecond(modifiedSeconds)));
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.domain.services.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+public class ReportImageOptimizerTest {
+
+    @Test
+    public void testFit_DownsampledToDpi() throws IOException {
+        // Arrange
+        byte[] imageBytes = createPng(800, 200, BufferedImage.TYPE_INT_ARGB);
+
+        // Act
+        // the 2 x 1 inch box holds 200 x 100 pixels at 100 dpi, the width limits the scale to 1/4
+        byte[] fitted = new ReportImageOptimizer(100).fit(imageBytes, 144, 72);
+
+        // Assert
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(fitted));
+        assertEquals(200, image.getWidth());
+        assertEquals(50, image.getHeight());
+        assertTrue(image.getColorModel().hasAlpha());
+    }
+
+    @Test
+    public void testFit_SmallImageUnchanged() throws IOException {
+        // Arrange
+        byte[] imageBytes = createPng(100, 50, BufferedImage.TYPE_INT_RGB);
+
+        // Act
+        byte[] fitted = new ReportImageOptimizer(100).fit(imageBytes, 144, 72);
+
+        // Assert
+        assertSame(imageBytes, fitted);
+    }
+
+    @Test
+    public void testFit_Disabled() throws IOException {
+        // Arrange
+        byte[] imageBytes = createPng(800, 200, BufferedImage.TYPE_INT_RGB);
+
+        // Act
+        byte[] fitted = new ReportImageOptimizer(0).fit(imageBytes, 144, 72);
+
+        // Assert
+        assertSame(imageBytes, fitted);
+    }
+
+    @Test
+    public void testFit_UndecodableImageUnchanged() {
+        // Arrange
+        byte[] imageBytes = new byte[] { 1, 2, 3 };
+
+        // Act
+        byte[] fitted = new ReportImageOptimizer(100).fit(imageBytes, 144, 72);
+
+        // Assert
+        assertSame(imageBytes, fitted);
+    }
+
+    private static byte[] createPng(int width, int height, int type) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, type), "png", outputStream);
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.domain.services.statuschange;
+
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openlogisticsfoundation.ecmr.api.model.EcmrStatus;
+import org.openlogisticsfoundation.ecmr.domain.services.EcmrPdfService;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrEntity;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class PdfPrerenderListenerTest {
+
+    private final EcmrPdfService ecmrPdfService = mock(EcmrPdfService.class);
+    private final EcmrEntity ecmrEntity = new EcmrEntity();
+    private PdfPrerenderListener pdfPrerenderListener;
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        pdfPrerenderListener.shutdown();
+    }
+
+    @Test
+    public void testOnEcmrStatusChange_RendersAfterCommit() throws Exception {
+        // Arrange
+        pdfPrerenderListener = new PdfPrerenderListener(ecmrPdfService, true, 10);
+        ecmrEntity.setEcmrStatus(EcmrStatus.LOADING);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        pdfPrerenderListener.onEcmrStatusChange(EcmrStatus.NEW, ecmrEntity, null);
+
+        // Assert
+        verify(ecmrPdfService, after(100).never()).prerenderSealedDocument(any());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(ecmrPdfService, timeout(5000)).prerenderSealedDocument(ecmrEntity.getEcmrId());
+    }
+
+    @Test
+    public void testOnEcmrStatusChange_NotRenderedOnRollback() throws Exception {
+        // Arrange
+        pdfPrerenderListener = new PdfPrerenderListener(ecmrPdfService, true, 10);
+        ecmrEntity.setEcmrStatus(EcmrStatus.LOADING);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        pdfPrerenderListener.onEcmrStatusChange(EcmrStatus.NEW, ecmrEntity, null);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Assert
+        verify(ecmrPdfService, after(100).never()).prerenderSealedDocument(any());
+    }
+
+    @Test
+    public void testOnEcmrStatusChange_WithoutTransaction() throws Exception {
+        // Arrange
+        pdfPrerenderListener = new PdfPrerenderListener(ecmrPdfService, true, 10);
+        ecmrEntity.setEcmrStatus(EcmrStatus.DELIVERED);
+
+        // Act
+        pdfPrerenderListener.onEcmrStatusChange(EcmrStatus.IN_TRANSPORT, ecmrEntity, null);
+
+        // Assert
+        verify(ecmrPdfService, timeout(5000)).prerenderSealedDocument(ecmrEntity.getEcmrId());
+    }
+
+    @Test
+    public void testOnEcmrStatusChange_UnsealedStatus() throws Exception {
+        // Arrange
+        pdfPrerenderListener = new PdfPrerenderListener(ecmrPdfService, true, 10);
+        ecmrEntity.setEcmrStatus(EcmrStatus.NEW);
+
+        // Act
+        pdfPrerenderListener.onEcmrStatusChange(null, ecmrEntity, null);
+
+        // Assert
+        verify(ecmrPdfService, after(100).never()).prerenderSealedDocument(any());
+    }
+
+    @Test
+    public void testOnEcmrStatusChange_Disabled() throws Exception {
+        // Arrange
+        pdfPrerenderListener = new PdfPrerenderListener(ecmrPdfService, false, 10);
+        ecmrEntity.setEcmrStatus(EcmrStatus.LOADING);
+
+        // Act
+        pdfPrerenderListener.onEcmrStatusChange(EcmrStatus.NEW, ecmrEntity, null);
+
+        // Assert
+        verify(ecmrPdfService, after(100).never()).prerenderSealedDocument(any());
+    }
+}
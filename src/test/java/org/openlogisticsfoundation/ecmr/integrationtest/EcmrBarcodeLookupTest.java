@@ -0,0 +1,165 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.integrationtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openlogisticsfoundation.ecmr.api.model.EcmrModel;
+import org.openlogisticsfoundation.ecmr.api.model.EcmrStatus;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.ValidationException;
+import org.openlogisticsfoundation.ecmr.domain.mappers.EcmrPersistenceMapper;
+import org.openlogisticsfoundation.ecmr.domain.models.AuthenticatedUser;
+import org.openlogisticsfoundation.ecmr.domain.models.CountryCode;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrRole;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrSummary;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrType;
+import org.openlogisticsfoundation.ecmr.domain.models.User;
+import org.openlogisticsfoundation.ecmr.domain.models.UserRole;
+import org.openlogisticsfoundation.ecmr.domain.services.EcmrService;
+import org.openlogisticsfoundation.ecmr.domain.services.EcmrVisibilityService;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrAssignmentEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.GroupEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.UserEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.UserToGroupEntity;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.EcmrAssignmentRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.EcmrRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.GroupRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.UserRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.UserToGroupRepository;
+import org.openlogisticsfoundation.ecmr.web.mappers.EcmrWebMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+
+@Transactional
+public class EcmrBarcodeLookupTest extends AbstractIntegrationTest {
+    @Autowired
+    private EcmrService ecmrService;
+
+    @Autowired
+    private EcmrRepository ecmrRepository;
+
+    @Autowired
+    private EcmrAssignmentRepository ecmrAssignmentRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserToGroupRepository userToGroupRepository;
+
+    @Autowired
+    private EcmrVisibilityService ecmrVisibilityService;
+
+    @Autowired
+    private EcmrPersistenceMapper ecmrPersistenceMapper;
+
+    @Autowired
+    private EcmrWebMapper ecmrWebMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private AuthenticatedUser authenticatedUser;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        GroupEntity group = createGroup("group");
+        GroupEntity other = createGroup("other");
+        UserEntity userEntity = userRepository.save(new UserEntity("first", "last", CountryCode.DE, "barcode@test.de", null, UserRole.User,
+                group, false, false));
+        userToGroupRepository.save(new UserToGroupEntity(userEntity, group));
+        authenticatedUser = new AuthenticatedUser(new User(userEntity.getId(), "first", "last", CountryCode.DE, "barcode@test.de", null,
+                UserRole.User, group.getId(), false, false));
+
+        createEcmr("reference-0", "4012345000009", group);
+        createEcmr("reference-1", "4012345000016", group);
+        createEcmr("reference-2", "4012345000016", group);
+        createEcmr("reference-3", "4099999000005", other);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testGetEcmrSummariesByBarcodeForUser() throws ValidationException {
+        // Act
+        List<EcmrSummary> summaries = ecmrService.getEcmrSummariesByBarcodeForUser(authenticatedUser, " 4012345000009 ");
+
+        // Assert
+        assertEquals(1, summaries.size());
+        assertEquals("reference-0", summaries.getFirst().getReferenceIdentificationNumber());
+    }
+
+    @Test
+    void testGetEcmrSummariesByBarcodeForUser_OnSeveralEcmrs() throws ValidationException {
+        // Act
+        List<EcmrSummary> summaries = ecmrService.getEcmrSummariesByBarcodeForUser(authenticatedUser, "4012345000016");
+
+        // Assert
+        assertEquals(List.of("reference-1", "reference-2"), summaries.stream().map(EcmrSummary::getReferenceIdentificationNumber).toList());
+    }
+
+    @Test
+    void testGetEcmrSummariesByBarcodeForUser_NotVisible() throws ValidationException {
+        // Act
+        List<EcmrSummary> summaries = ecmrService.getEcmrSummariesByBarcodeForUser(authenticatedUser, "4099999000005");
+
+        // Assert
+        assertEquals(List.of(), summaries);
+    }
+
+    @Test
+    void testGetEcmrSummariesByBarcodeForUser_NoPartialMatch() throws ValidationException {
+        // Act
+        List<EcmrSummary> summaries = ecmrService.getEcmrSummariesByBarcodeForUser(authenticatedUser, "4012345");
+
+        // Assert
+        assertEquals(List.of(), summaries);
+    }
+
+    @Test
+    void testGetEcmrSummariesByBarcodeForUser_Empty() {
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> ecmrService.getEcmrSummariesByBarcodeForUser(authenticatedUser, " "));
+    }
+
+    private GroupEntity createGroup(String name) {
+        GroupEntity group = new GroupEntity();
+        group.setName(name);
+        group = groupRepository.save(group);
+        ecmrVisibilityService.groupCreated(group);
+        return group;
+    }
+
+    private void createEcmr(String reference, String barcode, GroupEntity group) throws IOException {
+        EcmrModel ecmrModel = objectMapper.readValue(getClass().getResourceAsStream("/json-objects/ecmr/full-ecmr.json"), EcmrModel.class);
+        EcmrEntity ecmrEntity = ecmrPersistenceMapper.toEntity(ecmrWebMapper.toCommand(ecmrModel), EcmrType.ECMR, EcmrStatus.NEW);
+        ecmrEntity.setReferenceIdentificationNumber(reference);
+        ecmrEntity.getItemList().getFirst().getLogisticsShippingMarksCustomBarcodeList().getFirst().setBarcode(barcode);
+        ecmrEntity = ecmrRepository.save(ecmrEntity);
+        ecmrAssignmentRepository.save(new EcmrAssignmentEntity(ecmrEntity, group, null, EcmrRole.Sender));
+        ecmrVisibilityService.assignmentsChanged(ecmrEntity);
+    }
+}
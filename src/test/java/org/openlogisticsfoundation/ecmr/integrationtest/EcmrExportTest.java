@@ -0,0 +1,153 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.integrationtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openlogisticsfoundation.ecmr.api.model.EcmrModel;
+import org.openlogisticsfoundation.ecmr.api.model.EcmrStatus;
+import org.openlogisticsfoundation.ecmr.domain.mappers.EcmrPersistenceMapper;
+import org.openlogisticsfoundation.ecmr.domain.models.AuthenticatedUser;
+import org.openlogisticsfoundation.ecmr.domain.models.CountryCode;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrExportFormat;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrRole;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrType;
+import org.openlogisticsfoundation.ecmr.domain.models.SortingField;
+import org.openlogisticsfoundation.ecmr.domain.models.SortingOrder;
+import org.openlogisticsfoundation.ecmr.domain.models.User;
+import org.openlogisticsfoundation.ecmr.domain.models.UserRole;
+import org.openlogisticsfoundation.ecmr.domain.models.commands.FilterRequestCommand;
+import org.openlogisticsfoundation.ecmr.domain.services.EcmrExportService;
+import org.openlogisticsfoundation.ecmr.domain.services.EcmrVisibilityService;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrAssignmentEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.GroupEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.UserEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.UserToGroupEntity;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.EcmrAssignmentRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.EcmrRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.GroupRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.UserRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.UserToGroupRepository;
+import org.openlogisticsfoundation.ecmr.web.mappers.EcmrWebMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+
+@Transactional
+public class EcmrExportTest extends AbstractIntegrationTest {
+    @Autowired
+    private EcmrExportService ecmrExportService;
+
+    @Autowired
+    private EcmrRepository ecmrRepository;
+
+    @Autowired
+    private EcmrAssignmentRepository ecmrAssignmentRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserToGroupRepository userToGroupRepository;
+
+    @Autowired
+    private EcmrVisibilityService ecmrVisibilityService;
+
+    @Autowired
+    private EcmrPersistenceMapper ecmrPersistenceMapper;
+
+    @Autowired
+    private EcmrWebMapper ecmrWebMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final FilterRequestCommand filter = new FilterRequestCommand(null, null, null, null, null, null, null, null, null, null);
+
+    private AuthenticatedUser authenticatedUser;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        GroupEntity group = new GroupEntity();
+        group.setName("group");
+        group = groupRepository.save(group);
+        ecmrVisibilityService.groupCreated(group);
+        UserEntity userEntity = userRepository.save(new UserEntity("first", "last", CountryCode.DE, "export@test.de", null, UserRole.User, group,
+                false, false));
+        userToGroupRepository.save(new UserToGroupEntity(userEntity, group));
+        authenticatedUser = new AuthenticatedUser(new User(userEntity.getId(), "first", "last", CountryCode.DE, "export@test.de", null,
+                UserRole.User, group.getId(), false, false));
+
+        EcmrModel ecmrModel = objectMapper.readValue(getClass().getResourceAsStream("/json-objects/ecmr/full-ecmr.json"), EcmrModel.class);
+        List<String> senderCompanyNames = List.of("Sender, Inc.", "=HYPERLINK(\"x\")", "Sender \"Quoted\"");
+        for (int i = 0; i < senderCompanyNames.size(); i++) {
+            EcmrEntity ecmrEntity = ecmrPersistenceMapper.toEntity(ecmrWebMapper.toCommand(ecmrModel), EcmrType.ECMR, EcmrStatus.NEW);
+            ecmrEntity.setReferenceIdentificationNumber("reference-" + i);
+            ecmrEntity.getSenderInformation().setCompanyName(senderCompanyNames.get(i));
+            ecmrEntity = ecmrRepository.save(ecmrEntity);
+            ecmrAssignmentRepository.save(new EcmrAssignmentEntity(ecmrEntity, group, null, EcmrRole.Sender));
+            ecmrVisibilityService.assignmentsChanged(ecmrEntity);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testExportEcmrSummariesForUser_Csv() throws IOException {
+        // Act
+        String csv = export(EcmrExportFormat.CSV);
+
+        // Assert
+        List<String> lines = csv.lines().toList();
+        assertEquals(4, lines.size());
+        assertTrue(lines.getFirst().startsWith("ecmrId,type,ecmrStatus,referenceIdentificationNumber,senderCompanyName,"));
+        assertTrue(lines.get(1).contains(",ECMR,NEW,reference-0,\"Sender, Inc.\","), lines.get(1));
+        assertTrue(lines.get(2).contains(",reference-1,\"'=HYPERLINK(\"\"x\"\")\","), lines.get(2));
+        assertTrue(lines.get(3).contains(",reference-2,\"Sender \"\"Quoted\"\"\","), lines.get(3));
+    }
+
+    @Test
+    void testExportEcmrSummariesForUser_Ndjson() throws IOException {
+        // Act
+        String ndjson = export(EcmrExportFormat.NDJSON);
+
+        // Assert
+        List<String> lines = ndjson.lines().toList();
+        assertEquals(3, lines.size());
+        JsonNode first = objectMapper.readTree(lines.getFirst());
+        assertEquals("reference-0", first.get("referenceIdentificationNumber").asText());
+        assertEquals("Sender, Inc.", first.get("senderCompanyName").asText());
+    }
+
+    private String export(EcmrExportFormat format) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ecmrExportService.exportEcmrSummariesForUser(authenticatedUser, EcmrType.ECMR, SortingField.referenceId, SortingOrder.ASC, format, filter,
+                outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.integrationtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.openlogisticsfoundation.ecmr.api.model.EcmrModel;
+import org.openlogisticsfoundation.ecmr.api.model.EcmrStatus;
+import org.openlogisticsfoundation.ecmr.domain.mappers.EcmrPersistenceMapper;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrFacetCount;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrRole;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrTransportType;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrType;
+import org.openlogisticsfoundation.ecmr.domain.models.commands.FilterRequestCommand;
+import org.openlogisticsfoundation.ecmr.domain.services.EcmrVisibilityService;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrAssignmentEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.GroupEntity;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.EcmrAssignmentRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.EcmrRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.GroupRepository;
+import org.openlogisticsfoundation.ecmr.web.mappers.EcmrWebMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+
+@Transactional
+public class EcmrFacetsTest extends AbstractIntegrationTest {
+    @Autowired
+    private EcmrRepository ecmrRepository;
+
+    @Autowired
+    private EcmrAssignmentRepository ecmrAssignmentRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private EcmrVisibilityService ecmrVisibilityService;
+
+    @Autowired
+    private EcmrPersistenceMapper ecmrPersistenceMapper;
+
+    @Autowired
+    private EcmrWebMapper ecmrWebMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void testCountFacetsByAssignedGroupIds_GroupsByTypeStatusAndTransportType() throws IOException {
+        // Arrange
+        GroupEntity group = createGroup("group");
+        GroupEntity otherGroup = createGroup("other group");
+        createEcmr(group, EcmrType.ECMR, EcmrStatus.NEW, "DE", "reference-1");
+        createEcmr(group, EcmrType.ECMR, EcmrStatus.NEW, "DE", "reference-2");
+        createEcmr(group, EcmrType.ECMR, EcmrStatus.LOADING, "FR", "reference-3");
+        createEcmr(group, EcmrType.TEMPLATE, EcmrStatus.NEW, "FR", "reference-4");
+        createEcmr(group, EcmrType.ECMR, EcmrStatus.NEW, "DE", "other-5");
+        createEcmr(otherGroup, EcmrType.ECMR, EcmrStatus.NEW, "DE", "reference-6");
+        entityManager.flush();
+        entityManager.clear();
+        FilterRequestCommand filter = new FilterRequestCommand("reference", null, null, null, null, null, null, null, null, null);
+
+        // Act
+        List<EcmrFacetCount> counts = ecmrRepository.countFacetsByAssignedGroupIds(List.of(group.getId()), filter);
+
+        // Assert
+        Map<String, Long> countsByFacets = counts.stream().collect(Collectors.toMap(
+                count -> count.getType() + "/" + count.getEcmrStatus() + "/" + count.getTransportType(), EcmrFacetCount::getCount));
+        assertEquals(Map.of(
+                "ECMR/NEW/" + EcmrTransportType.National, 2L,
+                "ECMR/LOADING/" + EcmrTransportType.International, 1L,
+                "TEMPLATE/NEW/" + EcmrTransportType.International, 1L), countsByFacets);
+    }
+
+    private GroupEntity createGroup(String name) {
+        GroupEntity group = new GroupEntity();
+        group.setName(name);
+        group = groupRepository.save(group);
+        ecmrVisibilityService.groupCreated(group);
+        return group;
+    }
+
+    private void createEcmr(GroupEntity group, EcmrType type, EcmrStatus status, String consigneeCountryCode, String referenceId)
+            throws IOException {
+        EcmrModel ecmrModel = objectMapper.readValue(getClass().getResourceAsStream("/json-objects/ecmr/full-ecmr.json"), EcmrModel.class);
+        EcmrEntity ecmrEntity = ecmrPersistenceMapper.toEntity(ecmrWebMapper.toCommand(ecmrModel), type, status);
+        ecmrEntity.setReferenceIdentificationNumber(referenceId);
+        ecmrEntity.getSenderInformation().setCountryCode("DE");
+        ecmrEntity.getConsigneeInformation().setCountryCode(consigneeCountryCode);
+        ecmrEntity = ecmrRepository.save(ecmrEntity);
+        ecmrAssignmentRepository.save(new EcmrAssignmentEntity(ecmrEntity, group, null, EcmrRole.Sender));
+        ecmrVisibilityService.assignmentsChanged(ecmrEntity);
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.integrationtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.sql.DataSource;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.openlogisticsfoundation.ecmr.EcmrBackendApplication;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrSummary;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.EcmrRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Checks on PostgreSQL that the substring filters of the my-ecmrs list, as generated by {@code EcmrFilterRepositoryImpl}, are served by the
+ * trigram indexes, also with the generic plan of a prepared statement, and that barcode lookups are served by the barcode index. The
+ * application is started on the database, so Liquibase creates the schema and the lookup is explained with the SQL Hibernate generates.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(
+        classes = EcmrBackendApplication.class,
+        properties = {
+                "spring.security.oauth2.resourceserver.jwt.issuer-uri=https://dummy.org/",
+                "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                        + "org.openlogisticsfoundation.ecmr.integrationtest.EcmrFilterQueryPlanTest$StatementRecorder",
+                "ecmr.search.index.directory="
+        }
+)
+public class EcmrFilterQueryPlanTest {
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static boolean seeded;
+
+    @Autowired
+    private EcmrRepository ecmrRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driverClassName", () -> "org.postgresql.Driver");
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "ecmr, reference_identification_number, idx_ecmr_reference_id_trgm",
+            "ecmr, edited_by, idx_ecmr_edited_by_trgm",
+            "sender_information, company_name, idx_sender_information_company_name_trgm",
+            "consignee_information, company_name, idx_consignee_information_company_name_trgm",
+            "consignee_information, postcode, idx_consignee_information_postcode_trgm",
+            "carrier_information, company_name, idx_carrier_information_company_name_trgm",
+            "carrier_information, postcode, idx_carrier_information_postcode_trgm",
+            "carrier_information, carrier_license_plate, idx_carrier_information_license_plate_trgm"
+    })
+    void substringFilterUsesTrigramIndex(String table, String column, String index) throws SQLException {
+        try (Connection connection = getConnection(); Statement statement = connection.createStatement()) {
+            // Arrange
+            statement.execute("SET plan_cache_mode = force_generic_plan");
+            statement.execute("PREPARE filter(text) AS SELECT t.id FROM " + table + " t WHERE lower(t." + column + ") LIKE $1 ESCAPE '\\'");
+
+            // Act
+            String plan = explain(statement, "EXPLAIN EXECUTE filter('%ab\\_c%')");
+
+            // Assert
+            assertTrue(plan.contains(index), plan);
+        }
+    }
+
+    @Test
+    void barcodeLookupUsesBarcodeIndex() throws SQLException {
+        // Arrange
+        long groupId = 1000000 + 1 + 12345 % 100;
+        StatementRecorder.STATEMENTS.clear();
+
+        // Act
+        List<EcmrSummary> summaries = ecmrRepository.findSummariesByBarcodeAndAssignedGroupIds("4000000012345", List.of(groupId));
+        String sql = StatementRecorder.STATEMENTS.stream().filter(statement -> statement.contains("logistics_shipping_marks_custom_barcode"))
+                .findFirst().orElseThrow();
+        String plan;
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            statement.setString(1, "4000000012345");
+            statement.setLong(2, groupId);
+            plan = explain(statement);
+        }
+
+        // Assert
+        assertEquals(List.of("REF-12345"), summaries.stream().map(EcmrSummary::getReferenceIdentificationNumber).toList());
+        assertTrue(sql.contains("ecmr_visibility"), sql);
+        assertTrue(plan.contains("idx_logistics_shipping_marks_custom_barcode_barcode"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    /**
+     * Inserts 20000 eCMRs with one item and barcode each and the filtered texts filled, visible to one of 100 groups, once for all tests, so
+     * that the planner decides on realistic statistics. The ids start above the ids the sequences hand out to the application. VACUUM also
+     * moves the rows from the pending lists of the trigram indexes into the indexes, as autovacuum does after a bulk insert, otherwise the
+     * indexes look too expensive.
+     */
+    @BeforeEach
+    void seedEcmrs() throws SQLException {
+        if (seeded) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            statement.execute("INSERT INTO ecmr_group (id, name) SELECT 1000000 + g, 'group-' || g FROM generate_series(1, 100) g");
+            statement.execute("INSERT INTO sender_information (id, company_name) "
+                    + "SELECT 1000000 + k, 'Sender ' || substr(md5('s' || k), 1, 8) || ' GmbH' FROM generate_series(1, 20000) k");
+            for (String table : List.of("consignee_information", "carrier_information")) {
+                statement.execute("INSERT INTO " + table + " (id, company_name, postcode) "
+                        + "SELECT 1000000 + k, initcap(substr(md5('" + table + "' || k), 1, 10)) || ' AG', "
+                        + "lpad((k * 37 % 100000)::text, 5, '0') FROM generate_series(1, 20000) k");
+            }
+            statement.execute("UPDATE carrier_information SET carrier_license_plate = "
+                    + "upper(substr(md5('p' || id), 1, 2)) || '-' || upper(substr(md5('p' || id), 3, 2)) || ' ' || id % 10000 "
+                    + "WHERE id > 1000000");
+            for (String table : List.of("successive_carrier_information", "taking_over_the_goods", "goods_received", "delivery_of_the_goods")) {
+                statement.execute("INSERT INTO " + table + " (id) SELECT 1000000 + k FROM generate_series(1, 20000) k");
+            }
+            statement.execute("INSERT INTO custom_charge (id) SELECT 1000000 + k FROM generate_series(1, 80000) k");
+            statement.execute("INSERT INTO to_be_paid_by (id, custom_charge_carriage_id, custom_charge_other_id, "
+                    + "custom_charge_customs_duties_id, custom_charge_supplementary_id) "
+                    + "SELECT 1000000 + k, 1000000 + 4 * k - 3, 1000000 + 4 * k - 2, 1000000 + 4 * k - 1, 1000000 + 4 * k "
+                    + "FROM generate_series(1, 20000) k");
+            statement.execute("INSERT INTO ecmr (id, ecmr_id, sender_information_id, consignee_information_id, carrier_information_id, "
+                    + "successive_carrier_information_id, taking_over_the_goods_id, goods_received_id, delivery_of_the_goods_id, to_be_paid_by, "
+                    + "type, ecmr_status, reference_identification_number, edited_by, created_at) "
+                    + "SELECT 1000000 + k, gen_random_uuid(), 1000000 + k, 1000000 + k, 1000000 + k, 1000000 + k, 1000000 + k, 1000000 + k, "
+                    + "1000000 + k, 1000000 + k, 0, 0, 'REF-' || k, 'user-' || k % 500 || '@example.com', now() "
+                    + "FROM generate_series(1, 20000) k");
+            statement.execute("INSERT INTO item (id, ecmr_id) SELECT 1000000 + k, 1000000 + k FROM generate_series(1, 20000) k");
+            statement.execute("INSERT INTO logistics_shipping_marks_custom_barcode (id, item_id, barcode) "
+                    + "SELECT 1000000 + k, 1000000 + k, '40' || lpad(k::text, 11, '0') FROM generate_series(1, 20000) k");
+            statement.execute("INSERT INTO ecmr_visibility (id, group_id, ecmr_id, role) "
+                    + "SELECT 1000000 + k, 1000000 + 1 + k % 100, 1000000 + k, 'Sender' FROM generate_series(1, 20000) k");
+            connection.commit();
+            connection.setAutoCommit(true);
+            statement.execute("VACUUM ANALYZE");
+        }
+        seeded = true;
+    }
+
+    private static String explain(Statement statement, String sql) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            return toPlan(resultSet);
+        }
+    }
+
+    private static String explain(PreparedStatement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            return toPlan(resultSet);
+        }
+    }
+
+    private static String toPlan(ResultSet resultSet) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        while (resultSet.next()) {
+            plan.append(resultSet.getString(1)).append('\n');
+        }
+        return plan.toString();
+    }
+
+    /**
+     * Settings like {@code plan_cache_mode} must not leak into the pooled connections of the application.
+     */
+    private static Connection getConnection() throws SQLException {
+        return DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    }
+
+    /**
+     * Records the SQL Hibernate sends, so that the plan of the generated query can be checked.
+     */
+    public static class StatementRecorder implements StatementInspector {
+        private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.integrationtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openlogisticsfoundation.ecmr.api.model.EcmrModel;
+import org.openlogisticsfoundation.ecmr.api.model.EcmrStatus;
+import org.openlogisticsfoundation.ecmr.domain.mappers.EcmrPersistenceMapper;
+import org.openlogisticsfoundation.ecmr.domain.models.AuthenticatedUser;
+import org.openlogisticsfoundation.ecmr.domain.models.CountryCode;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrRole;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrType;
+import org.openlogisticsfoundation.ecmr.domain.models.User;
+import org.openlogisticsfoundation.ecmr.domain.models.UserRole;
+import org.openlogisticsfoundation.ecmr.domain.services.EcmrService;
+import org.openlogisticsfoundation.ecmr.domain.services.EcmrVisibilityService;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrAssignmentEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.GroupEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.UserEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.UserToGroupEntity;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.EcmrAssignmentRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.EcmrRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.GroupRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.UserRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.UserToGroupRepository;
+import org.openlogisticsfoundation.ecmr.web.mappers.EcmrWebMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+
+@Transactional
+public class EcmrLoadSheetTest extends AbstractIntegrationTest {
+    private static final LocalDate DATE = LocalDate.of(2025, 5, 2);
+
+    @Autowired
+    private EcmrService ecmrService;
+
+    @Autowired
+    private EcmrRepository ecmrRepository;
+
+    @Autowired
+    private EcmrAssignmentRepository ecmrAssignmentRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserToGroupRepository userToGroupRepository;
+
+    @Autowired
+    private EcmrVisibilityService ecmrVisibilityService;
+
+    @Autowired
+    private EcmrPersistenceMapper ecmrPersistenceMapper;
+
+    @Autowired
+    private EcmrWebMapper ecmrWebMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private AuthenticatedUser authenticatedUser;
+
+    private UUID arrival;
+
+    private UUID departure;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        GroupEntity group = createGroup("group");
+        GroupEntity other = createGroup("other");
+        UserEntity userEntity = userRepository.save(new UserEntity("first", "last", CountryCode.DE, "loadsheet@test.de", null, UserRole.User,
+                group, false, false));
+        userToGroupRepository.save(new UserToGroupEntity(userEntity, group));
+        authenticatedUser = new AuthenticatedUser(new User(userEntity.getId(), "first", "last", CountryCode.DE, "loadsheet@test.de", null,
+                UserRole.User, group.getId(), false, false));
+
+        arrival = createEcmr("AB 123", Instant.parse("2025-05-02T00:00:00Z"), Instant.parse("2025-05-03T00:00:00Z"), group);
+        departure = createEcmr("ab123", Instant.parse("2025-05-01T20:00:00Z"), Instant.parse("2025-05-02T23:59:59Z"), group);
+        createEcmr("AB123", Instant.parse("2025-05-01T00:00:00Z"), Instant.parse("2025-05-03T00:00:00Z"), group);
+        createEcmr("XAB1234", Instant.parse("2025-05-02T10:00:00Z"), null, group);
+        createEcmr("AB123", Instant.parse("2025-05-02T10:00:00Z"), null, other);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testGetEcmrIdsForLoadSheet() {
+        // Act
+        List<UUID> ecmrIds = ecmrService.getEcmrIdsForLoadSheet(authenticatedUser, "AB123", DATE);
+
+        // Assert
+        assertEquals(List.of(arrival, departure), ecmrIds);
+    }
+
+    @Test
+    void testGetEcmrIdsForLoadSheet_IgnoresCaseAndSpaces() {
+        // Act
+        List<UUID> ecmrIds = ecmrService.getEcmrIdsForLoadSheet(authenticatedUser, "a b 1 2 3", DATE);
+
+        // Assert
+        assertEquals(List.of(arrival, departure), ecmrIds);
+    }
+
+    @Test
+    void testGetEcmrIdsForLoadSheet_OtherDay() {
+        // Act
+        List<UUID> ecmrIds = ecmrService.getEcmrIdsForLoadSheet(authenticatedUser, "AB123", DATE.plusDays(2));
+
+        // Assert
+        assertEquals(List.of(), ecmrIds);
+    }
+
+    private GroupEntity createGroup(String name) {
+        GroupEntity group = new GroupEntity();
+        group.setName(name);
+        group = groupRepository.save(group);
+        ecmrVisibilityService.groupCreated(group);
+        return group;
+    }
+
+    private UUID createEcmr(String licensePlate, Instant arrival, Instant departure, GroupEntity group) throws IOException {
+        EcmrModel ecmrModel = objectMapper.readValue(getClass().getResourceAsStream("/json-objects/ecmr/full-ecmr.json"), EcmrModel.class);
+        EcmrEntity ecmrEntity = ecmrPersistenceMapper.toEntity(ecmrWebMapper.toCommand(ecmrModel), EcmrType.ECMR, EcmrStatus.NEW);
+        ecmrEntity.getCarrierInformation().setCarrierLicensePlate(licensePlate);
+        ecmrEntity.getTakingOverTheGoods().setLogisticsTimeOfArrivalDateTime(arrival);
+        ecmrEntity.getTakingOverTheGoods().setLogisticsTimeOfDepartureDateTime(departure);
+        ecmrEntity = ecmrRepository.save(ecmrEntity);
+        ecmrAssignmentRepository.save(new EcmrAssignmentEntity(ecmrEntity, group, null, EcmrRole.Sender));
+        ecmrVisibilityService.assignmentsChanged(ecmrEntity);
+        return ecmrEntity.getEcmrId();
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.integrationtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openlogisticsfoundation.ecmr.api.model.EcmrModel;
+import org.openlogisticsfoundation.ecmr.api.model.EcmrStatus;
+import org.openlogisticsfoundation.ecmr.domain.mappers.EcmrPersistenceMapper;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrRole;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrType;
+import org.openlogisticsfoundation.ecmr.domain.models.commands.FilterRequestCommand;
+import org.openlogisticsfoundation.ecmr.domain.services.EcmrVisibilityService;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrAssignmentEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.GroupEntity;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.EcmrAssignmentRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.EcmrRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.GroupRepository;
+import org.openlogisticsfoundation.ecmr.web.mappers.EcmrWebMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * The tests run with {@code hibernate.query.fail_on_pagination_over_collection_fetch}, so paging the {@code Ecmr.all} graph in memory
+ * (HHH90003004) fails the query instead of only logging a warning.
+ */
+@Transactional
+public class EcmrPaginationTest extends AbstractIntegrationTest {
+    @Autowired
+    private EcmrRepository ecmrRepository;
+
+    @Autowired
+    private EcmrAssignmentRepository ecmrAssignmentRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private EcmrVisibilityService ecmrVisibilityService;
+
+    @Autowired
+    private EcmrPersistenceMapper ecmrPersistenceMapper;
+
+    @Autowired
+    private EcmrWebMapper ecmrWebMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final FilterRequestCommand filter = new FilterRequestCommand(null, null, null, null, null, null, null, null, null, null);
+
+    private GroupEntity group;
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        group = new GroupEntity();
+        group.setName("group");
+        group = groupRepository.save(group);
+        ecmrVisibilityService.groupCreated(group);
+        EcmrModel ecmrModel = objectMapper.readValue(getClass().getResourceAsStream("/json-objects/ecmr/full-ecmr.json"), EcmrModel.class);
+        ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            EcmrEntity ecmrEntity = ecmrPersistenceMapper.toEntity(ecmrWebMapper.toCommand(ecmrModel), EcmrType.ECMR, EcmrStatus.NEW);
+            ecmrEntity.setReferenceIdentificationNumber("reference-" + i);
+            ecmrEntity.setCreatedAt(Instant.now());
+            ecmrEntity = ecmrRepository.save(ecmrEntity);
+            ecmrAssignmentRepository.save(new EcmrAssignmentEntity(ecmrEntity, group, null, EcmrRole.Sender));
+            ids.add(ecmrEntity.getId());
+        }
+        ecmrVisibilityService.assignmentsChanged(ids);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testFindAllByTypeAndAssignedGroupIds_PagesInDatabase() {
+        // Act
+        Page<EcmrEntity> page = ecmrRepository.findAllByTypeAndAssignedGroupIds(EcmrType.ECMR, List.of(group.getId()), filter,
+                PageRequest.of(1, 2, Sort.Direction.DESC, "referenceIdentificationNumber"));
+
+        // Assert
+        assertEquals(5, page.getTotalElements());
+        assertEquals(List.of(ids.get(2), ids.get(1)), page.getContent().stream().map(EcmrEntity::getId).toList());
+        assertTrue(page.getContent().stream().allMatch(ecmrEntity -> Hibernate.isInitialized(ecmrEntity.getItemList())));
+    }
+
+    @Test
+    void testFindSliceByTypeAndAssignedGroupIds_DeterminesNextPageWithoutCount() {
+        // Act
+        Slice<EcmrEntity> secondSlice = ecmrRepository.findSliceByTypeAndAssignedGroupIds(EcmrType.ECMR, List.of(group.getId()), filter,
+                PageRequest.of(1, 2, Sort.Direction.ASC, "referenceIdentificationNumber"));
+        Slice<EcmrEntity> lastSlice = ecmrRepository.findSliceByTypeAndAssignedGroupIds(EcmrType.ECMR, List.of(group.getId()), filter,
+                PageRequest.of(2, 2, Sort.Direction.ASC, "referenceIdentificationNumber"));
+
+        // Assert
+        assertEquals(List.of(ids.get(2), ids.get(3)), secondSlice.getContent().stream().map(EcmrEntity::getId).toList());
+        assertTrue(secondSlice.hasNext());
+        assertEquals(List.of(ids.get(4)), lastSlice.getContent().stream().map(EcmrEntity::getId).toList());
+        assertFalse(lastSlice.hasNext());
+        assertEquals(5, ecmrRepository.countByTypeAndAssignedGroupIds(EcmrType.ECMR, List.of(group.getId()), filter));
+    }
+
+    @Test
+    void testFindEcmrIdsByTypeAndAssignedGroupIds_Limit() {
+        // Act
+        List<UUID> ecmrIds = ecmrRepository.findEcmrIdsByTypeAndAssignedGroupIds(EcmrType.ECMR, List.of(group.getId()), filter,
+                Sort.by(Sort.Direction.DESC, "referenceIdentificationNumber"), 3);
+
+        // Assert
+        assertEquals(List.of(ids.get(4), ids.get(3), ids.get(2)).stream().map(id -> ecmrRepository.findById(id).orElseThrow().getEcmrId())
+                .toList(), ecmrIds);
+    }
+}
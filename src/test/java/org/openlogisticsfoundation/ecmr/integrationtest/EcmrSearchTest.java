@@ -0,0 +1,188 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.integrationtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openlogisticsfoundation.ecmr.api.model.EcmrModel;
+import org.openlogisticsfoundation.ecmr.api.model.EcmrStatus;
+import org.openlogisticsfoundation.ecmr.domain.mappers.EcmrPersistenceMapper;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrRole;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrSearchHit;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrTransportType;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrType;
+import org.openlogisticsfoundation.ecmr.domain.services.EcmrVisibilityService;
+import org.openlogisticsfoundation.ecmr.domain.services.search.EcmrSearchIndex;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrAssignmentEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrVisibilityProjection;
+import org.openlogisticsfoundation.ecmr.persistence.entities.GroupEntity;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.EcmrAssignmentRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.EcmrRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.EcmrVisibilityRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.GroupRepository;
+import org.openlogisticsfoundation.ecmr.web.mappers.EcmrWebMapper;
+import org.openlogisticsfoundation.ecmr.web.models.EcmrSearchResultModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Indexes eCMRs with the groups they are visible to, as the indexer does after the commit, into an index of its own so that the startup
+ * rebuild of the shared index does not interfere.
+ */
+@Transactional
+public class EcmrSearchTest extends AbstractIntegrationTest {
+    @Autowired
+    private EcmrRepository ecmrRepository;
+
+    @Autowired
+    private EcmrAssignmentRepository ecmrAssignmentRepository;
+
+    @Autowired
+    private EcmrVisibilityRepository ecmrVisibilityRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private EcmrVisibilityService ecmrVisibilityService;
+
+    @Autowired
+    private EcmrPersistenceMapper ecmrPersistenceMapper;
+
+    @Autowired
+    private EcmrWebMapper ecmrWebMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private EcmrSearchIndex ecmrSearchIndex;
+
+    private GroupEntity parent;
+
+    private GroupEntity child;
+
+    private GroupEntity other;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ecmrSearchIndex = new EcmrSearchIndex("");
+        parent = createGroup("parent", null);
+        child = createGroup("child", parent);
+        other = createGroup("other", null);
+
+        createEcmr("REF-4711", "Müller Logistik GmbH", "HH-AB 1234", EcmrStatus.NEW, child);
+        createEcmr("REF-4712", "Schmidt Technologies", "B-XY 987", EcmrStatus.LOADING, child);
+        createEcmr("REF-9999", "Müller Transporte", "M-MU 5555", EcmrStatus.NEW, other);
+        ecmrSearchIndex.commit();
+    }
+
+    @Test
+    void testSearch_SubstringOfCompanyName() throws IOException {
+        // Act
+        EcmrSearchResultModel result = ecmrSearchIndex.search("ulle", List.of(child.getId(), other.getId()), null, null, 10);
+
+        // Assert
+        assertEquals(2, result.getTotal());
+        assertEquals(List.of("REF-4711", "REF-9999"), result.getHits().stream().map(EcmrSearchHit::getReferenceIdentificationNumber).sorted()
+                .toList());
+    }
+
+    @Test
+    void testSearch_OnlyEcmrsVisibleToGroups() throws IOException {
+        // Act
+        EcmrSearchResultModel result = ecmrSearchIndex.search("muller", List.of(parent.getId()), null, null, 10);
+
+        // Assert
+        assertEquals(1, result.getTotal());
+        assertEquals("REF-4711", result.getHits().getFirst().getReferenceIdentificationNumber());
+        assertEquals("Müller Logistik GmbH", result.getHits().getFirst().getSenderCompanyName());
+    }
+
+    @Test
+    void testSearch_WordStartRanksBeforeSubstring() throws IOException {
+        // Act
+        EcmrSearchResultModel result = ecmrSearchIndex.search("log", List.of(child.getId()), null, null, 10);
+
+        // Assert
+        assertEquals(2, result.getTotal());
+        assertEquals(List.of("REF-4711", "REF-4712"), result.getHits().stream().map(EcmrSearchHit::getReferenceIdentificationNumber).toList());
+    }
+
+    @Test
+    void testSearch_EveryWordMustMatch() throws IOException {
+        // Act
+        EcmrSearchResultModel result = ecmrSearchIndex.search("ref hh-ab", List.of(child.getId(), other.getId()), null, null, 10);
+
+        // Assert
+        assertEquals(1, result.getTotal());
+        assertEquals("HH-AB 1234", result.getHits().getFirst().getCarrierLicensePlate());
+    }
+
+    @Test
+    void testSearch_FilterAndFacets() throws IOException {
+        // Act
+        EcmrSearchResultModel all = ecmrSearchIndex.search("ref", List.of(child.getId()), null, null, 1);
+        EcmrSearchResultModel loading = ecmrSearchIndex.search("ref", List.of(child.getId()), EcmrType.ECMR, EcmrStatus.LOADING, 10);
+
+        // Assert
+        assertEquals(2, all.getTotal());
+        assertEquals(1, all.getHits().size());
+        assertEquals(Map.of(EcmrStatus.NEW, 1L, EcmrStatus.LOADING, 1L), all.getStatuses());
+        assertEquals(Map.of(EcmrType.ECMR, 2L), all.getTypes());
+        assertEquals(Map.of(EcmrTransportType.National, 2L), all.getTransportTypes());
+        assertEquals(1, loading.getTotal());
+        assertEquals("REF-4712", loading.getHits().getFirst().getReferenceIdentificationNumber());
+    }
+
+    @Test
+    void testSearch_NoMatch() throws IOException {
+        // Act
+        EcmrSearchResultModel result = ecmrSearchIndex.search("zzz", List.of(child.getId()), null, null, 10);
+
+        // Assert
+        assertEquals(0, result.getTotal());
+        assertEquals(List.of(), result.getHits());
+        assertEquals(Map.of(), result.getStatuses());
+    }
+
+    private GroupEntity createGroup(String name, GroupEntity parent) {
+        GroupEntity group = new GroupEntity();
+        group.setName(name);
+        group.setParent(parent);
+        group = groupRepository.save(group);
+        ecmrVisibilityService.groupCreated(group);
+        return group;
+    }
+
+    private void createEcmr(String reference, String senderCompanyName, String licensePlate, EcmrStatus status, GroupEntity group)
+            throws IOException {
+        EcmrModel ecmrModel = objectMapper.readValue(getClass().getResourceAsStream("/json-objects/ecmr/full-ecmr.json"), EcmrModel.class);
+        EcmrEntity ecmrEntity = ecmrPersistenceMapper.toEntity(ecmrWebMapper.toCommand(ecmrModel), EcmrType.ECMR, status);
+        ecmrEntity.setReferenceIdentificationNumber(reference);
+        ecmrEntity.getSenderInformation().setCompanyName(senderCompanyName);
+        ecmrEntity.getCarrierInformation().setCarrierLicensePlate(licensePlate);
+        ecmrEntity = ecmrRepository.save(ecmrEntity);
+        ecmrAssignmentRepository.save(new EcmrAssignmentEntity(ecmrEntity, group, null, EcmrRole.Sender));
+        ecmrVisibilityService.assignmentsChanged(ecmrEntity);
+
+        List<Long> groupIds = ecmrVisibilityRepository.findProjectionsByEcmrIds(List.of(ecmrEntity.getId())).stream()
+                .map(EcmrVisibilityProjection::getGroupId).collect(Collectors.toList());
+        ecmrSearchIndex.update(ecmrEntity, groupIds);
+    }
+}
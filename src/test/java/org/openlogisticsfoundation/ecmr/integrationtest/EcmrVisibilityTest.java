@@ -0,0 +1,185 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.integrationtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openlogisticsfoundation.ecmr.api.model.EcmrModel;
+import org.openlogisticsfoundation.ecmr.api.model.EcmrStatus;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.ValidationException;
+import org.openlogisticsfoundation.ecmr.domain.mappers.EcmrPersistenceMapper;
+import org.openlogisticsfoundation.ecmr.domain.models.CountryCode;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrRole;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrType;
+import org.openlogisticsfoundation.ecmr.domain.models.UserRole;
+import org.openlogisticsfoundation.ecmr.domain.models.commands.FilterRequestCommand;
+import org.openlogisticsfoundation.ecmr.domain.services.EcmrVisibilityService;
+import org.openlogisticsfoundation.ecmr.domain.services.GroupService;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrAssignmentEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.EcmrEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.GroupEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.UserEntity;
+import org.openlogisticsfoundation.ecmr.persistence.entities.UserToGroupEntity;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.EcmrAssignmentRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.EcmrRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.EcmrVisibilityRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.GroupRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.UserRepository;
+import org.openlogisticsfoundation.ecmr.persistence.repositories.UserToGroupRepository;
+import org.openlogisticsfoundation.ecmr.web.mappers.EcmrWebMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Group tree root - child - grandchild and a second root. The eCMR is assigned to the grandchild, the first user is member of the root and the
+ * second user of the second root.
+ */
+@Transactional
+public class EcmrVisibilityTest extends AbstractIntegrationTest {
+    @Autowired
+    private EcmrVisibilityService ecmrVisibilityService;
+
+    @Autowired
+    private EcmrVisibilityRepository ecmrVisibilityRepository;
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private EcmrRepository ecmrRepository;
+
+    @Autowired
+    private EcmrAssignmentRepository ecmrAssignmentRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserToGroupRepository userToGroupRepository;
+
+    @Autowired
+    private EcmrPersistenceMapper ecmrPersistenceMapper;
+
+    @Autowired
+    private EcmrWebMapper ecmrWebMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private GroupEntity root;
+    private GroupEntity child;
+    private GroupEntity grandchild;
+    private GroupEntity otherRoot;
+    private UserEntity rootUser;
+    private UserEntity otherRootUser;
+    private EcmrEntity ecmr;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        root = createGroup("root", null);
+        child = createGroup("child", root);
+        grandchild = createGroup("grandchild", child);
+        otherRoot = createGroup("other root", null);
+        rootUser = createUser("root@example.com", root);
+        otherRootUser = createUser("other-root@example.com", otherRoot);
+
+        EcmrModel ecmrModel = objectMapper.readValue(getClass().getResourceAsStream("/json-objects/ecmr/full-ecmr.json"), EcmrModel.class);
+        ecmr = ecmrRepository.save(ecmrPersistenceMapper.toEntity(ecmrWebMapper.toCommand(ecmrModel), EcmrType.ECMR, EcmrStatus.NEW));
+        ecmrAssignmentRepository.save(new EcmrAssignmentEntity(ecmr, grandchild, null, EcmrRole.Sender));
+        ecmrVisibilityService.assignmentsChanged(ecmr);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testAssignment_VisibleToAncestors() {
+        // Act
+        List<EcmrRole> rootUserRoles = ecmrVisibilityRepository.findRolesByEcmrIdAndUserId(ecmr.getEcmrId(), rootUser.getId());
+        List<EcmrRole> otherRootUserRoles = ecmrVisibilityRepository.findRolesByEcmrIdAndUserId(ecmr.getEcmrId(), otherRootUser.getId());
+        List<Long> rootEcmrIds = findVisibleEcmrIds(root);
+
+        // Assert
+        assertEquals(List.of(EcmrRole.Sender), rootUserRoles);
+        assertTrue(otherRootUserRoles.isEmpty());
+        assertEquals(List.of(ecmr.getId()), rootEcmrIds);
+        assertEquals(List.of(ecmr.getId()), findVisibleEcmrIds(child));
+        assertEquals(List.of(ecmr.getId()), findVisibleEcmrIds(grandchild));
+        assertTrue(findVisibleEcmrIds(otherRoot).isEmpty());
+    }
+
+    @Test
+    void testUpdateGroupParent_MovesVisibilityWithSubtree() throws Exception {
+        // Act
+        groupService.updateGroupParent(child.getId(), otherRoot.getId());
+
+        // Assert
+        assertTrue(ecmrVisibilityRepository.findRolesByEcmrIdAndUserId(ecmr.getEcmrId(), rootUser.getId()).isEmpty());
+        assertEquals(List.of(EcmrRole.Sender), ecmrVisibilityRepository.findRolesByEcmrIdAndUserId(ecmr.getEcmrId(), otherRootUser.getId()));
+        assertTrue(findVisibleEcmrIds(root).isEmpty());
+        assertEquals(List.of(ecmr.getId()), findVisibleEcmrIds(otherRoot));
+        assertEquals(List.of(ecmr.getId()), findVisibleEcmrIds(grandchild));
+    }
+
+    @Test
+    void testUpdateGroupParent_RejectsDescendant() {
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> groupService.updateGroupParent(root.getId(), grandchild.getId()));
+        assertThrows(ValidationException.class, () -> groupService.updateGroupParent(root.getId(), root.getId()));
+    }
+
+    @Test
+    void testDeleteGroup_KeepsVisibilityOfParent() throws Exception {
+        // Act
+        groupService.deleteGroup(grandchild.getId());
+        entityManager.flush();
+
+        // Assert
+        assertEquals(List.of(EcmrRole.Sender), ecmrVisibilityRepository.findRolesByEcmrIdAndUserId(ecmr.getEcmrId(), rootUser.getId()));
+        assertEquals(List.of(ecmr.getId()), findVisibleEcmrIds(child));
+        assertTrue(ecmrVisibilityRepository.findAll().stream().noneMatch(visibility -> visibility.getGroup().getId().equals(grandchild.getId())));
+    }
+
+    private List<Long> findVisibleEcmrIds(GroupEntity group) {
+        FilterRequestCommand filter = new FilterRequestCommand(null, null, null, null, null, null, null, null, null, null);
+        return ecmrRepository.findIdsByTypeAndAssignedGroupIds(EcmrType.ECMR, List.of(group.getId()), filter, Pageable.unpaged()).getContent();
+    }
+
+    private GroupEntity createGroup(String name, GroupEntity parent) {
+        GroupEntity group = new GroupEntity();
+        group.setName(name);
+        group.setParent(parent);
+        group = groupRepository.save(group);
+        ecmrVisibilityService.groupCreated(group);
+        return group;
+    }
+
+    private UserEntity createUser(String email, GroupEntity group) {
+        UserEntity user = userRepository.save(new UserEntity("first", "last", CountryCode.DE, email, null, UserRole.User, group, false, false));
+        userToGroupRepository.save(new UserToGroupEntity(user, group));
+        return user;
+    }
+}
@@ -8,23 +8,41 @@
 
 package org.openlogisticsfoundation.ecmr.web.controllers;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyBoolean;
 import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Predicate;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -32,30 +50,48 @@
 import org.openlogisticsfoundation.ecmr.api.model.EcmrModel;
 import org.openlogisticsfoundation.ecmr.api.model.EcmrStatus;
 import org.openlogisticsfoundation.ecmr.api.model.TransportRole;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.RateLimitException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.ValidationException;
 import org.openlogisticsfoundation.ecmr.domain.models.AuthenticatedUser;
+import org.openlogisticsfoundation.ecmr.domain.models.CountMode;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrExportFormat;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrFacetCount;
 import org.openlogisticsfoundation.ecmr.domain.models.CountryCode;
 import org.openlogisticsfoundation.ecmr.domain.models.EcmrRole;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrSearchHit;
 import org.openlogisticsfoundation.ecmr.domain.models.EcmrShareResponse;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrSummary;
 import org.openlogisticsfoundation.ecmr.domain.models.EcmrTransportType;
+import org.openlogisticsfoundation.ecmr.domain.models.EcmrType;
 import org.openlogisticsfoundation.ecmr.domain.models.Group;
 import org.openlogisticsfoundation.ecmr.domain.models.InternalOrExternalUser;
-import org.openlogisticsfoundation.ecmr.domain.models.PdfFile;
+import org.openlogisticsfoundation.ecmr.domain.models.StreamedFile;
 import org.openlogisticsfoundation.ecmr.domain.models.ShareEcmrResult;
+import org.openlogisticsfoundation.ecmr.domain.models.SortingField;
+import org.openlogisticsfoundation.ecmr.domain.models.SortingOrder;
 import org.openlogisticsfoundation.ecmr.domain.models.User;
 import org.openlogisticsfoundation.ecmr.domain.models.UserRole;
 import org.openlogisticsfoundation.ecmr.domain.models.commands.EcmrCommand;
 import org.openlogisticsfoundation.ecmr.domain.models.commands.SealCommand;
+import org.openlogisticsfoundation.ecmr.domain.services.ConsigneeSignatureService;
+import org.openlogisticsfoundation.ecmr.domain.services.EcmrBulkPdfService;
 import org.openlogisticsfoundation.ecmr.domain.services.EcmrCreationService;
 import org.openlogisticsfoundation.ecmr.domain.services.EcmrDeleteService;
+import org.openlogisticsfoundation.ecmr.domain.services.EcmrExportService;
 import org.openlogisticsfoundation.ecmr.domain.services.EcmrPdfService;
 import org.openlogisticsfoundation.ecmr.domain.services.EcmrSealService;
 import org.openlogisticsfoundation.ecmr.domain.services.EcmrService;
 import org.openlogisticsfoundation.ecmr.domain.services.EcmrShareService;
 import org.openlogisticsfoundation.ecmr.domain.services.EcmrUpdateService;
+import org.openlogisticsfoundation.ecmr.domain.services.search.EcmrSearchService;
 import org.openlogisticsfoundation.ecmr.web.mappers.EcmrWebMapper;
+import org.openlogisticsfoundation.ecmr.web.models.EcmrCursorPageModel;
+import org.openlogisticsfoundation.ecmr.web.models.EcmrFacetsModel;
 import org.openlogisticsfoundation.ecmr.web.models.EcmrPageModel;
+import org.openlogisticsfoundation.ecmr.web.models.EcmrSearchResultModel;
 import org.openlogisticsfoundation.ecmr.web.models.EcmrShareModel;
 import org.openlogisticsfoundation.ecmr.web.models.EcmrShareWithGroupModel;
+import org.openlogisticsfoundation.ecmr.web.models.EcmrSummaryPageModel;
 import org.openlogisticsfoundation.ecmr.web.models.FilterRequestModel;
 import org.openlogisticsfoundation.ecmr.web.models.SealModel;
 import org.openlogisticsfoundation.ecmr.web.services.AuthenticationService;
@@ -63,10 +99,12 @@
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -81,6 +119,12 @@ public class EcmrControllerTest {
     @MockBean
     private EcmrService ecmrService;
 
+    @MockBean
+    private EcmrExportService ecmrExportService;
+
+    @MockBean
+    private EcmrSearchService ecmrSearchService;
+
     @MockBean
     private EcmrUpdateService ecmrUpdateService;
 
@@ -90,6 +134,9 @@ public class EcmrControllerTest {
     @MockBean
     private EcmrPdfService ecmrPdfService;
 
+    @MockBean
+    private EcmrBulkPdfService ecmrBulkPdfService;
+
     @MockBean
     private EcmrWebMapper ecmrWebMapper;
 
@@ -105,6 +152,9 @@ public class EcmrControllerTest {
     @MockBean
     private EcmrSealService ecmrSealService;
 
+    @MockBean
+    private ConsigneeSignatureService consigneeSignatureService;
+
     private AuthenticatedUser authenticatedUser;
     private UUID ecmrId;
     private EcmrModel ecmrModel;
@@ -156,9 +206,9 @@ public void testGetMyEcmrs_Success() throws Exception {
                 "consigneePostCode",
                 "lastEditor"
         );
-        EcmrPageModel pageModel = new EcmrPageModel(0, 1, List.of());
+        EcmrPageModel pageModel = new EcmrPageModel(0, 1L, List.of(), false, CountMode.EXACT);
 
-        when(ecmrService.getEcmrsForUser(any(), any(), anyInt(), anyInt(), any(), any(), any())).thenReturn(pageModel);
+        when(ecmrService.getEcmrsForUser(any(), any(), anyInt(), anyInt(), any(), any(), eq(CountMode.EXACT), any())).thenReturn(pageModel);
         String filterJsonRequest = new ObjectMapper().writeValueAsString(filterRequestModel);
 
         // Act
@@ -169,7 +219,212 @@ public void testGetMyEcmrs_Success() throws Exception {
 
         // Assert
         verify(authenticationService, times(1)).getAuthenticatedUser();
-        verify(ecmrService, times(1)).getEcmrsForUser(any(), any(), anyInt(), anyInt(), any(), any(), any());
+        verify(ecmrService, times(1)).getEcmrsForUser(any(), any(), anyInt(), anyInt(), any(), any(), eq(CountMode.EXACT), any());
+    }
+
+    @Test
+    @WithMockUser
+    public void testGetMyEcmrs_WithoutCount() throws Exception {
+        // Arrange
+        FilterRequestModel filterRequestModel = new FilterRequestModel(null, null, null, null, null, null, null, null, null, null);
+        EcmrPageModel pageModel = new EcmrPageModel(null, null, List.of(), true, CountMode.NONE);
+
+        when(ecmrService.getEcmrsForUser(any(), any(), anyInt(), anyInt(), any(), any(), eq(CountMode.NONE), any())).thenReturn(pageModel);
+        String filterJsonRequest = new ObjectMapper().writeValueAsString(filterRequestModel);
+
+        // Act
+        mockMvc.perform(post("/ecmr/my-ecmrs")
+                        .param("countMode", "NONE")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(filterJsonRequest))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.countMode").value("NONE"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+        // Assert
+        verify(ecmrService, times(1)).getEcmrsForUser(any(), any(), anyInt(), anyInt(), any(), any(), eq(CountMode.NONE), any());
+    }
+
+    @Test
+    @WithMockUser
+    public void testGetMyEcmrSummaries_Success() throws Exception {
+        // Arrange
+        FilterRequestModel filterRequestModel = new FilterRequestModel(null, "from", null, null, null, null, null, null, null, null);
+        EcmrSummary summary = new EcmrSummary(ecmrId, EcmrType.ECMR, EcmrStatus.NEW, "reference", "Sender", "DE", "Consignee", "12345", "FR",
+                "Carrier", "54321", "AB-CD-123", Instant.now(), "Creator", null, null);
+        EcmrSummaryPageModel pageModel = new EcmrSummaryPageModel(1, 1, List.of(summary));
+
+        when(ecmrService.getEcmrSummariesForUser(any(), any(), anyInt(), anyInt(), any(), any(), any())).thenReturn(pageModel);
+        String filterJsonRequest = new ObjectMapper().writeValueAsString(filterRequestModel);
+
+        // Act
+        mockMvc.perform(post("/ecmr/my-ecmrs/summary")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(filterJsonRequest))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.ecmrs[0].carrierLicensePlate").value("AB-CD-123"));
+
+        // Assert
+        verify(ecmrService, times(1)).getEcmrSummariesForUser(any(), any(), anyInt(), anyInt(), any(), any(), any());
+    }
+
+    @Test
+    @WithMockUser
+    public void testExportMyEcmrs_Ndjson() throws Exception {
+        // Arrange
+        FilterRequestModel filterRequestModel = new FilterRequestModel(null, "from", null, null, null, null, null, null, null, null);
+
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(6).write("{\"referenceIdentificationNumber\":\"reference\"}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(ecmrExportService).exportEcmrSummariesForUser(any(), eq(EcmrType.ECMR), any(), any(), eq(EcmrExportFormat.NDJSON), any(), any());
+        String filterJsonRequest = new ObjectMapper().writeValueAsString(filterRequestModel);
+
+        // Act
+        MvcResult result = mockMvc.perform(post("/ecmr/my-ecmrs/export")
+                        .param("format", "NDJSON")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(filterJsonRequest))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"ecmrs.ndjson\""))
+                .andExpect(content().string("{\"referenceIdentificationNumber\":\"reference\"}\n"));
+        verify(ecmrExportService, times(1)).exportEcmrSummariesForUser(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @WithMockUser
+    public void testGetMyEcmrFacets_Success() throws Exception {
+        // Arrange
+        FilterRequestModel filterRequestModel = new FilterRequestModel(null, "from", null, null, null, null, null, null, null, null);
+        EcmrFacetCount count = new EcmrFacetCount(EcmrType.ECMR, EcmrStatus.NEW, EcmrTransportType.National, 3);
+        EcmrFacetsModel facetsModel = new EcmrFacetsModel(3, Map.of(EcmrType.ECMR, 3L), Map.of(EcmrStatus.NEW, 3L),
+                Map.of(EcmrTransportType.National, 3L), List.of(count));
+
+        when(ecmrService.getEcmrFacetsForUser(any(), eq(true), any())).thenReturn(facetsModel);
+        String filterJsonRequest = new ObjectMapper().writeValueAsString(filterRequestModel);
+
+        // Act
+        mockMvc.perform(post("/ecmr/my-ecmrs/facets")
+                        .param("cached", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(filterJsonRequest))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.statuses.NEW").value(3))
+                .andExpect(jsonPath("$.counts[0].transportType").value("National"));
+
+        // Assert
+        verify(ecmrService, times(1)).getEcmrFacetsForUser(any(), eq(true), any());
+    }
+
+    @Test
+    @WithMockUser
+    public void testGetMyEcmrsByCursor_Success() throws Exception {
+        // Arrange
+        FilterRequestModel filterRequestModel = new FilterRequestModel(null, null, null, null, EcmrStatus.NEW, null, null, null, null, null);
+        EcmrCursorPageModel pageModel = new EcmrCursorPageModel(List.of(), "next");
+
+        when(ecmrService.getEcmrsForUserAfter(any(), any(), eq("cursor"), eq(20), eq(SortingField.lastEditDate), eq(SortingOrder.DESC), any()))
+                .thenReturn(pageModel);
+        String filterJsonRequest = new ObjectMapper().writeValueAsString(filterRequestModel);
+
+        // Act
+        mockMvc.perform(post("/ecmr/my-ecmrs/cursor")
+                        .param("cursor", "cursor")
+                        .param("size", "20")
+                        .param("sortBy", "lastEditDate")
+                        .param("sortingOrder", "DESC")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(filterJsonRequest))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        // Assert
+        verify(ecmrService, times(1)).getEcmrsForUserAfter(any(), any(), eq("cursor"), eq(20), eq(SortingField.lastEditDate),
+                eq(SortingOrder.DESC), any());
+    }
+
+    @Test
+    @WithMockUser
+    public void testGetMyEcmrsByCursor_InvalidCursor() throws Exception {
+        // Arrange
+        FilterRequestModel filterRequestModel = new FilterRequestModel(null, null, null, null, null, null, null, null, null, null);
+        when(ecmrService.getEcmrsForUserAfter(any(), any(), any(), anyInt(), any(), any(), any()))
+                .thenThrow(new ValidationException("Invalid cursor"));
+        String filterJsonRequest = new ObjectMapper().writeValueAsString(filterRequestModel);
+
+        // Act & Assert
+        mockMvc.perform(post("/ecmr/my-ecmrs/cursor")
+                        .param("cursor", "invalid")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(filterJsonRequest))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    public void testSearchMyEcmrs_Success() throws Exception {
+        // Arrange
+        UUID ecmrId = UUID.randomUUID();
+        EcmrSearchHit hit = new EcmrSearchHit(ecmrId, 2.5f, EcmrType.ECMR, EcmrStatus.NEW, "REF-4711", "Müller", "Schmidt", "HH-AB 1234");
+        EcmrSearchResultModel resultModel = new EcmrSearchResultModel(1, List.of(hit), Map.of(EcmrType.ECMR, 1L), Map.of(EcmrStatus.NEW, 1L),
+                Map.of(EcmrTransportType.National, 1L));
+
+        when(ecmrSearchService.searchEcmrsForUser(any(), eq("muller"), eq(null), eq(EcmrStatus.NEW), eq(5))).thenReturn(resultModel);
+
+        // Act
+        mockMvc.perform(get("/ecmr/search")
+                        .param("q", "muller")
+                        .param("status", "NEW")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.hits[0].ecmrId").value(ecmrId.toString()))
+                .andExpect(jsonPath("$.statuses.NEW").value(1));
+
+        // Assert
+        verify(ecmrSearchService, times(1)).searchEcmrsForUser(any(), eq("muller"), eq(null), eq(EcmrStatus.NEW), eq(5));
+    }
+
+    @Test
+    @WithMockUser
+    public void testSearchMyEcmrs_EmptyText() throws Exception {
+        // Arrange
+        when(ecmrSearchService.searchEcmrsForUser(any(), any(), any(), any(), anyInt()))
+                .thenThrow(new ValidationException("Search text must not be empty"));
+
+        // Act & Assert
+        mockMvc.perform(get("/ecmr/search")
+                        .param("q", " "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    public void testGetMyEcmrsByBarcode_Success() throws Exception {
+        // Arrange
+        UUID ecmrId = UUID.randomUUID();
+        EcmrSummary summary = new EcmrSummary(ecmrId, EcmrType.ECMR, EcmrStatus.LOADING, "reference", "sender", "DE", "consignee", "12345", "DE",
+                "carrier", "54321", "HH-AB 1234", Instant.now(), "creator", Instant.now(), "editor");
+
+        when(ecmrService.getEcmrSummariesByBarcodeForUser(any(), eq("4012345000009"))).thenReturn(List.of(summary));
+
+        // Act
+        mockMvc.perform(get("/ecmr/by-barcode")
+                        .param("barcode", "4012345000009"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].ecmrId").value(ecmrId.toString()))
+                .andExpect(jsonPath("$[0].ecmrStatus").value("LOADING"));
+
+        // Assert
+        verify(ecmrService, times(1)).getEcmrSummariesByBarcodeForUser(any(), eq("4012345000009"));
     }
 
     @Test
@@ -310,17 +565,285 @@ public void testDownloadEcmrPdfFile_Success() throws Exception {
         // Arrange
         String filename = "test.pdf";
         byte[] data = new byte[] { 1, 2, 3, 4, 5 };
-        PdfFile pdfFile = new PdfFile(filename, data);
+        StreamedFile pdfFile = new StreamedFile(filename, StreamedFile.APPLICATION_PDF, data);
 
         when(authenticationService.getAuthenticatedUser(true)).thenReturn(authenticatedUser);
-        when(ecmrPdfService.createJasperReportForEcmr(eq(ecmrId), any(InternalOrExternalUser.class), eq(true))).thenReturn(pdfFile);
+        when(ecmrPdfService.createJasperReportForEcmr(eq(ecmrId), any(InternalOrExternalUser.class), eq(true), any(Predicate.class)))
+                .thenReturn(pdfFile);
 
         // Act & Assert
         mockMvc.perform(get("/ecmr/{ecmrId}/pdf", ecmrId))
                 .andExpect(status().isOk());
 
         verify(authenticationService, times(1)).getAuthenticatedUser(true);
-        verify(ecmrPdfService, times(1)).createJasperReportForEcmr(eq(ecmrId), any(InternalOrExternalUser.class), eq(true));
+        verify(ecmrPdfService, times(1)).createJasperReportForEcmr(eq(ecmrId), any(InternalOrExternalUser.class), eq(true), any(Predicate.class));
+    }
+
+    @Test
+    @WithMockUser
+    public void testDownloadEcmrPdfFile_NotModified() throws Exception {
+        // Arrange
+        when(authenticationService.getAuthenticatedUser(true)).thenReturn(authenticatedUser);
+        when(ecmrPdfService.createJasperReportForEcmr(eq(ecmrId), any(InternalOrExternalUser.class), eq(true), any(Predicate.class)))
+                .thenAnswer(invocation -> {
+                    Predicate<String> clientHasEtag = invocation.getArgument(3);
+                    assertTrue(clientHasEtag.test("\"version\""));
+                    assertFalse(clientHasEtag.test("\"changed\""));
+                    return StreamedFile.notModified("test.pdf", StreamedFile.APPLICATION_PDF, "\"version\"");
+                });
+
+        // Act & Assert
+        mockMvc.perform(get("/ecmr/{ecmrId}/pdf", ecmrId).header("If-None-Match", "\"other\", W/\"version\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"version\""));
+    }
+
+    @Test
+    @WithMockUser
+    public void testDownloadEcmrPdfFile_PartialContent() throws Exception {
+        // Arrange
+        StreamedFile pdfFile = new StreamedFile("test.pdf", StreamedFile.APPLICATION_PDF, new byte[] { 1, 2, 3, 4, 5 }).withEtag("\"version\"");
+
+        when(authenticationService.getAuthenticatedUser(true)).thenReturn(authenticatedUser);
+        when(ecmrPdfService.createJasperReportForEcmr(eq(ecmrId), any(InternalOrExternalUser.class), eq(true), any(Predicate.class)))
+                .thenReturn(pdfFile);
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/ecmr/{ecmrId}/pdf", ecmrId).header("Range", "bytes=1-2").header("If-Range", "\"version\""))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 1-2/5"))
+                .andExpect(content().bytes(new byte[] { 2, 3 }));
+    }
+
+    @Test
+    @WithMockUser
+    public void testDownloadEcmrPdfFile_RangeNotSatisfiable() throws Exception {
+        // Arrange
+        StreamedFile pdfFile = new StreamedFile("test.pdf", StreamedFile.APPLICATION_PDF, new byte[] { 1, 2, 3, 4, 5 });
+
+        when(authenticationService.getAuthenticatedUser(true)).thenReturn(authenticatedUser);
+        when(ecmrPdfService.createJasperReportForEcmr(eq(ecmrId), any(InternalOrExternalUser.class), eq(true), any(Predicate.class)))
+                .thenReturn(pdfFile);
+
+        // Act & Assert
+        mockMvc.perform(get("/ecmr/{ecmrId}/pdf", ecmrId).header("Range", "bytes=5-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */5"));
+    }
+
+    @Test
+    @WithMockUser
+    public void testGetEcmrPreview_Success() throws Exception {
+        // Arrange
+        StreamedFile preview = new StreamedFile("test.png", StreamedFile.IMAGE_PNG, new byte[] { 1, 2, 3 }).withEtag("\"version\"");
+
+        when(authenticationService.getAuthenticatedUser(true)).thenReturn(authenticatedUser);
+        when(ecmrPdfService.createPreviewForEcmr(eq(ecmrId), any(InternalOrExternalUser.class), eq(200), eq(true), any(Predicate.class)))
+                .thenReturn(preview);
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/ecmr/{ecmrId}/preview", ecmrId).param("width", "200"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "image/png"))
+                .andExpect(header().string("ETag", "\"version\""))
+                .andExpect(content().bytes(new byte[] { 1, 2, 3 }));
+    }
+
+    @Test
+    @WithMockUser
+    public void testGetEcmrPreview_InvalidWidth() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/ecmr/{ecmrId}/preview", ecmrId).param("width", "5000"))
+                .andExpect(status().isBadRequest());
+
+        verify(ecmrPdfService, times(0)).createPreviewForEcmr(any(), any(), anyInt(), anyBoolean(), any());
+    }
+
+    @Test
+    @WithMockUser
+    public void testGetConsigneeSignature_Success() throws Exception {
+        // Arrange
+        StreamedFile signature = new StreamedFile("consignee-signature-1.png", StreamedFile.IMAGE_PNG, new byte[] { 1, 2, 3 })
+                .withEtag("\"signature-1\"");
+        when(authenticationService.getAuthenticatedUser(true)).thenReturn(authenticatedUser);
+        when(consigneeSignatureService.getSignatureImage(eq(ecmrId), any(InternalOrExternalUser.class))).thenReturn(Optional.of(signature));
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/ecmr/{ecmrId}/consignee-signature", ecmrId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(header().string("ETag", "\"signature-1\""))
+                .andExpect(content().bytes(new byte[] { 1, 2, 3 }));
+    }
+
+    @Test
+    @WithMockUser
+    public void testGetConsigneeSignature_NotModified() throws Exception {
+        // Arrange
+        StreamedFile signature = new StreamedFile("consignee-signature-1.png", StreamedFile.IMAGE_PNG, null, outputStream -> {
+            throw new IOException("The image must not be read");
+        }).withEtag("\"signature-1\"");
+        when(authenticationService.getAuthenticatedUser(true)).thenReturn(authenticatedUser);
+        when(consigneeSignatureService.getSignatureImage(eq(ecmrId), any(InternalOrExternalUser.class))).thenReturn(Optional.of(signature));
+
+        // Act & Assert
+        mockMvc.perform(get("/ecmr/{ecmrId}/consignee-signature", ecmrId).header("If-None-Match", "\"signature-1\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @WithMockUser
+    public void testGetConsigneeSignature_NotFound() throws Exception {
+        // Arrange
+        when(authenticationService.getAuthenticatedUser(true)).thenReturn(authenticatedUser);
+        when(consigneeSignatureService.getSignatureImage(eq(ecmrId), any(InternalOrExternalUser.class))).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(get("/ecmr/{ecmrId}/consignee-signature", ecmrId))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser
+    public void testDownloadEcmrPdfFile_TooManyRequests() throws Exception {
+        // Arrange
+        when(authenticationService.getAuthenticatedUser(true)).thenReturn(authenticatedUser);
+        when(ecmrPdfService.createJasperReportForEcmr(eq(ecmrId), any(InternalOrExternalUser.class), eq(true), any(Predicate.class)))
+                .thenThrow(new RateLimitException("Too many PDF rendering requests", Duration.ofSeconds(5)));
+
+        // Act & Assert
+        mockMvc.perform(get("/ecmr/{ecmrId}/pdf", ecmrId))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "5"));
+    }
+
+    @Test
+    @WithMockUser
+    public void testDownloadMyEcmrsPdfArchive_Success() throws Exception {
+        // Arrange
+        FilterRequestModel filterRequestModel = new FilterRequestModel(null, null, null, null, EcmrStatus.DELIVERED, null, null, null, null, null);
+        String filterJsonRequest = new ObjectMapper().writeValueAsString(filterRequestModel);
+
+        StreamedFile archive = new StreamedFile("eCMRs.zip", "application/zip", new byte[] { 1, 2, 3 });
+        when(authenticationService.getAuthenticatedUser(true)).thenReturn(authenticatedUser);
+        when(ecmrService.getEcmrIdsForUser(any(), any(), any(), any(), any(), anyInt())).thenReturn(List.of(ecmrId));
+        when(ecmrBulkPdfService.createPdfArchive(eq(List.of(ecmrId)), any(InternalOrExternalUser.class), eq(true))).thenReturn(archive);
+
+        // Act
+        MvcResult result = mockMvc.perform(post("/ecmr/my-ecmrs/pdf")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(filterJsonRequest))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"eCMRs.zip\""));
+
+        // Assert
+        verify(ecmrService, times(1)).getEcmrIdsForUser(any(), any(), any(), any(), any(), eq(EcmrBulkPdfService.ARCHIVE_MAX_DOCUMENTS + 1));
+        verify(ecmrBulkPdfService, times(1)).createPdfArchive(eq(List.of(ecmrId)), any(InternalOrExternalUser.class), eq(true));
+    }
+
+    @Test
+    @WithMockUser
+    public void testDownloadMyEcmrsPdfArchive_TooManyEcmrs() throws Exception {
+        // Arrange
+        when(authenticationService.getAuthenticatedUser(true)).thenReturn(authenticatedUser);
+        when(ecmrService.getEcmrIdsForUser(any(), any(), any(), any(), any(), anyInt())).thenReturn(List.of(ecmrId));
+        when(ecmrBulkPdfService.createPdfArchive(any(), any(InternalOrExternalUser.class), eq(true)))
+                .thenThrow(new ValidationException("A PDF archive can contain at most 1000 eCMRs"));
+
+        // Act & Assert
+        mockMvc.perform(post("/ecmr/my-ecmrs/pdf")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    public void testDownloadMyEcmrsPdfArchive_TooManyRequests() throws Exception {
+        // Arrange
+        when(authenticationService.getAuthenticatedUser(true)).thenReturn(authenticatedUser);
+        when(ecmrService.getEcmrIdsForUser(any(), any(), any(), any(), any(), anyInt())).thenReturn(List.of(ecmrId));
+        when(ecmrBulkPdfService.createPdfArchive(any(), any(InternalOrExternalUser.class), eq(true)))
+                .thenThrow(new RateLimitException("Too many PDF archive exports"));
+
+        // Act & Assert
+        mockMvc.perform(post("/ecmr/my-ecmrs/pdf")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    @WithMockUser
+    public void testDownloadLoadSheet_ByLicensePlate() throws Exception {
+        // Arrange
+        StreamedFile pdfFile = new StreamedFile("eCMR-load-sheet-AB123-2025-05-02.pdf", StreamedFile.APPLICATION_PDF, new byte[] { 1, 2, 3 });
+        when(authenticationService.getAuthenticatedUser(true)).thenReturn(authenticatedUser);
+        when(ecmrService.getEcmrIdsForLoadSheet(any(), eq("AB123"), eq(LocalDate.of(2025, 5, 2)))).thenReturn(List.of(ecmrId));
+        when(ecmrPdfService.createLoadSheet(eq(List.of(ecmrId)), any(InternalOrExternalUser.class), any())).thenReturn(pdfFile);
+
+        // Act
+        MvcResult result = mockMvc.perform(post("/ecmr/load-sheet")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"licensePlate\":\"AB123\",\"date\":\"2025-05-02\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andExpect(content().bytes(new byte[] { 1, 2, 3 }));
+
+        // Assert
+        verify(ecmrService, times(1)).getEcmrIdsForLoadSheet(any(), eq("AB123"), eq(LocalDate.of(2025, 5, 2)));
+        verify(ecmrPdfService, times(1)).createLoadSheet(eq(List.of(ecmrId)), any(InternalOrExternalUser.class), any());
+    }
+
+    @Test
+    @WithMockUser
+    public void testDownloadLoadSheet_TooManyRequests() throws Exception {
+        // Arrange
+        when(authenticationService.getAuthenticatedUser(true)).thenReturn(authenticatedUser);
+        when(ecmrPdfService.createLoadSheet(eq(List.of(ecmrId)), any(InternalOrExternalUser.class), any()))
+                .thenThrow(new RateLimitException("Too many PDF rendering requests", Duration.ofSeconds(5)));
+
+        // Act & Assert
+        mockMvc.perform(post("/ecmr/load-sheet")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ecmrIds\":[\"" + ecmrId + "\"]}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "5"));
+    }
+
+    @Test
+    @WithMockUser
+    public void testDownloadLoadSheet_NoSelection() throws Exception {
+        // Arrange
+        when(authenticationService.getAuthenticatedUser(true)).thenReturn(authenticatedUser);
+
+        // Act & Assert
+        mockMvc.perform(post("/ecmr/load-sheet")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"licensePlate\":\"AB123\"}"))
+                .andExpect(status().isBadRequest());
+        verify(ecmrPdfService, times(0)).createLoadSheet(any(), any(), any());
     }
 
     @Test
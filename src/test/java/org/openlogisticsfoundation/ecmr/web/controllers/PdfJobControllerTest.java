@@ -0,0 +1,132 @@
+/*
+ * Copyright Open Logistics Foundation
+ *
+ * Licensed under the Open Logistics Foundation License 1.3.
+ * For details on the licensing terms, see the LICENSE file.
+ * SPDX-License-Identifier: OLFL-1.3
+ */
+
+package org.openlogisticsfoundation.ecmr.web.controllers;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.PdfJobNotCompletedException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.PdfJobNotFoundException;
+import org.openlogisticsfoundation.ecmr.domain.exceptions.RateLimitException;
+import org.openlogisticsfoundation.ecmr.domain.models.AuthenticatedUser;
+import org.openlogisticsfoundation.ecmr.domain.models.CountryCode;
+import org.openlogisticsfoundation.ecmr.domain.models.InternalOrExternalUser;
+import org.openlogisticsfoundation.ecmr.domain.models.PdfJob;
+import org.openlogisticsfoundation.ecmr.domain.models.PdfJobStatus;
+import org.openlogisticsfoundation.ecmr.domain.models.User;
+import org.openlogisticsfoundation.ecmr.domain.models.UserRole;
+import org.openlogisticsfoundation.ecmr.domain.services.PdfJobService;
+import org.openlogisticsfoundation.ecmr.web.services.AuthenticationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@AutoConfigureMockMvc(addFilters = false)
+@DirtiesContext
+public class PdfJobControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private AuthenticationService authenticationServiceMock;
+
+    @MockBean
+    private PdfJobService pdfJobServiceMock;
+
+    private User mockUser;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        mockUser = new User(
+            12345, // id
+            "Max", // firstName
+            "Mustermann", // lastName
+            CountryCode.DE, // country
+            "max.mustermann@example.com", // email
+            "+49123456789", // phone
+            UserRole.User, // role
+            null, // defaultGroupId
+            false, // deactivated
+            false // technical
+        );
+        when(authenticationServiceMock.getAuthenticatedUser(true)).thenReturn(new AuthenticatedUser(this.mockUser));
+    }
+
+    @Test
+    @WithMockUser
+    public void testCreatePdfJob_Success() throws Exception {
+        // Arrange
+        UUID ecmrId = UUID.randomUUID();
+        UUID jobId = UUID.randomUUID();
+        PdfJob pdfJob = new PdfJob(jobId, ecmrId, PdfJobStatus.QUEUED, null, Instant.now(), null);
+        when(pdfJobServiceMock.createJob(eq(ecmrId), any(InternalOrExternalUser.class))).thenReturn(pdfJob);
+
+        // Act & Assert
+        mockMvc.perform(post("/pdf-jobs").param("ecmrId", ecmrId.toString()))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.jobId").value(jobId.toString()))
+            .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    @Test
+    @WithMockUser
+    public void testCreatePdfJob_TooManyPendingJobs() throws Exception {
+        // Arrange
+        UUID ecmrId = UUID.randomUUID();
+        when(pdfJobServiceMock.createJob(eq(ecmrId), any(InternalOrExternalUser.class)))
+            .thenThrow(new RateLimitException("Too many pending PDF jobs", Duration.ofSeconds(5)));
+
+        // Act & Assert
+        mockMvc.perform(post("/pdf-jobs").param("ecmrId", ecmrId.toString()))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().string("Retry-After", "5"));
+    }
+
+    @Test
+    @WithMockUser
+    public void testGetPdfJob_NotFound() throws Exception {
+        // Arrange
+        UUID jobId = UUID.randomUUID();
+        when(pdfJobServiceMock.getJob(eq(jobId), any(InternalOrExternalUser.class))).thenThrow(new PdfJobNotFoundException(jobId));
+
+        // Act & Assert
+        mockMvc.perform(get("/pdf-jobs/{jobId}", jobId))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser
+    public void testDownloadPdfJobResult_NotCompleted() throws Exception {
+        // Arrange
+        UUID jobId = UUID.randomUUID();
+        when(pdfJobServiceMock.getJobResult(eq(jobId), any(InternalOrExternalUser.class))).thenThrow(new PdfJobNotCompletedException(jobId));
+
+        // Act & Assert
+        mockMvc.perform(get("/pdf-jobs/{jobId}/result", jobId))
+            .andExpect(status().isConflict());
+    }
+}